@@ -2,6 +2,10 @@ package com.example.projetofinanceiro.config;
 
 import com.example.projetofinanceiro.model.*;
 import com.example.projetofinanceiro.repository.*;
+import com.example.projetofinanceiro.service.AccountBalanceService;
+import com.example.projetofinanceiro.service.CreditCardLimitService;
+import com.example.projetofinanceiro.service.NetWorthSnapshotService;
+import com.example.projetofinanceiro.service.TransactionRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -26,6 +30,13 @@ public class DatabaseSeeder implements CommandLineRunner {
     private final RecurringTransactionRepository recurringRepository;
     private final BudgetRepository budgetRepository;
     private final CreditCardRepository creditCardRepository;
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final TransactionRollupService rollupService;
+    private final NetWorthSnapshotRepository netWorthSnapshotRepository;
+    private final MonthlySummaryRepository monthlySummaryRepository;
+    private final NetWorthSnapshotService netWorthSnapshotService;
+    private final AccountBalanceService accountBalanceService;
+    private final CreditCardLimitService creditCardLimitService;
     private final PasswordEncoder passwordEncoder;
 
     @Override
@@ -41,6 +52,9 @@ public class DatabaseSeeder implements CommandLineRunner {
             if (existingUser != null) {
                 System.out.println("Limpando dados antigos do usuário demo...");
                 transactionRepository.deleteAll(transactionRepository.findByUser(existingUser));
+                rollupRepository.deleteByUserId(existingUser.getId());
+                netWorthSnapshotRepository.deleteByUserId(existingUser.getId());
+                monthlySummaryRepository.deleteByUserId(existingUser.getId());
                 assetRepository.deleteAll(assetRepository.findByUser(existingUser));
                 recurringRepository.deleteAll(recurringRepository.findByUser(existingUser));
                 creditCardRepository.deleteAll(creditCardRepository.findByUser(existingUser));
@@ -114,9 +128,6 @@ public class DatabaseSeeder implements CommandLineRunner {
             createCardTransaction(demoUser, nubankCard, catLazer, "Jantar Outback", new BigDecimal("320.50"), now.minusDays(2));
             createCardTransaction(demoUser, nubankCard, catTransporte, "Uber Viagem", new BigDecimal("45.20"), now);
 
-            nubankCard.setLimitUsed(new BigDecimal("415.60"));
-            creditCardRepository.save(nubankCard);
-
             // 7. Criar Despesa Recorrente
             RecurringTransaction spotify = new RecurringTransaction();
             spotify.setDescription("Spotify Premium");
@@ -160,6 +171,12 @@ public class DatabaseSeeder implements CommandLineRunner {
                 if (i == 15) createTransaction(demoUser, demoAccount, catLazer, "Assinaturas", new BigDecimal("89.90"), TransactionType.EXPENSE, date);
             }
 
+            rollupService.rebuild(demoUser.getId());
+            accountBalanceService.reconcile(demoUser.getId());
+            creditCardLimitService.reconcile(demoUser.getId());
+            // Primeira captura: preenche os fins de mês anteriores a partir do rollup
+            netWorthSnapshotService.capture(demoUser);
+
             System.out.println("Usuário de demonstração criado com sucesso!");
 
         } catch (Exception e) {
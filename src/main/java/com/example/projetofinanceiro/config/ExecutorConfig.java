@@ -0,0 +1,123 @@
+package com.example.projetofinanceiro.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Executor das seções do dashboard. Usa virtual threads quando o runtime
+     * suporta (Java 21+); caso contrário, um pool fixo de threads daemon.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService dashboardExecutor(@Value("${dashboard.executor.threads:16}") int threads) {
+        ExecutorService virtual = newVirtualThreadExecutor();
+        if (virtual != null) {
+            log.info("Dashboard executor usando virtual threads.");
+            return virtual;
+        }
+        return Executors.newFixedThreadPool(threads, namedDaemonThreads("dashboard-"));
+    }
+
+    /**
+     * Executor que entrega os eventos do /api/stream. Cada conexão drena sua própria
+     * fila aqui, fora das threads do Tomcat.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService streamExecutor(@Value("${stream.sse.executor.threads:8}") int threads) {
+        ExecutorService virtual = newVirtualThreadExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        return Executors.newFixedThreadPool(threads, namedDaemonThreads("sse-"));
+    }
+
+    /**
+     * Workers dos relatórios assíncronos (/api/reports/jobs). Pool e fila limitados:
+     * quando os dois enchem, o envio é rejeitado em vez de acumular trabalho sem fim.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService reportJobExecutor(@Value("${reports.jobs.workers:4}") int workers,
+                                             @Value("${reports.jobs.queue-capacity:100}") int queueCapacity) {
+        return new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedDaemonThreads("report-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Workers das sincronizações da Pluggy (/api/pluggy/sync). A espera é quase toda
+     * de rede, então as threads são virtuais quando o runtime suporta; o pool e a fila
+     * continuam limitados para não abrir chamadas ilimitadas ao banco parceiro.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pluggySyncExecutor(@Value("${pluggy.sync.workers:8}") int workers,
+                                              @Value("${pluggy.sync.queue-capacity:200}") int queueCapacity) {
+        ThreadFactory threads = virtualThreads("pluggy-sync-");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threads != null ? threads : namedDaemonThreads("pluggy-sync-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Sem sincronizações na fila as threads ociosas são descartadas
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Busca das páginas seguintes de uma sincronização da Pluggy, em paralelo. Separado
+     * do pluggySyncExecutor para que um worker esperando páginas não dispute a fila com
+     * jobs; com tudo ocupado, a própria thread da sincronização busca a página.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pluggyFetchExecutor(@Value("${pluggy.sync.fetch-threads:16}") int threads) {
+        ThreadFactory factory = virtualThreads("pluggy-fetch-");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads), factory != null ? factory : namedDaemonThreads("pluggy-fetch-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * O projeto compila para Java 17, então a API de virtual threads é acessada por
+     * reflexão. Retorna null se não estiver disponível.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    // Thread.ofVirtual().name(prefix, 1).factory(), por reflexão; null antes do Java 21
+    static ThreadFactory virtualThreads(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.projetofinanceiro.config;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Identifica este processo entre as instâncias da aplicação: hostname mais um sufixo
+ * aleatório, novo a cada subida. Gravado como dono dos jobs em segundo plano.
+ */
+@Getter
+@Component
+public class InstanceIdentity {
+
+    private static final int MAX_HOST_LENGTH = 50;
+
+    private final String id;
+
+    public InstanceIdentity() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        if (host.length() > MAX_HOST_LENGTH) host = host.substring(0, MAX_HOST_LENGTH);
+        this.id = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
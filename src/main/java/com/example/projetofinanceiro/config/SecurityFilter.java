@@ -17,6 +17,8 @@ import java.io.IOException;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
+    private static final String STREAM_PATH = "/api/stream";
+
     @Autowired
     TokenService tokenService;
     @Autowired
@@ -25,8 +27,9 @@ public class SecurityFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         var token = this.recoverToken(request);
-        if(token != null){
-            var login = tokenService.validateToken(token);
+        var streamToken = token == null ? this.recoverStreamToken(request) : null;
+        if(token != null || streamToken != null){
+            var login = token != null ? tokenService.validateToken(token) : tokenService.validateStreamToken(streamToken);
             
             if(login != null && !login.isEmpty()) {
                 UserDetails user = userRepository.findByEmail(login);
@@ -51,4 +54,11 @@ public class SecurityFilter extends OncePerRequestFilter {
         if(authHeader == null) return null;
         return authHeader.replace("Bearer ", "");
     }
+
+    // EventSource não envia headers: o /api/stream aceita o token de stream na query string
+    private String recoverStreamToken(HttpServletRequest request){
+        if(!"GET".equals(request.getMethod()) || !STREAM_PATH.equals(request.getServletPath())) return null;
+        var token = request.getParameter("token");
+        return token == null || token.isBlank() ? null : token;
+    }
 }
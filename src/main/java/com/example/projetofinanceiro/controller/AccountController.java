@@ -4,14 +4,18 @@ import com.example.projetofinanceiro.model.Account;
 import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.repository.AccountRepository;
 import com.example.projetofinanceiro.service.AccountService;
+import com.example.projetofinanceiro.service.DataVersionService;
+import com.example.projetofinanceiro.service.NetWorthSnapshotService;
 import com.example.projetofinanceiro.service.UsageLimitService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -22,6 +26,8 @@ public class AccountController {
     private final AccountService accountService;
     private final AccountRepository accountRepository;
     private final UsageLimitService usageLimitService;
+    private final DataVersionService dataVersionService;
+    private final NetWorthSnapshotService netWorthSnapshotService;
 
     @GetMapping
     public List<Account> getAllAccounts() {
@@ -36,7 +42,10 @@ public class AccountController {
         // Check Limits
         usageLimitService.checkAccountLimit(user);
 
-        return accountService.createAccount(account, user);
+        Account savedAccount = accountService.createAccount(account, user);
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
+        return savedAccount;
     }
 
     @PutMapping("/{id}")
@@ -49,18 +58,34 @@ public class AccountController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
         }
 
+        // Mudar o saldo inicial desloca o saldo atual pela mesma diferença
+        BigDecimal oldInitial = account.getInitialBalance() != null ? account.getInitialBalance() : BigDecimal.ZERO;
+        BigDecimal newInitial = accountDetails.getInitialBalance() != null ? accountDetails.getInitialBalance() : BigDecimal.ZERO;
+        account.setCurrentBalance(account.getCurrentBalance().add(newInitial.subtract(oldInitial)));
+
         account.setName(accountDetails.getName());
         account.setBank(accountDetails.getBank());
-        account.setInitialBalance(accountDetails.getInitialBalance());
+        account.setInitialBalance(newInitial);
         account.setType(accountDetails.getType());
         
-        return accountRepository.save(account);
+        Account savedAccount;
+        try {
+            savedAccount = accountRepository.save(account);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Uma transação alterou o saldo entre a leitura e a gravação
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Account was modified concurrently, please retry");
+        }
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
+        return savedAccount;
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteAccount(@PathVariable Long id) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         accountService.deleteAccount(id, user);
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
         return ResponseEntity.noContent().build();
     }
 }
@@ -3,6 +3,8 @@ package com.example.projetofinanceiro.controller;
 import com.example.projetofinanceiro.model.Asset;
 import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.repository.AssetRepository;
+import com.example.projetofinanceiro.service.DataVersionService;
+import com.example.projetofinanceiro.service.NetWorthSnapshotService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +20,8 @@ import java.util.List;
 public class AssetController {
 
     private final AssetRepository assetRepository;
+    private final DataVersionService dataVersionService;
+    private final NetWorthSnapshotService netWorthSnapshotService;
 
     @GetMapping
     public List<Asset> getAllAssets() {
@@ -29,7 +33,10 @@ public class AssetController {
     public Asset createAsset(@RequestBody Asset asset) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         asset.setUser(user);
-        return assetRepository.save(asset);
+        Asset savedAsset = assetRepository.save(asset);
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
+        return savedAsset;
     }
 
     @PutMapping("/{id}")
@@ -45,7 +52,10 @@ public class AssetController {
         asset.setName(assetDetails.getName());
         asset.setValue(assetDetails.getValue());
         asset.setType(assetDetails.getType());
-        return assetRepository.save(asset);
+        Asset savedAsset = assetRepository.save(asset);
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
+        return savedAsset;
     }
 
     @DeleteMapping("/{id}")
@@ -59,6 +69,8 @@ public class AssetController {
         }
 
         assetRepository.delete(asset);
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,14 +1,20 @@
 package com.example.projetofinanceiro.controller;
 
 import com.example.projetofinanceiro.dto.BudgetProgressDTO;
+import com.example.projetofinanceiro.dto.MonthlySummaryDTO;
 import com.example.projetofinanceiro.model.Budget;
+import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.service.BudgetService;
+import com.example.projetofinanceiro.service.MonthlySummaryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -18,15 +24,26 @@ import java.util.Map;
 public class BudgetController {
 
     private final BudgetService budgetService;
+    private final MonthlySummaryService monthlySummaryService;
 
     @GetMapping
     public ResponseEntity<List<BudgetProgressDTO>> getBudgets(
             @RequestParam(required = false) Integer month,
-            @RequestParam(required = false) Integer year
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String v,
+            WebRequest request
     ) {
         if (month == null) month = LocalDate.now().getMonthValue();
         if (year == null) year = LocalDate.now().getYear();
 
+        // Mês fechado: o resultado dos orçamentos já está no resumo do mês
+        YearMonth period = YearMonth.of(year, month);
+        if (monthlySummaryService.isClosed(period)) {
+            User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            MonthlySummaryDTO summary = monthlySummaryService.getSummary(user, period);
+            return monthlySummaryService.respond(summary, v, request, summary.budgets());
+        }
+
         return ResponseEntity.ok(budgetService.getBudgetsWithProgress(month, year));
     }
 
@@ -3,6 +3,7 @@ package com.example.projetofinanceiro.controller;
 import com.example.projetofinanceiro.model.Category;
 import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.repository.CategoryRepository;
+import com.example.projetofinanceiro.service.DataVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +20,7 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryRepository categoryRepository;
+    private final DataVersionService dataVersionService;
 
     @GetMapping
     public List<Category> getAllCategories() {
@@ -57,7 +59,10 @@ public class CategoryController {
         }
 
         category.setType(categoryDetails.getType());
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        // O nome da categoria aparece no dashboard (top categorias, transações recentes)
+        dataVersionService.bump(user.getId());
+        return savedCategory;
     }
 
     @DeleteMapping("/{id}")
@@ -76,6 +81,7 @@ public class CategoryController {
             // Caso haja transações vinculadas, o banco lançará uma exceção de constraint
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Cannot delete category with linked transactions");
         }
+        dataVersionService.bump(user.getId());
         
         return ResponseEntity.noContent().build();
     }
@@ -3,10 +3,12 @@ package com.example.projetofinanceiro.controller;
 import com.example.projetofinanceiro.model.CreditCard;
 import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.repository.CreditCardRepository;
+import com.example.projetofinanceiro.service.DataVersionService;
 import com.example.projetofinanceiro.service.UsageLimitService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -20,6 +22,7 @@ public class CreditCardController {
 
     private final CreditCardRepository creditCardRepository;
     private final UsageLimitService usageLimitService;
+    private final DataVersionService dataVersionService;
 
     @GetMapping
     public List<CreditCard> getAllCards() {
@@ -55,7 +58,16 @@ public class CreditCardController {
         card.setDueDay(cardDetails.getDueDay());
         card.setColor(cardDetails.getColor());
 
-        return creditCardRepository.save(card);
+        CreditCard savedCard;
+        try {
+            savedCard = creditCardRepository.save(card);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Uma compra alterou o limite usado entre a leitura e a gravação
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Credit card was modified concurrently, please retry");
+        }
+        // O nome do cartão aparece nas transações recentes do dashboard
+        dataVersionService.bump(user.getId());
+        return savedCard;
     }
 
     @DeleteMapping("/{id}")
@@ -69,6 +81,7 @@ public class CreditCardController {
         }
 
         creditCardRepository.delete(card);
+        dataVersionService.bump(user.getId());
         return ResponseEntity.noContent().build();
     }
 }
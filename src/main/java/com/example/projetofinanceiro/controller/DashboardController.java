@@ -1,14 +1,18 @@
 package com.example.projetofinanceiro.controller;
 
 import com.example.projetofinanceiro.dto.DashboardV2DTO;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.service.DashboardCacheService;
 import com.example.projetofinanceiro.service.DashboardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.util.Map;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -16,9 +20,28 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardCacheService dashboardCacheService;
 
     @GetMapping
-    public ResponseEntity<DashboardV2DTO> getDashboard() {
-        return ResponseEntity.ok(dashboardService.getDashboardV2Data());
+    public ResponseEntity<DashboardV2DTO> getDashboard(WebRequest request) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String etag = dashboardService.getDashboardEtag(user);
+
+        // Dashboard inalterado desde a última visita: 304 sem recalcular nada
+        if (request.checkNotModified(etag)) {
+            dashboardCacheService.recordNotModified();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        DashboardV2DTO dashboard = dashboardService.getDashboardV2Data(user);
+        if (dashboard.isPartial()) {
+            // Sem ETag: o cliente não pode revalidar um dashboard incompleto
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(dashboard);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(dashboard);
     }
 }
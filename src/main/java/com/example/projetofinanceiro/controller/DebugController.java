@@ -1,23 +1,31 @@
 package com.example.projetofinanceiro.controller;
 
+import com.example.projetofinanceiro.dto.BalanceDriftDTO;
+import com.example.projetofinanceiro.dto.CacheStatsDTO;
+import com.example.projetofinanceiro.dto.CreditCardLimitDriftDTO;
+import com.example.projetofinanceiro.dto.PluggyClientStatsDTO;
+import com.example.projetofinanceiro.dto.RollupDriftDTO;
 import com.example.projetofinanceiro.dto.TopCategoryDTO;
-import com.example.projetofinanceiro.model.Transaction;
-import com.example.projetofinanceiro.model.TransactionType;
 import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.repository.TransactionRepository;
 import com.example.projetofinanceiro.repository.UserRepository;
+import com.example.projetofinanceiro.service.AccountBalanceService;
+import com.example.projetofinanceiro.service.CreditCardLimitService;
+import com.example.projetofinanceiro.service.DashboardCacheService;
+import com.example.projetofinanceiro.service.PluggyCallExecutor;
+import com.example.projetofinanceiro.service.TransactionRollupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/debug")
@@ -26,6 +34,11 @@ public class DebugController {
 
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final TransactionRollupService rollupService;
+    private final DashboardCacheService dashboardCacheService;
+    private final AccountBalanceService accountBalanceService;
+    private final CreditCardLimitService creditCardLimitService;
+    private final PluggyCallExecutor pluggyCallExecutor;
 
     @GetMapping("/top-categories-last-month")
     public List<TopCategoryDTO> topCategories(@RequestParam(defaultValue = "demo@lume.com") String email) {
@@ -34,22 +47,34 @@ public class DebugController {
         LocalDate startOfLastMonth = now.minusMonths(1).with(TemporalAdjusters.firstDayOfMonth());
         LocalDate endOfLastMonth = now.minusMonths(1).with(TemporalAdjusters.lastDayOfMonth());
 
-        List<Transaction> all = transactionRepository.findAllByDateRange(user, startOfLastMonth, endOfLastMonth);
-        List<Transaction> expenses = all.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE || (t.getAmount() != null && t.getAmount().compareTo(BigDecimal.ZERO) < 0))
-                .collect(Collectors.toList());
-
-        Map<String, Double> categorySum = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory().getName() : "Sem Categoria",
-                        Collectors.summingDouble(t -> t.getAmount() != null ? t.getAmount().abs().doubleValue() : 0.0)
-                ));
-
-        return categorySum.entrySet().stream()
-                .map(e -> new TopCategoryDTO(e.getKey(), BigDecimal.valueOf(e.getValue())))
-                .sorted((a,b) -> b.totalAmount().compareTo(a.totalAmount()))
-                .limit(10)
-                .collect(Collectors.toList());
+        return transactionRepository.sumExpensesByCategoryName(user, startOfLastMonth, endOfLastMonth, Limit.of(10));
+    }
+
+    @PostMapping("/rollups/reconcile")
+    public RollupDriftDTO reconcileRollups() {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return rollupService.reconcile(user.getId());
     }
-}
 
+    @PostMapping("/balances/reconcile")
+    public BalanceDriftDTO reconcileBalances() {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return accountBalanceService.reconcile(user.getId());
+    }
+
+    @PostMapping("/credit-cards/reconcile")
+    public CreditCardLimitDriftDTO reconcileCreditCardLimits() {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return creditCardLimitService.reconcile(user.getId());
+    }
+
+    @GetMapping("/dashboard-cache")
+    public CacheStatsDTO dashboardCacheStats() {
+        return dashboardCacheService.stats();
+    }
+
+    @GetMapping("/pluggy-client")
+    public PluggyClientStatsDTO pluggyClientStats() {
+        return pluggyCallExecutor.stats();
+    }
+}
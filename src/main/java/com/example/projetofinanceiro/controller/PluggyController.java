@@ -1,14 +1,21 @@
 package com.example.projetofinanceiro.controller;
 
 import com.example.projetofinanceiro.dto.PluggySyncDTO;
+import com.example.projetofinanceiro.dto.PluggySyncJobDTO;
+import com.example.projetofinanceiro.dto.PluggyWebhookDTO;
 import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.service.PluggyIntegrationService;
+import com.example.projetofinanceiro.service.PluggySyncJobService;
+import com.example.projetofinanceiro.service.PluggyWebhookService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/pluggy")
@@ -16,6 +23,8 @@ import java.util.Map;
 public class PluggyController {
 
     private final PluggyIntegrationService pluggyIntegrationService;
+    private final PluggySyncJobService pluggySyncJobService;
+    private final PluggyWebhookService pluggyWebhookService;
 
     @GetMapping("/token")
     public ResponseEntity<Map<String, String>> getConnectToken() {
@@ -23,19 +32,45 @@ public class PluggyController {
         return ResponseEntity.ok(Map.of("accessToken", token));
     }
 
+    // Enfileira a sincronização e responde na hora; o progresso fica em GET /sync/{jobId}
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, String>> syncTransactions(
+    public ResponseEntity<PluggySyncJobDTO> syncTransactions(
             @RequestBody PluggySyncDTO dto,
             @AuthenticationPrincipal User user
     ) {
-        if (dto.accountId() == null || dto.accountId().isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("message", "Account ID is required"));
-        }
+        pluggyIntegrationService.vincularItem(user, dto.accountId(), dto.itemId());
+        PluggySyncJobDTO job = pluggySyncJobService.submit(user, dto.accountId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/pluggy/sync/" + job.id())
+                .body(job);
+    }
 
-        // Chama o serviço de sincronização de forma síncrona (pode demorar um pouco)
-        // Em produção, idealmente isso seria assíncrono (Job/Queue), mas para MVP está ok.
-        pluggyIntegrationService.sincronizarTransacoes(dto.accountId(), user);
+    @GetMapping("/sync/{jobId}")
+    public ResponseEntity<PluggySyncJobDTO> getSyncStatus(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal User user
+    ) {
+        return ResponseEntity.ok(pluggySyncJobService.getStatus(user, jobId));
+    }
 
-        return ResponseEntity.ok(Map.of("message", "Sincronização iniciada com sucesso para a conta " + dto.accountId()));
+    /**
+     * Chamado pela Pluggy, sem JWT. Só grava o evento e responde: 202 para um evento novo,
+     * 200 para um reenvio já recebido. Os códigos de erro saem direto daqui porque o
+     * despacho para /error exige autenticação e viraria 403.
+     */
+    @PostMapping("/webhooks")
+    public ResponseEntity<Void> receiveWebhook(
+            @RequestHeader(value = PluggyWebhookService.SECRET_HEADER, required = false) String secret,
+            @RequestBody(required = false) String payload
+    ) {
+        if (!pluggyWebhookService.isAuthentic(secret)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        PluggyWebhookDTO webhook = pluggyWebhookService.parse(payload);
+        if (webhook == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean received = pluggyWebhookService.receive(webhook, payload);
+        return received ? ResponseEntity.accepted().build() : ResponseEntity.ok().build();
     }
 }
@@ -5,10 +5,15 @@ import com.example.projetofinanceiro.model.Transaction;
 import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.repository.RecurringTransactionRepository;
 import com.example.projetofinanceiro.repository.TransactionRepository;
+import com.example.projetofinanceiro.service.TransactionRollupService;
+import com.example.projetofinanceiro.service.DataVersionService;
+import com.example.projetofinanceiro.service.DashboardDeltaService;
+import com.example.projetofinanceiro.service.DescriptionIndexService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -23,6 +28,10 @@ public class RecurringController {
 
     private final RecurringTransactionRepository recurringRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionRollupService rollupService;
+    private final DataVersionService dataVersionService;
+    private final DashboardDeltaService dashboardDeltaService;
+    private final DescriptionIndexService descriptionIndexService;
 
     @GetMapping
     public List<RecurringTransaction> getAllRecurring() {
@@ -34,7 +43,9 @@ public class RecurringController {
     public RecurringTransaction createRecurring(@RequestBody RecurringTransaction recurring) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         recurring.setUser(user);
-        return recurringRepository.save(recurring);
+        RecurringTransaction savedRecurring = recurringRepository.save(recurring);
+        dataVersionService.bump(user.getId());
+        return savedRecurring;
     }
 
     @PutMapping("/{id}")
@@ -54,7 +65,9 @@ public class RecurringController {
         recurring.setDueDay(details.getDueDay());
         recurring.setFrequency(details.getFrequency());
 
-        return recurringRepository.save(recurring);
+        RecurringTransaction savedRecurring = recurringRepository.save(recurring);
+        dataVersionService.bump(user.getId());
+        return savedRecurring;
     }
 
     @DeleteMapping("/{id}")
@@ -68,10 +81,12 @@ public class RecurringController {
         }
 
         recurringRepository.delete(recurring);
+        dataVersionService.bump(user.getId());
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/{id}/create-transaction")
+    @Transactional
     public Transaction createTransactionFromRecurring(@PathVariable Long id, @RequestBody Map<String, Integer> dateParams) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         RecurringTransaction recurring = recurringRepository.findById(id)
@@ -100,6 +115,11 @@ public class RecurringController {
         transaction.setUser(user);
         // Note: Account is left null, user might need to assign it later or we could add default account to Recurring
 
-        return transactionRepository.save(transaction);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        rollupService.record(savedTransaction);
+        descriptionIndexService.record(savedTransaction);
+        dashboardDeltaService.touch(user.getId(), savedTransaction);
+        dataVersionService.bump(user.getId());
+        return savedTransaction;
     }
 }
@@ -1,17 +1,33 @@
 package com.example.projetofinanceiro.controller;
 
 import com.example.projetofinanceiro.dto.CashFlowDTO;
+import com.example.projetofinanceiro.dto.CategoryComparisonReportDTO;
 import com.example.projetofinanceiro.dto.CategoryReportDTO;
+import com.example.projetofinanceiro.dto.MonthlySummaryDTO;
+import com.example.projetofinanceiro.export.ExportFormat;
+import com.example.projetofinanceiro.model.ReportGranularity;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.service.ExportService;
+import com.example.projetofinanceiro.service.MonthlySummaryService;
 import com.example.projetofinanceiro.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -19,13 +35,108 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ReportController {
 
+    private static final int DEFAULT_COMPARISON_PERIODS = 6;
+    private static final int MAX_COMPARISON_PERIODS = 36;
+
     private final ReportService reportService;
+    private final ExportService exportService;
+    private final MonthlySummaryService monthlySummaryService;
 
     @GetMapping("/cash-flow")
     public ResponseEntity<List<CashFlowDTO>> getCashFlow(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "day") String granularity
+    ) {
+        return ResponseEntity.ok(cashFlow(startDate, endDate, granularity));
+    }
+
+    @GetMapping("/expenses-by-category")
+    public ResponseEntity<List<CategoryReportDTO>> getExpensesByCategory(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String v,
+            WebRequest request
+    ) {
+        if (month == null) month = LocalDate.now().getMonthValue();
+        if (year == null) year = LocalDate.now().getYear();
+
+        // Mês fechado: servido do resumo, com cache atrelado à versão dele
+        YearMonth period = YearMonth.of(year, month);
+        if (monthlySummaryService.isClosed(period)) {
+            User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            MonthlySummaryDTO summary = monthlySummaryService.getSummary(user, period);
+            return monthlySummaryService.respond(summary, v, request, reportService.getExpensesByCategory(summary));
+        }
+        return ResponseEntity.ok(expensesByCategory(month, year));
+    }
+
+    @GetMapping("/monthly-summary")
+    public ResponseEntity<MonthlySummaryDTO> getMonthlySummary(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(required = false) String v,
+            WebRequest request
+    ) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        MonthlySummaryDTO summary = monthlySummaryService.getSummary(user, month);
+        return monthlySummaryService.respond(summary, v, request, summary);
+    }
+
+    /**
+     * Despesas por categoria mês a mês. Sem parâmetros, os últimos 6 meses até o atual;
+     * com from ou to, a janela de periods meses começa ou termina ali.
+     */
+    @GetMapping("/category-comparison")
+    public ResponseEntity<CategoryComparisonReportDTO> getCategoryComparison(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(required = false) Integer periods
+    ) {
+        if (periods != null && (periods < 1 || periods > MAX_COMPARISON_PERIODS)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "periods must be between 1 and " + MAX_COMPARISON_PERIODS);
+        }
+        int months = periods != null ? periods : DEFAULT_COMPARISON_PERIODS;
+
+        if (from != null && to != null) {
+            if (periods != null && from.plusMonths(periods - 1).compareTo(to) != 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "periods does not match from/to");
+            }
+        } else if (from != null) {
+            to = from.plusMonths(months - 1);
+        } else {
+            if (to == null) to = YearMonth.now();
+            from = to.minusMonths(months - 1);
+        }
+        if (from.until(to, ChronoUnit.MONTHS) >= MAX_COMPARISON_PERIODS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at most " + MAX_COMPARISON_PERIODS + " months can be compared");
+        }
+
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return ResponseEntity.ok(reportService.compareCategories(user, from, to));
+    }
+
+    @GetMapping("/cash-flow/export")
+    public ResponseEntity<StreamingResponseBody> exportCashFlow(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return exportService.exportCashFlow(cashFlow(startDate, endDate, granularity), ExportFormat.from(format), ExportService.acceptsGzip(acceptEncoding));
+    }
+
+    @GetMapping("/expenses-by-category/export")
+    public ResponseEntity<StreamingResponseBody> exportExpensesByCategory(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
+        return exportService.exportExpensesByCategory(expensesByCategory(month, year), ExportFormat.from(format), ExportService.acceptsGzip(acceptEncoding));
+    }
+
+    private List<CashFlowDTO> cashFlow(LocalDate startDate, LocalDate endDate, String granularity) {
         if (startDate == null) {
             startDate = LocalDate.now().withDayOfMonth(1);
         }
@@ -33,17 +144,15 @@ public class ReportController {
             endDate = LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth());
         }
 
-        return ResponseEntity.ok(reportService.generateCashFlow(startDate, endDate));
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return reportService.generateCashFlow(user, startDate, endDate, ReportGranularity.from(granularity));
     }
 
-    @GetMapping("/expenses-by-category")
-    public ResponseEntity<List<CategoryReportDTO>> getExpensesByCategory(
-            @RequestParam(required = false) Integer month,
-            @RequestParam(required = false) Integer year
-    ) {
+    private List<CategoryReportDTO> expensesByCategory(Integer month, Integer year) {
         if (month == null) month = LocalDate.now().getMonthValue();
         if (year == null) year = LocalDate.now().getYear();
 
-        return ResponseEntity.ok(reportService.getExpensesByCategory(month, year));
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return reportService.getExpensesByCategory(user, month, year);
     }
 }
@@ -0,0 +1,58 @@
+package com.example.projetofinanceiro.controller;
+
+import com.example.projetofinanceiro.dto.ReportJobDTO;
+import com.example.projetofinanceiro.dto.ReportJobRequestDTO;
+import com.example.projetofinanceiro.model.ReportJobStatus;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.service.ExportService;
+import com.example.projetofinanceiro.service.ReportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    // 202 enquanto o relatório é gerado; 200 quando um resultado idêntico já está pronto
+    @PostMapping
+    public ResponseEntity<ReportJobDTO> submit(@RequestBody ReportJobRequestDTO request) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        ReportJobDTO job = reportJobService.submit(user, request);
+
+        HttpStatus status = job.status() == ReportJobStatus.DONE ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.LOCATION, "/api/reports/jobs/" + job.id())
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobDTO> getStatus(@PathVariable UUID id) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return ResponseEntity.ok(reportJobService.getStatus(user, id));
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<StreamingResponseBody> getResult(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return reportJobService.getResult(user, id, ExportService.acceptsGzip(acceptEncoding));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.projetofinanceiro.controller;
+
+import com.example.projetofinanceiro.dto.StreamTokenDTO;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.service.TokenService;
+import com.example.projetofinanceiro.service.UserEventStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+public class StreamController {
+
+    private final UserEventStreamService streamService;
+    private final TokenService tokenService;
+
+    /**
+     * Eventos: totals, categories, balances, notification, sync e resync.
+     * No navegador: new EventSource("/api/stream?token=" + token), com o token de
+     * POST /api/stream/token. Ele expira em minutos; se a conexão cair, peça outro.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return streamService.subscribe(user.getId());
+    }
+
+    // Autenticado pelo header Authorization de sempre
+    @PostMapping("/token")
+    public StreamTokenDTO streamToken() {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return new StreamTokenDTO(tokenService.generateStreamToken(user), tokenService.getStreamTokenTtlSeconds());
+    }
+}
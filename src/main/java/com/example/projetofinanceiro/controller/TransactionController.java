@@ -1,58 +1,244 @@
 package com.example.projetofinanceiro.controller;
 
+import com.example.projetofinanceiro.dto.DescriptionSuggestionDTO;
+import com.example.projetofinanceiro.dto.TransactionBulkRequestDTO;
+import com.example.projetofinanceiro.dto.TransactionBulkResultDTO;
+import com.example.projetofinanceiro.dto.TransactionCursor;
+import com.example.projetofinanceiro.dto.TransactionImportResultDTO;
 import com.example.projetofinanceiro.dto.TransactionDTO;
+import com.example.projetofinanceiro.dto.TransactionSearchDTO;
+import com.example.projetofinanceiro.dto.TransactionSearchPageDTO;
+import com.example.projetofinanceiro.dto.TransactionSearchResultDTO;
+import com.example.projetofinanceiro.export.ExportFormat;
+import com.example.projetofinanceiro.importer.ImportFormat;
 import com.example.projetofinanceiro.model.*;
 import com.example.projetofinanceiro.repository.*;
+import com.example.projetofinanceiro.service.TransactionRollupService;
 import com.example.projetofinanceiro.service.UsageLimitService;
+import com.example.projetofinanceiro.service.AccountBalanceService;
+import com.example.projetofinanceiro.service.CreditCardLimitService;
+import com.example.projetofinanceiro.service.DashboardDeltaService;
+import com.example.projetofinanceiro.service.ExportService;
+import com.example.projetofinanceiro.service.DataVersionService;
+import com.example.projetofinanceiro.service.DescriptionIndexService;
+import com.example.projetofinanceiro.service.TransactionBulkService;
+import com.example.projetofinanceiro.service.TransactionImportService;
+import com.example.projetofinanceiro.service.NetWorthSnapshotService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.HtmlUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.text.NumberFormat;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/transactions")
 @RequiredArgsConstructor
 public class TransactionController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_IDS = 200;
+    private static final int MAX_SUGGESTIONS = 50;
+    // Teto de descrições distintas no IN do filtro q=; acima disso o filtro vira LIKE
+    private static final int MAX_QUERY_DESCRIPTIONS = 1000;
+
     private final TransactionRepository transactionRepository;
+    private final TransactionSearchRepository transactionSearchRepository;
     private final AccountRepository accountRepository;
     private final CategoryRepository categoryRepository;
     private final NotificationRepository notificationRepository;
     private final CreditCardRepository creditCardRepository;
     private final UsageLimitService usageLimitService;
+    private final TransactionRollupService rollupService;
+    private final DataVersionService dataVersionService;
+    private final NetWorthSnapshotService netWorthSnapshotService;
+    private final AccountBalanceService accountBalanceService;
+    private final CreditCardLimitService creditCardLimitService;
+    private final DashboardDeltaService dashboardDeltaService;
+    private final ExportService exportService;
+    private final DescriptionIndexService descriptionIndexService;
+    private final TransactionBulkService transactionBulkService;
+    private final TransactionImportService transactionImportService;
 
+    /**
+     * Listagem paginada por cursor, em (date DESC, id DESC). Quando há mais linhas,
+     * o token da próxima página vem em X-Next-Cursor e no header Link (rel="next").
+     * startDate/endDate aceitam qualquer intervalo; sem eles, vale month/year (mês atual por padrão).
+     * q filtra pela descrição (todas as palavras, por prefixo, sem diferenciar acentos).
+     * Se o índice de descrições não cobre o usuário inteiro, q vira um LIKE pelo termo.
+     */
     @GetMapping
-    public List<TransactionDTO> getAllTransactions(
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions(
             @RequestParam(required = false) Integer month,
             @RequestParam(required = false) Integer year,
-            @RequestParam(required = false) Long categoryId
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "100") int limit
     ) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
-        // Default to current month if not provided
-        if (month == null) month = LocalDate.now().getMonthValue();
-        if (year == null) year = LocalDate.now().getYear();
 
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        if (startDate != null || endDate != null) {
+            if (startDate == null) startDate = LocalDate.of(1900, 1, 1);
+            if (endDate == null) endDate = LocalDate.of(9999, 12, 31);
+            if (endDate.isBefore(startDate)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "endDate must not be before startDate");
+            }
+        } else {
+            // Default to current month if not provided
+            if (month == null) month = LocalDate.now().getMonthValue();
+            if (year == null) year = LocalDate.now().getYear();
 
-        List<Transaction> transactions = transactionRepository.findFiltered(user, startDate, endDate, categoryId);
-        
-        return transactions.stream()
-                .map(TransactionDTO::fromEntity)
-                .collect(Collectors.toList());
+            startDate = LocalDate.of(year, month, 1);
+            endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Uma linha a mais só para saber se existe próxima página
+        Limit fetch = Limit.of(pageSize + 1);
+        TransactionCursor after = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+        List<TransactionDTO> transactions;
+        if (q != null && !q.isBlank()) {
+            List<String> descriptions = descriptionIndexService.matchingDescriptions(user.getId(), q, MAX_QUERY_DESCRIPTIONS);
+            if (descriptions == null) {
+                // Índice truncado ou casamentos demais para o IN: LIKE no banco, como na /search
+                String term = q.trim();
+                String pattern = likePattern(term).toLowerCase(Locale.ROOT);
+                String escapedPattern = likePattern(HtmlUtils.htmlEscape(term)).toLowerCase(Locale.ROOT);
+                transactions = after == null
+                        ? transactionRepository.findPageByDescriptionLike(user, startDate, endDate, categoryId, pattern, escapedPattern, fetch)
+                        : transactionRepository.findPageAfterByDescriptionLike(user, startDate, endDate, categoryId, pattern, escapedPattern, after.date(), after.id(), fetch);
+            } else if (descriptions.isEmpty()) {
+                transactions = List.of();
+            } else if (after == null) {
+                transactions = transactionRepository.findPageByDescriptions(user, startDate, endDate, categoryId, descriptions, fetch);
+            } else {
+                transactions = transactionRepository.findPageAfterByDescriptions(user, startDate, endDate, categoryId, descriptions, after.date(), after.id(), fetch);
+            }
+        } else if (after == null) {
+            transactions = transactionRepository.findPage(user, startDate, endDate, categoryId, fetch);
+        } else {
+            transactions = transactionRepository.findPageAfter(user, startDate, endDate, categoryId, after.date(), after.id(), fetch);
+        }
+
+        boolean hasMore = transactions.size() > pageSize;
+        List<TransactionDTO> page = hasMore ? transactions.subList(0, pageSize) : transactions;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hasMore) {
+            TransactionDTO last = page.get(page.size() - 1);
+            String next = new TransactionCursor(last.date(), last.id()).encode();
+            String nextUrl = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", next)
+                    .build().toUriString();
+            response.header(NEXT_CURSOR_HEADER, next)
+                    .header(HttpHeaders.LINK, "<" + nextUrl + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Sugestões de descrições já usadas, para o autocomplete do formulário.
+     * Ordenadas por frequência, com peso maior para as usadas recentemente.
+     */
+    @GetMapping("/suggest")
+    public List<DescriptionSuggestionDTO> suggestDescriptions(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return descriptionIndexService.suggest(user.getId(), q, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * Busca com filtros combináveis (valor, tipo, contas, cartões, categorias,
+     * descrição, datas), paginada pelo mesmo cursor da listagem.
+     */
+    @PostMapping("/search")
+    public TransactionSearchPageDTO searchTransactions(@RequestBody TransactionSearchDTO filters) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (filters.startDate() != null && filters.endDate() != null && filters.endDate().isBefore(filters.startDate())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "endDate must not be before startDate");
+        }
+        if (filters.minAmount() != null && filters.maxAmount() != null && filters.maxAmount().compareTo(filters.minAmount()) < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxAmount must not be less than minAmount");
+        }
+        for (List<?> ids : Arrays.asList(filters.types(), filters.accountIds(), filters.creditCardIds(), filters.categoryIds())) {
+            if (ids != null && ids.size() > MAX_SEARCH_IDS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_SEARCH_IDS + " values per filter");
+            }
+        }
+
+        // Descrições criadas pela API são gravadas com escape HTML e as importadas não:
+        // procura pelas duas formas, com os curingas do LIKE neutralizados
+        List<String> descriptionPatterns = new ArrayList<>();
+        if (filters.description() != null && !filters.description().isBlank()) {
+            String term = filters.description().trim();
+            descriptionPatterns.add(likePattern(term));
+            String escaped = HtmlUtils.htmlEscape(term);
+            if (!escaped.equals(term)) descriptionPatterns.add(likePattern(escaped));
+        }
+
+        TransactionCursor after = filters.cursor() != null && !filters.cursor().isBlank()
+                ? TransactionCursor.decode(filters.cursor())
+                : null;
+        int pageSize = Math.max(1, Math.min(filters.limit() != null ? filters.limit() : 100, MAX_PAGE_SIZE));
+
+        List<TransactionSearchResultDTO> rows = transactionSearchRepository.search(user, filters, descriptionPatterns, after, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new TransactionSearchPageDTO(rows, null);
+        }
+        List<TransactionSearchResultDTO> page = rows.subList(0, pageSize);
+        TransactionSearchResultDTO last = page.get(page.size() - 1);
+        return new TransactionSearchPageDTO(new ArrayList<>(page), new TransactionCursor(last.date(), last.id()).encode());
+    }
+
+    private static String likePattern(String term) {
+        return "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        // Sem datas, exporta o histórico inteiro
+        if (startDate == null) startDate = LocalDate.of(1900, 1, 1);
+        if (endDate == null) endDate = LocalDate.of(9999, 12, 31);
+
+        return exportService.exportTransactions(user, startDate, endDate, categoryId,
+                ExportFormat.from(format), ExportService.acceptsGzip(acceptEncoding));
     }
 
     @PostMapping
+    @Transactional
     public Transaction createTransaction(@RequestBody Transaction transaction) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         
@@ -77,12 +263,6 @@ public class TransactionController {
             transaction.setCreditCard(card);
             transaction.setAccount(null); // Ensure account is null if credit card is used
 
-            // Update Limit Used
-            if (transaction.getType() == TransactionType.EXPENSE) {
-                card.setLimitUsed(card.getLimitUsed().add(transaction.getAmount()));
-                creditCardRepository.save(card);
-            }
-
         } else if (transaction.getAccount() != null && transaction.getAccount().getId() != null) {
             Account account = accountRepository.findById(transaction.getAccount().getId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
@@ -108,6 +288,13 @@ public class TransactionController {
         }
 
         Transaction savedTransaction = transactionRepository.save(transaction);
+        rollupService.record(savedTransaction);
+        descriptionIndexService.record(savedTransaction);
+        accountBalanceService.record(savedTransaction);
+        creditCardLimitService.record(savedTransaction);
+        dashboardDeltaService.touch(user.getId(), savedTransaction);
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
 
         // Create Notification for Expenses
         if (savedTransaction.getType() == TransactionType.EXPENSE) {
@@ -118,12 +305,46 @@ public class TransactionController {
             
             Notification notification = new Notification(message, user);
             notificationRepository.save(notification);
+            dashboardDeltaService.notificationCreated(user.getId(), notification);
         }
 
         return savedTransaction;
     }
 
+    /**
+     * Exclusão ou alteração (categoria, conta, data) de várias transações de uma vez,
+     * tudo ou nada: se algum id não for do usuário, nada é alterado.
+     */
+    @PostMapping("/bulk")
+    public TransactionBulkResultDTO bulkUpdate(@RequestBody TransactionBulkRequestDTO request) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return transactionBulkService.apply(user, request);
+    }
+
+    /**
+     * Importa um extrato CSV ou OFX (multipart, campo "file"). accountId/creditCardId
+     * definem o destino das linhas sem coluna de conta. O andamento sai no stream
+     * (evento "import") e a resposta traz o relatório de linhas com erro.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public TransactionImportResultDTO importTransactions(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) Long creditCardId
+    ) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        ImportFormat importFormat = format != null ? ImportFormat.from(format) : ImportFormat.detect(file.getOriginalFilename());
+
+        try (InputStream in = file.getInputStream()) {
+            return transactionImportService.importStatement(user, in, importFormat, accountId, creditCardId);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not read uploaded file");
+        }
+    }
+
     @PutMapping("/{id}")
+    @Transactional
     public Transaction updateTransaction(@PathVariable Long id, @RequestBody Transaction transactionDetails) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         Transaction transaction = transactionRepository.findById(id)
@@ -133,12 +354,12 @@ public class TransactionController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Transaction does not belong to user");
         }
 
-        // Revert old credit card limit usage if applicable
-        if (transaction.getCreditCard() != null && transaction.getType() == TransactionType.EXPENSE) {
-            CreditCard oldCard = transaction.getCreditCard();
-            oldCard.setLimitUsed(oldCard.getLimitUsed().subtract(transaction.getAmount()));
-            creditCardRepository.save(oldCard);
-        }
+        // Remove old values from the daily rollup before they are overwritten
+        rollupService.revert(transaction);
+        descriptionIndexService.revert(transaction);
+        accountBalanceService.revert(transaction);
+        creditCardLimitService.revert(transaction);
+        dashboardDeltaService.touch(user.getId(), transaction);
 
         // XSS Protection
         if (transactionDetails.getDescription() != null) {
@@ -162,12 +383,6 @@ public class TransactionController {
             transaction.setCreditCard(card);
             transaction.setAccount(null);
 
-            // Update New Limit Used
-            if (transaction.getType() == TransactionType.EXPENSE) {
-                card.setLimitUsed(card.getLimitUsed().add(transaction.getAmount()));
-                creditCardRepository.save(card);
-            }
-
         } else if (transactionDetails.getAccount() != null && transactionDetails.getAccount().getId() != null) {
             Account account = accountRepository.findById(transactionDetails.getAccount().getId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
@@ -190,10 +405,19 @@ public class TransactionController {
             transaction.setCategory(null);
         }
 
-        return transactionRepository.save(transaction);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        rollupService.record(savedTransaction);
+        descriptionIndexService.record(savedTransaction);
+        accountBalanceService.record(savedTransaction);
+        creditCardLimitService.record(savedTransaction);
+        dashboardDeltaService.touch(user.getId(), savedTransaction);
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
+        return savedTransaction;
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteTransaction(@PathVariable Long id) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         Transaction transaction = transactionRepository.findById(id)
@@ -203,14 +427,14 @@ public class TransactionController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Transaction does not belong to user");
         }
 
-        // Revert credit card limit usage if applicable
-        if (transaction.getCreditCard() != null && transaction.getType() == TransactionType.EXPENSE) {
-            CreditCard card = transaction.getCreditCard();
-            card.setLimitUsed(card.getLimitUsed().subtract(transaction.getAmount()));
-            creditCardRepository.save(card);
-        }
-
+        rollupService.revert(transaction);
+        descriptionIndexService.revert(transaction);
+        accountBalanceService.revert(transaction);
+        creditCardLimitService.revert(transaction);
+        dashboardDeltaService.touch(user.getId(), transaction);
         transactionRepository.deleteById(id);
+        dataVersionService.bump(user.getId());
+        netWorthSnapshotService.markDirty(user.getId());
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,9 @@
+package com.example.projetofinanceiro.dto;
+
+import java.math.BigDecimal;
+
+public record AccountBalanceDTO(
+    Long accountId,
+    BigDecimal storedBalance,   // Valor atual da coluna current_balance
+    BigDecimal computedBalance  // Saldo inicial + receitas - despesas
+) {}
@@ -0,0 +1,10 @@
+package com.example.projetofinanceiro.dto;
+
+import java.util.UUID;
+
+public record BalanceDriftDTO(
+    UUID userId,
+    int checkedAccounts,
+    int driftedAccounts,
+    boolean repaired
+) {}
@@ -0,0 +1,12 @@
+package com.example.projetofinanceiro.dto;
+
+public record CacheStatsDTO(
+    int size,
+    int maxSize,
+    long hits,
+    long misses,
+    long sizeEvictions,
+    long expirations,
+    long invalidations,
+    long notModified
+) {}
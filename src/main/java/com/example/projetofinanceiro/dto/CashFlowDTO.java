@@ -4,8 +4,13 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 public record CashFlowDTO(
-    LocalDate date,
+    LocalDate date,                  // Início do período (limitado ao startDate pedido)
+    LocalDate periodEnd,             // Fim do período (limitado ao endDate pedido)
     BigDecimal totalIncome,
     BigDecimal totalExpense,
-    BigDecimal netBalance
+    BigDecimal netBalance,
+    BigDecimal runningBalance,       // Resultado acumulado desde o início do relatório
+    BigDecimal incomeChange,         // Variação em relação ao período anterior (null no primeiro)
+    BigDecimal expenseChange,
+    BigDecimal netChange
 ) {}
@@ -1,10 +1,13 @@
 package com.example.projetofinanceiro.dto;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public record CategoryComparisonDTO(
+    Long categoryId,
     String categoryName,
-    BigDecimal currentAmount,
-    BigDecimal previousAmount,
-    Double percentageChange
+    BigDecimal currentAmount,        // Último mês da janela
+    BigDecimal previousAmount,       // Penúltimo mês (null quando a janela tem um mês só)
+    Double percentageChange,         // current vs previous; null quando previous é zero
+    List<CategoryMonthDTO> months    // Um ponto por mês da janela, em ordem, com zeros preenchidos
 ) {}
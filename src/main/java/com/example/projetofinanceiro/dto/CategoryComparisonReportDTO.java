@@ -0,0 +1,11 @@
+package com.example.projetofinanceiro.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public record CategoryComparisonReportDTO(
+    YearMonth from,
+    YearMonth to,
+    int periods,
+    List<CategoryComparisonDTO> categories
+) {}
@@ -0,0 +1,11 @@
+package com.example.projetofinanceiro.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+public record CategoryMonthDTO(
+    YearMonth month,
+    BigDecimal amount,
+    BigDecimal absoluteChange,       // Variação em relação ao mês anterior (null no primeiro)
+    Double percentageChange          // null no primeiro mês ou quando o anterior é zero
+) {}
@@ -0,0 +1,11 @@
+package com.example.projetofinanceiro.dto;
+
+import java.math.BigDecimal;
+
+public record CategoryMonthlyTotalDTO(
+    Long categoryId,
+    String categoryName,
+    Integer year,
+    Integer month,
+    BigDecimal total
+) {}
@@ -0,0 +1,9 @@
+package com.example.projetofinanceiro.dto;
+
+import java.math.BigDecimal;
+
+public record CreditCardLimitDTO(
+    Long creditCardId,
+    BigDecimal storedLimitUsed,   // Valor atual da coluna limit_used
+    BigDecimal computedLimitUsed  // Soma das despesas lançadas no cartão
+) {}
@@ -0,0 +1,10 @@
+package com.example.projetofinanceiro.dto;
+
+import java.util.UUID;
+
+public record CreditCardLimitDriftDTO(
+    UUID userId,
+    int checkedCards,
+    int driftedCards,
+    boolean repaired
+) {}
@@ -0,0 +1,12 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyTypeTotalDTO(
+    LocalDate date,
+    TransactionType type,
+    BigDecimal total
+) {}
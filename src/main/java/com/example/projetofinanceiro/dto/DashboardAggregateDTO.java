@@ -0,0 +1,22 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Uma linha da consulta agregada do dashboard.
+ *
+ * section = DAY      -> date e currentAmount preenchidos (despesa do dia)
+ * section = MONTH    -> type, currentAmount (mês atual) e previousAmount (mês passado)
+ * section = CATEGORY -> label (nome da categoria) e currentAmount (mês passado)
+ */
+public record DashboardAggregateDTO(
+    String section,
+    LocalDate date,
+    TransactionType type,
+    String label,
+    BigDecimal currentAmount,
+    BigDecimal previousAmount
+) {}
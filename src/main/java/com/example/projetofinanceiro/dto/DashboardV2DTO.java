@@ -1,6 +1,7 @@
 package com.example.projetofinanceiro.dto;
 
 import com.example.projetofinanceiro.model.RecurringTransaction;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -17,5 +18,12 @@ public record DashboardV2DTO(
     List<TopCategoryDTO> topCategories, // Changed to TopCategoryDTO
     List<TransactionDTO> recentTransactions,
     List<RecurringTransaction> upcomingExpenses,
-    NetWorthDataDTO netWorthData
-) {}
+    NetWorthDataDTO netWorthData,
+    List<String> degradedSections // Seções que estouraram o timeout e vieram vazias
+) {
+    // Só para uso interno: o cliente já recebe degradedSections
+    @JsonIgnore
+    public boolean isPartial() {
+        return degradedSections != null && !degradedSections.isEmpty();
+    }
+}
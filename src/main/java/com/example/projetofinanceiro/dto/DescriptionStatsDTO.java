@@ -0,0 +1,9 @@
+package com.example.projetofinanceiro.dto;
+
+import java.time.LocalDate;
+
+public record DescriptionStatsDTO(
+    String description,
+    Long transactionCount,
+    LocalDate lastUsed
+) {}
@@ -0,0 +1,9 @@
+package com.example.projetofinanceiro.dto;
+
+import java.time.LocalDate;
+
+public record DescriptionSuggestionDTO(
+    String description,
+    int count,
+    LocalDate lastUsed
+) {}
@@ -0,0 +1,6 @@
+package com.example.projetofinanceiro.dto;
+
+public record ImportRowErrorDTO(
+    long line,
+    String message
+) {}
@@ -0,0 +1,25 @@
+package com.example.projetofinanceiro.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+public record MonthlySummaryDTO(
+    YearMonth month,
+    String version,                  // Identifica este conteúdo; null quando não pôde ser gravado
+    LocalDateTime closedAt,
+    BigDecimal totalIncome,
+    BigDecimal totalExpense,
+    BigDecimal netBalance,
+    List<TypeTotalDTO> byType,
+    List<SummaryLineDTO> byCategory,
+    List<SummaryLineDTO> byAccount,
+    List<SummaryLineDTO> byCreditCard,
+    List<BudgetProgressDTO> budgets
+) {
+    public MonthlySummaryDTO withVersion(String version, LocalDateTime closedAt) {
+        return new MonthlySummaryDTO(month, version, closedAt, totalIncome, totalExpense, netBalance,
+                byType, byCategory, byAccount, byCreditCard, budgets);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+
+public record MonthlyTypeTotalDTO(
+    Integer year,
+    Integer month,
+    TransactionType type,
+    BigDecimal total
+) {}
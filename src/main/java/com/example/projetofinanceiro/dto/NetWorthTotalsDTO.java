@@ -0,0 +1,12 @@
+package com.example.projetofinanceiro.dto;
+
+import java.math.BigDecimal;
+
+public record NetWorthTotalsDTO(
+    BigDecimal accounts,
+    BigDecimal assets
+) {
+    public BigDecimal total() {
+        return accounts.add(assets);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.projetofinanceiro.dto;
+
+public record PluggyClientStatsDTO(
+    String circuitState,
+    long calls,
+    long successes,
+    long failures,
+    long retries,
+    long timeouts,
+    long circuitOpenings,
+    long shortCircuited,        // recusadas com o disjuntor aberto
+    long throttled,             // esperaram pelo limite de taxa
+    long throttleRejections     // recusadas por esperar demais
+) {}
@@ -1,4 +1,5 @@
 package com.example.projetofinanceiro.dto;
 
-public record PluggySyncDTO(String accountId) {
+// itemId: item (conexão) da Pluggy ao qual a conta pertence, usado para ligar os webhooks à conta
+public record PluggySyncDTO(String accountId, String itemId) {
 }
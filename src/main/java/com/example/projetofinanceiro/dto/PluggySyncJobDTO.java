@@ -0,0 +1,37 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.PluggySyncJob;
+import com.example.projetofinanceiro.model.PluggySyncJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record PluggySyncJobDTO(
+    UUID id,
+    String accountId,
+    PluggySyncJobStatus status,
+    boolean coalesced,          // true quando o pedido reaproveitou um job já ativo
+    int pagesFetched,
+    int rowsInserted,
+    int duplicatesSkipped,
+    LocalDateTime createdAt,
+    LocalDateTime startedAt,
+    LocalDateTime finishedAt,
+    String error
+) {
+    public static PluggySyncJobDTO from(PluggySyncJob job, boolean coalesced) {
+        return new PluggySyncJobDTO(
+            job.getId(),
+            job.getAccountId(),
+            job.getStatus(),
+            coalesced,
+            job.getPagesFetched(),
+            job.getRowsInserted(),
+            job.getDuplicatesSkipped(),
+            job.getCreatedAt(),
+            job.getStartedAt(),
+            job.getFinishedAt(),
+            job.getErrorMessage()
+        );
+    }
+}
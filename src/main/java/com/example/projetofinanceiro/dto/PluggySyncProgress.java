@@ -0,0 +1,8 @@
+package com.example.projetofinanceiro.dto;
+
+// Contadores acumulados de uma sincronização, reportados a cada página processada
+public record PluggySyncProgress(
+    int pagesFetched,
+    int rowsInserted,
+    int duplicatesSkipped
+) {}
@@ -0,0 +1,10 @@
+package com.example.projetofinanceiro.dto;
+
+// Campos usados do corpo do webhook da Pluggy; os demais são ignorados
+public record PluggyWebhookDTO(
+    String event,
+    String eventId,
+    String itemId,
+    String accountId
+) {
+}
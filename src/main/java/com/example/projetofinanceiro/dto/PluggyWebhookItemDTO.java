@@ -0,0 +1,12 @@
+package com.example.projetofinanceiro.dto;
+
+import java.time.LocalDateTime;
+
+// Eventos pendentes de um item da Pluggy, agrupados para uma única sincronização
+public record PluggyWebhookItemDTO(
+    String itemId,
+    Long events,
+    LocalDateTime firstReceivedAt,
+    LocalDateTime lastReceivedAt
+) {
+}
@@ -0,0 +1,34 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.ReportJob;
+import com.example.projetofinanceiro.model.ReportJobStatus;
+import com.example.projetofinanceiro.model.ReportJobType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ReportJobDTO(
+    UUID id,
+    ReportJobType type,
+    ReportJobStatus status,
+    boolean reused,
+    LocalDateTime createdAt,
+    LocalDateTime finishedAt,
+    LocalDateTime expiresAt,
+    String resultUrl,
+    String error
+) {
+    public static ReportJobDTO from(ReportJob job, boolean reused) {
+        return new ReportJobDTO(
+            job.getId(),
+            job.getType(),
+            job.getStatus(),
+            reused,
+            job.getCreatedAt(),
+            job.getFinishedAt(),
+            job.getExpiresAt(),
+            job.getStatus() == ReportJobStatus.DONE ? "/api/reports/jobs/" + job.getId() + "/result" : null,
+            job.getErrorMessage()
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.ReportJobType;
+
+import java.time.LocalDate;
+
+// format: json (padrão dos relatórios), csv ou xlsx (padrão da exportação de transações: csv)
+public record ReportJobRequestDTO(
+    ReportJobType type,
+    LocalDate startDate,
+    LocalDate endDate,
+    String granularity,
+    Integer month,
+    Integer year,
+    Long categoryId,
+    String format
+) {}
@@ -0,0 +1,10 @@
+package com.example.projetofinanceiro.dto;
+
+import java.util.UUID;
+
+public record RollupDriftDTO(
+    UUID userId,
+    int checkedKeys,
+    int driftedKeys,
+    boolean repaired
+) {}
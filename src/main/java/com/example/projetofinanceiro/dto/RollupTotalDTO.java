@@ -0,0 +1,16 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record RollupTotalDTO(
+    LocalDate date,
+    TransactionType type,
+    Long categoryId,
+    Long accountId,
+    Long creditCardId,
+    BigDecimal total,
+    Long transactionCount
+) {}
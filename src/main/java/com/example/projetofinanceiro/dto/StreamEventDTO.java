@@ -0,0 +1,38 @@
+package com.example.projetofinanceiro.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Evento enviado pelo GET /api/stream. O nome vira o campo "event:" do SSE e o
+ * payload é serializado como JSON no campo "data:".
+ */
+public record StreamEventDTO(
+    String name,
+    Object payload
+) {
+    public static final String TOTALS = "totals";
+    public static final String CATEGORIES = "categories";
+    public static final String BALANCES = "balances";
+    public static final String NOTIFICATION = "notification";
+    public static final String SYNC = "sync";
+    public static final String IMPORT = "import";
+    public static final String RESYNC = "resync"; // O cliente deve buscar o dashboard inteiro de novo
+
+    // Totais do mês após a escrita
+    public record MonthTotals(int year, int month, BigDecimal income, BigDecimal expense) {}
+
+    // Somas das categorias tocadas pela escrita, no mês afetado
+    public record CategorySums(int year, int month, List<CategoryTotalDTO> categories) {}
+
+    public record AccountBalance(Long accountId, BigDecimal currentBalance) {}
+
+    public record NotificationMessage(Long id, String message) {}
+
+    public record SyncResult(String source, int newTransactions) {}
+
+    // Andamento de POST /api/transactions/import, enviado a cada lote gravado
+    public record ImportProgress(String importId, long processedRows, long importedRows, long failedRows, boolean done) {}
+
+    public record Resync(String reason) {}
+}
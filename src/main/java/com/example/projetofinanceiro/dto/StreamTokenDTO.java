@@ -0,0 +1,5 @@
+package com.example.projetofinanceiro.dto;
+
+// Token para abrir o /api/stream pela query string; expiresIn em segundos
+public record StreamTokenDTO(String token, long expiresIn) {
+}
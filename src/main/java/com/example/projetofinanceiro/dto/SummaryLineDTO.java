@@ -0,0 +1,14 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+
+// Total de um tipo de transação para uma categoria, conta ou cartão (id null = sem vínculo)
+public record SummaryLineDTO(
+    Long id,
+    String name,
+    TransactionType type,
+    BigDecimal total,
+    Long transactionCount
+) {}
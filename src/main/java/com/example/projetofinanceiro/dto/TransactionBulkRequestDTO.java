@@ -0,0 +1,16 @@
+package com.example.projetofinanceiro.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Operação em lote sobre transações. categoryId é usado por set-category (nulo
+ * remove a categoria), accountId por set-account e date por set-date.
+ */
+public record TransactionBulkRequestDTO(
+    String operation,
+    List<Long> ids,
+    Long categoryId,
+    Long accountId,
+    LocalDate date
+) {}
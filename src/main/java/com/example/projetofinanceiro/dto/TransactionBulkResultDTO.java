@@ -0,0 +1,6 @@
+package com.example.projetofinanceiro.dto;
+
+public record TransactionBulkResultDTO(
+    String operation,
+    int affected
+) {}
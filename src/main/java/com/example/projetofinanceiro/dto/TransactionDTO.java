@@ -1,6 +1,5 @@
 package com.example.projetofinanceiro.dto;
 
-import com.example.projetofinanceiro.model.Transaction;
 import com.example.projetofinanceiro.model.TransactionType;
 
 import java.math.BigDecimal;
@@ -15,23 +14,20 @@ public record TransactionDTO(
     String accountName,
     CategoryDTO category
 ) {
-    public static TransactionDTO fromEntity(Transaction transaction) {
-        String sourceName = "N/A";
-        
-        if (transaction.getCreditCard() != null) {
-            sourceName = "Cartão: " + transaction.getCreditCard().getName();
-        } else if (transaction.getAccount() != null) {
-            sourceName = transaction.getAccount().getName();
-        }
+    // Construtor de projeção: as consultas da listagem selecionam só estas colunas
+    // com LEFT JOIN explícito, sem carregar as entidades associadas
+    public TransactionDTO(Long id, String description, BigDecimal amount, LocalDate date, TransactionType type,
+                          String accountName, String creditCardName,
+                          Long categoryId, String categoryName, TransactionType categoryType) {
+        this(id, description, amount, date, type,
+             sourceName(accountName, creditCardName),
+             categoryId != null ? new CategoryDTO(categoryId, categoryName, categoryType) : null);
+    }
 
-        return new TransactionDTO(
-            transaction.getId(),
-            transaction.getDescription(),
-            transaction.getAmount(),
-            transaction.getDate(),
-            transaction.getType(),
-            sourceName,
-            transaction.getCategory() != null ? CategoryDTO.fromEntity(transaction.getCategory()) : null
-        );
+    private static String sourceName(String accountName, String creditCardName) {
+        if (creditCardName != null) {
+            return "Cartão: " + creditCardName;
+        }
+        return accountName != null ? accountName : "N/A";
     }
 }
@@ -0,0 +1,20 @@
+package com.example.projetofinanceiro.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação de extrato. duplicateRows são linhas já importadas
+ * antes (mesmo id externo), que são ignoradas. errors traz no máximo as primeiras
+ * linhas com problema; errorsTruncated indica que havia mais.
+ */
+public record TransactionImportResultDTO(
+    String importId,
+    String format,
+    long totalRows,
+    long importedRows,
+    long duplicateRows,
+    long failedRows,
+    List<ImportRowErrorDTO> errors,
+    boolean errorsTruncated,
+    long durationMillis
+) {}
@@ -0,0 +1,22 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Filtros da busca de transações; campos nulos ou listas vazias não filtram
+public record TransactionSearchDTO(
+    LocalDate startDate,
+    LocalDate endDate,
+    BigDecimal minAmount,
+    BigDecimal maxAmount,
+    List<TransactionType> types,
+    List<Long> accountIds,
+    List<Long> creditCardIds,
+    List<Long> categoryIds,
+    String description,
+    String cursor,
+    Integer limit
+) {}
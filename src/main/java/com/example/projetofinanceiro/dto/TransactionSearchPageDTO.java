@@ -0,0 +1,8 @@
+package com.example.projetofinanceiro.dto;
+
+import java.util.List;
+
+public record TransactionSearchPageDTO(
+    List<TransactionSearchResultDTO> items,
+    String nextCursor                // null na última página
+) {}
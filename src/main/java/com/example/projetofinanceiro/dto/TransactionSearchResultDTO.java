@@ -0,0 +1,21 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Projeção plana de uma transação: só escalares, sem carregar entidades
+public record TransactionSearchResultDTO(
+    Long id,
+    String description,
+    BigDecimal amount,
+    LocalDate date,
+    TransactionType type,
+    Long categoryId,
+    String categoryName,
+    Long accountId,
+    String accountName,
+    Long creditCardId,
+    String creditCardName
+) {}
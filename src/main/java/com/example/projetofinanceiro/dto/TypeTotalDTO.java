@@ -0,0 +1,10 @@
+package com.example.projetofinanceiro.dto;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+
+public record TypeTotalDTO(
+    TransactionType type,
+    BigDecimal total
+) {}
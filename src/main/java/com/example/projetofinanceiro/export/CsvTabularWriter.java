@@ -0,0 +1,57 @@
+package com.example.projetofinanceiro.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV (RFC 4180) em UTF-8 com BOM, para o Excel reconhecer a acentuação.
+ */
+class CsvTabularWriter implements TabularWriter {
+
+    private final Writer writer;
+
+    CsvTabularWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write('\uFEFF');
+    }
+
+    @Override
+    public void header(String... columns) throws IOException {
+        row((Object[]) columns);
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            writer.write(format(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private String format(Object value) {
+        if (value == null) return "";
+        if (value instanceof BigDecimal decimal) return decimal.toPlainString();
+        if (value instanceof Number) return value.toString();
+
+        String text = value.toString();
+        // Evita que o Excel interprete o texto como fórmula (CSV injection)
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
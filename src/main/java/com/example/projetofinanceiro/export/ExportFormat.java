@@ -0,0 +1,46 @@
+package com.example.projetofinanceiro.export;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("text/csv; charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    // XLSX já é um zip: gzip por cima só gastaria CPU
+    public boolean isCompressible() {
+        return this == CSV;
+    }
+
+    public TabularWriter open(OutputStream out, String sheetName) throws IOException {
+        return this == CSV ? new CsvTabularWriter(out) : new XlsxTabularWriter(out, sheetName);
+    }
+
+    public static ExportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or xlsx");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.projetofinanceiro.export;
+
+import java.io.IOException;
+
+/**
+ * Escrita linha a linha de uma tabela, sem manter as linhas em memória.
+ * Valores aceitos: String, Number (BigDecimal, Long...), LocalDate e null.
+ */
+public interface TabularWriter {
+
+    void header(String... columns) throws IOException;
+
+    void row(Object... values) throws IOException;
+
+    // Completa o arquivo e faz flush; não fecha o stream de saída
+    void finish() throws IOException;
+}
@@ -0,0 +1,135 @@
+package com.example.projetofinanceiro.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Planilha XLSX mínima (uma aba, textos inline) escrita em streaming: as partes
+ * fixas do pacote são gravadas na abertura e cada linha vai direto para o zip,
+ * sem montar a planilha em memória.
+ */
+class XlsxTabularWriter implements TabularWriter {
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String DOC_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    // Datas do Excel contam dias a partir de 30/12/1899
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+
+    XlsxTabularWriter(OutputStream out, String sheetName) throws IOException {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 16 * 1024);
+
+        part("[Content_Types].xml",
+                "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+                "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+                "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+                "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>" +
+                "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>" +
+                "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>" +
+                "</Types>");
+        part("_rels/.rels",
+                "<Relationships xmlns=\"" + REL_NS + "\">" +
+                "<Relationship Id=\"rId1\" Type=\"" + DOC_REL + "/officeDocument\" Target=\"xl/workbook.xml\"/>" +
+                "</Relationships>");
+        part("xl/workbook.xml",
+                "<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + DOC_REL + "\">" +
+                "<sheets><sheet name=\"" + escape(sheetName) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets>" +
+                "</workbook>");
+        part("xl/_rels/workbook.xml.rels",
+                "<Relationships xmlns=\"" + REL_NS + "\">" +
+                "<Relationship Id=\"rId1\" Type=\"" + DOC_REL + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>" +
+                "<Relationship Id=\"rId2\" Type=\"" + DOC_REL + "/styles\" Target=\"styles.xml\"/>" +
+                "</Relationships>");
+        // Estilo 1 = data (formato embutido 14), estilo 2 = número com duas casas (formato 4)
+        part("xl/styles.xml",
+                "<styleSheet xmlns=\"" + MAIN_NS + "\">" +
+                "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>" +
+                "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>" +
+                "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>" +
+                "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>" +
+                "<cellXfs count=\"3\">" +
+                "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>" +
+                "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+                "<xf numFmtId=\"4\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+                "</cellXfs>" +
+                "</styleSheet>");
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write(XML_HEADER);
+        writer.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+    }
+
+    @Override
+    public void header(String... columns) throws IOException {
+        row((Object[]) columns);
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        writer.write("<row>");
+        for (Object value : values) {
+            if (value == null) {
+                writer.write("<c/>");
+            } else if (value instanceof LocalDate date) {
+                writer.write("<c s=\"1\"><v>" + ChronoUnit.DAYS.between(EXCEL_EPOCH, date) + "</v></c>");
+            } else if (value instanceof BigDecimal decimal) {
+                writer.write("<c s=\"2\"><v>" + decimal.toPlainString() + "</v></c>");
+            } else if (value instanceof Number number) {
+                writer.write("<c><v>" + number + "</v></c>");
+            } else {
+                writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">" + escape(value.toString()) + "</t></is></c>");
+            }
+        }
+        writer.write("</row>");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    private void part(String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(XML_HEADER);
+        writer.write(xml);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                default -> {
+                    // Caracteres de controle são inválidos em XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.projetofinanceiro.importer;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV (RFC 4180) em UTF-8 com cabeçalho. O separador (vírgula, ponto e vírgula ou
+ * tab) é detectado no cabeçalho; campos entre aspas podem ter quebras de linha.
+ *
+ * Colunas obrigatórias: date/data, description/descricao, amount/valor.
+ * Opcionais: type/tipo, category/categoria, account/conta, id.
+ */
+class CsvStatementReader implements StatementReader {
+
+    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
+            Map.entry("date", "date"), Map.entry("data", "date"),
+            Map.entry("description", "description"), Map.entry("descricao", "description"),
+            Map.entry("historico", "description"), Map.entry("memo", "description"),
+            Map.entry("amount", "amount"), Map.entry("valor", "amount"),
+            Map.entry("type", "type"), Map.entry("tipo", "type"),
+            Map.entry("category", "category"), Map.entry("categoria", "category"),
+            Map.entry("account", "account"), Map.entry("conta", "account"),
+            Map.entry("id", "id"), Map.entry("external_id", "id"), Map.entry("fitid", "id")
+    );
+
+    private final BufferedReader reader;
+    private final char delimiter;
+    private final int dateColumn;
+    private final int descriptionColumn;
+    private final int amountColumn;
+    private final int typeColumn;
+    private final int categoryColumn;
+    private final int accountColumn;
+    private final int idColumn;
+    private long lineNumber;
+
+    CsvStatementReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+
+        String header = reader.readLine();
+        lineNumber = 1;
+        if (header == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV file is empty");
+        }
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        this.delimiter = detectDelimiter(header);
+
+        List<String> columns = split(header);
+        int date = -1, description = -1, amount = -1, type = -1, category = -1, account = -1, id = -1;
+        for (int i = 0; i < columns.size(); i++) {
+            String column = COLUMN_ALIASES.get(StatementValues.key(columns.get(i)));
+            if (column == null) continue;
+            switch (column) {
+                case "date" -> date = i;
+                case "description" -> description = i;
+                case "amount" -> amount = i;
+                case "type" -> type = i;
+                case "category" -> category = i;
+                case "account" -> account = i;
+                case "id" -> id = i;
+                default -> { }
+            }
+        }
+        if (date < 0 || description < 0 || amount < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must have date, description and amount columns");
+        }
+        this.dateColumn = date;
+        this.descriptionColumn = description;
+        this.amountColumn = amount;
+        this.typeColumn = type;
+        this.categoryColumn = category;
+        this.accountColumn = account;
+        this.idColumn = id;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) return null;
+            lineNumber++;
+        } while (line.isBlank());
+
+        long start = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) break;
+
+            // Campo entre aspas continua na próxima linha
+            line = reader.readLine();
+            if (line == null) break;
+            lineNumber++;
+            field.append('\n');
+        }
+        fields.add(field.toString());
+
+        return new StatementRow(start,
+                column(fields, dateColumn),
+                column(fields, descriptionColumn),
+                column(fields, amountColumn),
+                column(fields, typeColumn),
+                column(fields, categoryColumn),
+                column(fields, accountColumn),
+                column(fields, idColumn));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> split(String header) {
+        List<String> columns = new ArrayList<>();
+        for (String column : header.split(String.valueOf(delimiter), -1)) {
+            columns.add(column.replace("\"", "").trim());
+        }
+        return columns;
+    }
+
+    private static char detectDelimiter(String header) {
+        char best = ',';
+        long bestCount = header.chars().filter(c -> c == ',').count();
+        for (char candidate : new char[] {';', '\t'}) {
+            long count = header.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static String column(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.projetofinanceiro.importer;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV,
+    OFX;
+
+    public StatementReader open(InputStream in) throws IOException {
+        return this == CSV ? new CsvStatementReader(in) : new OfxStatementReader(in);
+    }
+
+    public static ImportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ofx");
+        }
+    }
+
+    // Sem format explícito, vale a extensão do arquivo
+    public static ImportFormat detect(String filename) {
+        String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".ofx") || name.endsWith(".qfx")) return OFX;
+        if (name.endsWith(".csv") || name.endsWith(".txt")) return CSV;
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not detect file format, use format=csv or format=ofx");
+    }
+}
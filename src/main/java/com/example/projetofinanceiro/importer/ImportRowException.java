@@ -0,0 +1,12 @@
+package com.example.projetofinanceiro.importer;
+
+/**
+ * Linha do extrato que não pode ser importada. Vai para o relatório de erros
+ * sem interromper a importação das demais.
+ */
+public class ImportRowException extends RuntimeException {
+
+    public ImportRowException(String message) {
+        super(message);
+    }
+}
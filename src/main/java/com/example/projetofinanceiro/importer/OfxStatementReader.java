@@ -0,0 +1,103 @@
+package com.example.projetofinanceiro.importer;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * OFX 1.x (SGML, tags sem fechamento) e 2.x (XML). Lê o arquivo como uma
+ * sequência de tags e textos e emite uma linha a cada bloco STMTTRN, sem montar
+ * a árvore do documento.
+ *
+ * Os bancos brasileiros costumam declarar CHARSET:1252 no cabeçalho; os textos
+ * são lidos como ISO-8859-1, que coincide com o 1252 nos acentos do português.
+ */
+class OfxStatementReader implements StatementReader {
+
+    private final BufferedReader reader;
+    private long lineNumber = 1;
+    private int pending = -2;
+
+    OfxStatementReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1), 64 * 1024);
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        String tag;
+        while ((tag = nextTag()) != null) {
+            if (tag.equals("STMTTRN")) break;
+        }
+        if (tag == null) return null;
+
+        long start = lineNumber;
+        String date = null, amount = null, name = null, memo = null, fitId = null;
+        while ((tag = nextTag()) != null && !tag.equals("/STMTTRN")) {
+            switch (tag) {
+                case "DTPOSTED" -> date = text();
+                case "TRNAMT" -> amount = text();
+                case "NAME" -> name = text();
+                case "MEMO" -> memo = text();
+                case "FITID" -> fitId = text();
+                default -> { }
+            }
+        }
+
+        String description = name != null ? name : memo;
+        // O tipo sai do sinal de TRNAMT, que é o que os bancos preenchem de forma consistente
+        return new StatementRow(start, date, description, amount, null, null, null, fitId);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Nome da próxima tag em maiúsculas (fechamentos com "/"), ou null no fim do arquivo
+    private String nextTag() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '<') {
+            // ignora texto fora de tags de interesse
+        }
+        if (c == -1) return null;
+
+        StringBuilder name = new StringBuilder();
+        while ((c = read()) != -1 && c != '>') {
+            name.append((char) c);
+        }
+        return name.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Texto logo após a tag atual, até a próxima tag ou quebra de linha
+    private String text() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '<' && c != '\n' && c != '\r') {
+            text.append((char) c);
+        }
+        if (c == '<') unread(c);
+        String value = HtmlUtils.htmlUnescape(text.toString().trim());
+        return value.isEmpty() ? null : value;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pending != -2) {
+            c = pending;
+            pending = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') lineNumber++;
+        return c;
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.projetofinanceiro.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Leitura de um extrato linha a linha, sem carregar o arquivo inteiro.
+ */
+public interface StatementReader extends Closeable {
+
+    // Próxima linha do extrato, ou null no fim do arquivo
+    StatementRow next() throws IOException;
+}
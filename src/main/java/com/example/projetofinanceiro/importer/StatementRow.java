@@ -0,0 +1,19 @@
+package com.example.projetofinanceiro.importer;
+
+/**
+ * Uma linha do extrato com os valores como vieram no arquivo. A conversão fica
+ * para quem importa, para que os erros de todas as linhas saiam no mesmo formato.
+ *
+ * line é a linha do arquivo onde o registro começa; type, category, account e
+ * externalId são opcionais.
+ */
+public record StatementRow(
+    long line,
+    String date,
+    String description,
+    String amount,
+    String type,
+    String category,
+    String account,
+    String externalId
+) {}
@@ -0,0 +1,82 @@
+package com.example.projetofinanceiro.importer;
+
+import com.example.projetofinanceiro.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Locale;
+
+/**
+ * Conversão dos valores textuais dos extratos, aceitando os formatos comuns
+ * nos bancos brasileiros (dd/MM/yyyy, "1.234,56") além dos padrões ISO e OFX.
+ */
+public final class StatementValues {
+
+    private static final DateTimeFormatter BRAZILIAN_DATE = DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter COMPACT_DATE = DateTimeFormatter.ofPattern("uuuuMMdd").withResolverStyle(ResolverStyle.STRICT);
+
+    private StatementValues() {
+    }
+
+    public static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) throw new ImportRowException("date is required");
+        String text = value.trim();
+        try {
+            if (text.length() >= 8 && text.chars().limit(8).allMatch(Character::isDigit)) {
+                // OFX: yyyyMMdd seguido opcionalmente de hora e fuso
+                return LocalDate.parse(text.substring(0, 8), COMPACT_DATE);
+            }
+            if (text.indexOf('/') > 0) {
+                return LocalDate.parse(text, BRAZILIAN_DATE);
+            }
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new ImportRowException("Invalid date: " + text);
+        }
+    }
+
+    // Aceita "1234.56", "1.234,56", "-45,20", "R$ 10,00" e "(45,20)" (negativo, estilo contábil);
+    // o separador decimal é o último que aparece
+    public static BigDecimal parseAmount(String value) {
+        if (value == null || value.isBlank()) throw new ImportRowException("amount is required");
+        String text = value.replace("R$", "").replace(" ", "").replace("\u00A0", "").trim();
+        boolean parenthesized = text.length() > 2 && text.startsWith("(") && text.endsWith(")");
+        if (parenthesized) {
+            text = text.substring(1, text.length() - 1);
+        }
+        int comma = text.lastIndexOf(',');
+        int dot = text.lastIndexOf('.');
+        if (comma > dot) {
+            text = text.replace(".", "").replace(',', '.');
+        } else if (dot > comma && comma >= 0) {
+            text = text.replace(",", "");
+        }
+        try {
+            BigDecimal amount = new BigDecimal(text);
+            if (parenthesized && amount.signum() < 0) throw new NumberFormatException();
+            return parenthesized ? amount.negate() : amount;
+        } catch (NumberFormatException e) {
+            throw new ImportRowException("Invalid amount: " + value.trim());
+        }
+    }
+
+    // null quando a coluna não existe ou está vazia: o tipo sai do sinal do valor
+    public static TransactionType parseType(String value) {
+        if (value == null || value.isBlank()) return null;
+        return switch (key(value)) {
+            case "income", "receita", "entrada", "credit", "credito", "c" -> TransactionType.INCOME;
+            case "expense", "despesa", "saida", "debit", "debito", "d" -> TransactionType.EXPENSE;
+            default -> throw new ImportRowException("Invalid type: " + value.trim());
+        };
+    }
+
+    // Minúsculas e sem acentos, para comparar nomes de colunas, categorias e contas
+    public static String key(String value) {
+        String decomposed = Normalizer.normalize(value.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}+", "");
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.projetofinanceiro.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.util.List;
 
 @Data
 @Entity
 @Table(name = "accounts")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Account {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,12 +24,21 @@ public class Account {
 
     private BigDecimal initialBalance = BigDecimal.ZERO; // Saldo inicial definido pelo usuário
 
-    @Transient // Não salva no banco, é calculado em tempo de execução
-    private BigDecimal currentBalance;
+    // initialBalance + receitas - despesas da conta; só o AccountBalanceService altera
+    @Column(name = "current_balance", nullable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private BigDecimal currentBalance = BigDecimal.ZERO;
+
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
 
     private String type; // e.g., CHECKING, SAVINGS, CREDIT_CARD
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
@@ -21,7 +21,7 @@ public class Asset {
     @Enumerated(EnumType.STRING)
     private AssetType type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
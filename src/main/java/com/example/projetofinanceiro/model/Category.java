@@ -1,6 +1,7 @@
 package com.example.projetofinanceiro.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,6 +9,8 @@ import lombok.NoArgsConstructor;
 @Data
 @Entity
 @Table(name = "categories")
+// Referências LAZY chegam como proxy; o Jackson ignora os campos internos do Hibernate
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @NoArgsConstructor
 public class Category {
     @Id
@@ -19,7 +22,7 @@ public class Category {
     @Enumerated(EnumType.STRING)
     private TransactionType type; // INCOME ou EXPENSE
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
@@ -1,15 +1,19 @@
 package com.example.projetofinanceiro.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
 @Data
 @Entity
 @Table(name = "credit_cards")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @NoArgsConstructor
 public class CreditCard {
     @Id
@@ -19,12 +23,24 @@ public class CreditCard {
     private String name;
     private String lastFourDigits;
     private BigDecimal limitTotal;
+
+    // Soma das despesas lançadas no cartão; o disponível é limitTotal - limitUsed
+    @Column(name = "limit_used", nullable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private BigDecimal limitUsed = BigDecimal.ZERO;
+
     private int closingDay; // Dia do fechamento da fatura
     private int dueDay; // Dia do vencimento da fatura
     private String color; // Hex color code
 
-    @ManyToOne
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
@@ -18,7 +18,7 @@ public class Investment {
     private BigDecimal currentValue;
     private BigDecimal investedAmount;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
@@ -0,0 +1,71 @@
+package com.example.projetofinanceiro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Resumo fechado de um mês encerrado: totais por tipo, categoria, conta e cartão
+ * e o resultado dos orçamentos, serializados em content.
+ *
+ * A linha só muda quando o mês é reaberto (stale) por uma escrita retroativa e
+ * reconstruído. As duas operações incrementam version, então id + version
+ * identifica um conteúdo que nunca muda.
+ */
+@Data
+@Entity
+@Table(name = "monthly_summary", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_monthly_summary_user_month", columnNames = {"user_id", "summary_year", "summary_month"})
+})
+@NoArgsConstructor
+public class MonthlySummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "summary_year", nullable = false)
+    private int summaryYear;
+
+    @Column(name = "summary_month", nullable = false)
+    private int summaryMonth;
+
+    @Column(name = "total_income", nullable = false)
+    private BigDecimal totalIncome = BigDecimal.ZERO;
+
+    @Column(name = "total_expense", nullable = false)
+    private BigDecimal totalExpense = BigDecimal.ZERO;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    // Reaberto por uma escrita retroativa; será reconstruído na próxima leitura ou passada do scheduler
+    @Column(nullable = false)
+    private boolean stale;
+
+    @Column(name = "closed_at", nullable = false)
+    private LocalDateTime closedAt;
+
+    // Reconstruções do scheduler que falharam seguidas; a próxima tentativa só depois de rebuildAfter
+    @Column(name = "rebuild_failures")
+    private Integer rebuildFailures;
+
+    @Column(name = "rebuild_after")
+    private LocalDateTime rebuildAfter;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public MonthlySummary(UUID userId, int summaryYear, int summaryMonth) {
+        this.userId = userId;
+        this.summaryYear = summaryYear;
+        this.summaryMonth = summaryMonth;
+    }
+}
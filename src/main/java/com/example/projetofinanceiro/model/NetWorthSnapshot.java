@@ -0,0 +1,49 @@
+package com.example.projetofinanceiro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Foto diária do patrimônio de um usuário (saldo das contas + valor dos ativos).
+ * Uma linha por usuário e dia; a série de evolução do dashboard lê estas linhas
+ * em vez de reprocessar o histórico de transações.
+ */
+@Data
+@Entity
+@Table(name = "net_worth_snapshot", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_net_worth_snapshot_user_date", columnNames = {"user_id", "snapshot_date"})
+})
+@NoArgsConstructor
+public class NetWorthSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(name = "accounts_total", nullable = false)
+    private BigDecimal accountsTotal = BigDecimal.ZERO;
+
+    @Column(name = "assets_total", nullable = false)
+    private BigDecimal assetsTotal = BigDecimal.ZERO;
+
+    @Column(name = "net_worth", nullable = false)
+    private BigDecimal netWorth = BigDecimal.ZERO;
+
+    public NetWorthSnapshot(UUID userId, LocalDate snapshotDate, BigDecimal accountsTotal, BigDecimal assetsTotal) {
+        this.userId = userId;
+        this.snapshotDate = snapshotDate;
+        this.accountsTotal = accountsTotal;
+        this.assetsTotal = assetsTotal;
+        this.netWorth = accountsTotal.add(assetsTotal);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.projetofinanceiro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sincronização da Pluggy executada em segundo plano. Existe no máximo um job
+ * ativo (QUEUED ou RUNNING) por usuário e conta, pelo índice único parcial
+ * uk_pluggy_sync_jobs_active de schema-postgresql.sql; pedidos repetidos enquanto ele
+ * roda recebem o mesmo job. Os contadores de progresso são atualizados a cada página.
+ * A instância dona renova heartbeatAt enquanto o job está ativo; um job sem heartbeat
+ * recente ficou órfão (a instância caiu) e é marcado como FAILED por qualquer outra.
+ */
+@Data
+@Entity
+@Table(name = "pluggy_sync_jobs", indexes = {
+    @Index(name = "idx_pluggy_sync_jobs_user_account", columnList = "user_id, account_id, status"),
+    @Index(name = "idx_pluggy_sync_jobs_finished_at", columnList = "finished_at")
+})
+@NoArgsConstructor
+public class PluggySyncJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // Id da conta na Pluggy (não é uma conta do Lume)
+    @Column(name = "account_id", nullable = false)
+    private String accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PluggySyncJobStatus status = PluggySyncJobStatus.QUEUED;
+
+    @Column(name = "pages_fetched", nullable = false)
+    private int pagesFetched;
+
+    @Column(name = "rows_inserted", nullable = false)
+    private int rowsInserted;
+
+    @Column(name = "duplicates_skipped", nullable = false)
+    private int duplicatesSkipped;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "owner", length = 64)
+    private String owner; // InstanceIdentity da instância que enfileirou o job
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public PluggySyncJob(UUID userId, String accountId) {
+        this.userId = userId;
+        this.accountId = accountId;
+    }
+
+    public boolean isActive() {
+        return status == PluggySyncJobStatus.QUEUED || status == PluggySyncJobStatus.RUNNING;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.projetofinanceiro.model;
+
+public enum PluggySyncJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
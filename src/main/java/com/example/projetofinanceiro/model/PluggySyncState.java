@@ -0,0 +1,65 @@
+package com.example.projetofinanceiro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Até onde cada conta da Pluggy já foi sincronizada. lastSyncedDate é a marca
+ * d'água: a próxima sincronização busca só a partir dela (menos uma janela de
+ * sobreposição). backfillCursor é a data mais antiga já importada pela carga
+ * histórica da primeira sincronização; fica null quando ela chega em backfillHorizon.
+ * itemId liga a conta ao item da Pluggy que aparece nos webhooks.
+ */
+@Data
+@Entity
+@Table(name = "pluggy_sync_state", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_pluggy_sync_state_user_account", columnNames = {"user_id", "account_id"})
+}, indexes = {
+    @Index(name = "idx_pluggy_sync_state_item", columnList = "item_id")
+})
+@NoArgsConstructor
+public class PluggySyncState {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // Id da conta na Pluggy (não é uma conta do Lume)
+    @Column(name = "account_id", nullable = false)
+    private String accountId;
+
+    // Id do item (conexão com o banco) na Pluggy; null em estados gravados antes desse campo
+    @Column(name = "item_id")
+    private String itemId;
+
+    @Column(name = "last_synced_date")
+    private LocalDate lastSyncedDate;
+
+    @Column(name = "backfill_cursor")
+    private LocalDate backfillCursor;
+
+    @Column(name = "backfill_horizon", nullable = false)
+    private LocalDate backfillHorizon;
+
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+
+    public PluggySyncState(UUID userId, String accountId, LocalDate today, LocalDate backfillHorizon) {
+        this.userId = userId;
+        this.accountId = accountId;
+        // Nada importado ainda: a carga histórica começa pelo dia de hoje
+        this.backfillCursor = today.plusDays(1);
+        this.backfillHorizon = backfillHorizon;
+    }
+
+    public boolean isBackfillPending() {
+        return backfillCursor != null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.projetofinanceiro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Caixa de entrada dos webhooks da Pluggy. O recebimento só grava a linha (o event_id
+ * único descarta reenvios); o PluggyWebhookScheduler agrupa os eventos PENDING de cada
+ * item e dispara uma única sincronização incremental por rajada.
+ */
+@Data
+@Entity
+@Table(name = "pluggy_webhook_events", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_pluggy_webhook_events_event_id", columnNames = {"event_id"})
+}, indexes = {
+    @Index(name = "idx_pluggy_webhook_events_status_item", columnList = "status, item_id"),
+    @Index(name = "idx_pluggy_webhook_events_received_at", columnList = "received_at")
+})
+@NoArgsConstructor
+public class PluggyWebhookEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(nullable = false)
+    private String event;
+
+    @Column(name = "item_id", nullable = false)
+    private String itemId;
+
+    @Column(name = "account_id")
+    private String accountId;
+
+    // Corpo original, para auditoria e reprocessamento
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PluggyWebhookEventStatus status = PluggyWebhookEventStatus.PENDING;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
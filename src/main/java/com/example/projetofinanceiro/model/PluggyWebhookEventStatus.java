@@ -0,0 +1,7 @@
+package com.example.projetofinanceiro.model;
+
+public enum PluggyWebhookEventStatus {
+    PENDING,
+    PROCESSED,
+    IGNORED
+}
@@ -19,7 +19,7 @@ public class RecurringTransaction {
     @Enumerated(EnumType.STRING)
     private TransactionType type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
@@ -28,7 +28,7 @@ public class RecurringTransaction {
 
     private int dueDay; // Dia do vencimento (1-31)
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
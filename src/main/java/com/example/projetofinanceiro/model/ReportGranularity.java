@@ -0,0 +1,51 @@
+package com.example.projetofinanceiro.model;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+public enum ReportGranularity {
+    DAY,
+    WEEK,
+    MONTH,
+    QUARTER,
+    YEAR;
+
+    public static ReportGranularity from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "granularity must be one of day, week, month, quarter, year");
+        }
+    }
+
+    // Primeiro dia do período que contém a data (semanas começam na segunda-feira)
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    public LocalDate nextPeriodStart(LocalDate periodStart) {
+        return switch (this) {
+            case DAY -> periodStart.plusDays(1);
+            case WEEK -> periodStart.plusWeeks(1);
+            case MONTH -> periodStart.plusMonths(1);
+            case QUARTER -> periodStart.plusMonths(3);
+            case YEAR -> periodStart.plusYears(1);
+        };
+    }
+
+    // Granularidades de mês para cima podem partir de totais mensais já agrupados no banco
+    public boolean isMonthBased() {
+        return this == MONTH || this == QUARTER || this == YEAR;
+    }
+}
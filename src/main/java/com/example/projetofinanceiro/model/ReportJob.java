@@ -0,0 +1,101 @@
+package com.example.projetofinanceiro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Relatório gerado em segundo plano. O resultado fica comprimido em disco até
+ * expiresAt; pedidos idênticos (mesmo usuário, tipo, parâmetros e versão dos
+ * dados) compartilham o mesmo cacheKey e reaproveitam a linha. Só um job por cacheKey
+ * fica ativo de cada vez (uk_report_jobs_active em schema-postgresql.sql). A instância
+ * dona renova heartbeatAt enquanto o job está ativo; sem heartbeat recente ele é órfão.
+ */
+@Data
+@Entity
+@Table(name = "report_jobs", indexes = {
+    @Index(name = "idx_report_jobs_user_cache_key", columnList = "user_id, cache_key"),
+    @Index(name = "idx_report_jobs_expires_at", columnList = "expires_at")
+})
+@NoArgsConstructor
+public class ReportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportJobType type;
+
+    @Column(name = "params", nullable = false, length = 1000)
+    private String params;
+
+    @Column(name = "data_version", nullable = false)
+    private String dataVersion;
+
+    @Column(name = "cache_key", nullable = false, length = 64)
+    private String cacheKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportJobStatus status = ReportJobStatus.QUEUED;
+
+    @Column(name = "result_path")
+    private String resultPath;
+
+    @Column(name = "result_size")
+    private Long resultSize;
+
+    // Conteúdo gravado com gzip (false para formatos que já são comprimidos, como XLSX)
+    @Column(name = "result_gzipped")
+    private boolean resultGzipped;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "owner", length = 64)
+    private String owner; // InstanceIdentity da instância que enfileirou o job
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public ReportJob(UUID userId, ReportJobType type, String params, String dataVersion, String cacheKey) {
+        this.userId = userId;
+        this.type = type;
+        this.params = params;
+        this.dataVersion = dataVersion;
+        this.cacheKey = cacheKey;
+    }
+
+    public boolean isActive() {
+        return status == ReportJobStatus.QUEUED || status == ReportJobStatus.RUNNING;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
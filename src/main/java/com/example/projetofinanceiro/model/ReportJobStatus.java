@@ -0,0 +1,8 @@
+package com.example.projetofinanceiro.model;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
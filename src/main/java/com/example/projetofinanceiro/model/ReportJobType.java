@@ -0,0 +1,7 @@
+package com.example.projetofinanceiro.model;
+
+public enum ReportJobType {
+    CASH_FLOW,
+    EXPENSES_BY_CATEGORY,
+    TRANSACTIONS_EXPORT
+}
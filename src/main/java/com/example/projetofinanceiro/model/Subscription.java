@@ -20,7 +20,7 @@ public class Subscription {
     private BigDecimal amount;
     private LocalDate nextPaymentDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 }
@@ -8,7 +8,16 @@ import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    // Listagem paginada por cursor: busca por (user_id, date, id) percorrida em ordem decrescente
+    @Index(name = "idx_transactions_user_date_id", columnList = "user_id, date, id"),
+    // Filtros da busca por conta, cartão e categoria
+    @Index(name = "idx_transactions_account_date", columnList = "account_id, date"),
+    @Index(name = "idx_transactions_credit_card_date", columnList = "credit_card_id, date"),
+    @Index(name = "idx_transactions_category_date", columnList = "category_id, date"),
+    // Desfazer uma importação de extrato interrompida no meio
+    @Index(name = "idx_transactions_import_id", columnList = "import_id")
+})
 public class Transaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,18 +33,22 @@ public class Transaction {
     @Column(unique = true)
     private String externalId; // ID da transação na Pluggy
 
-    @ManyToOne
+    @Column(name = "import_id", length = 36)
+    @JsonIgnore
+    private String importId; // Importação de extrato que gravou a linha
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Account account;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "credit_card_id")
     private CreditCard creditCard;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
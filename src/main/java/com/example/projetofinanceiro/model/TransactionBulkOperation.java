@@ -0,0 +1,25 @@
+package com.example.projetofinanceiro.model;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+public enum TransactionBulkOperation {
+    DELETE,
+    SET_CATEGORY,
+    SET_ACCOUNT,
+    SET_DATE;
+
+    // Aceita o formato da API ("set-category") e o nome da constante
+    public static TransactionBulkOperation from(String value) {
+        if (value == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "operation is required");
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "operation must be one of delete, set-category, set-account, set-date");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.projetofinanceiro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read model com o total diário das transações de um usuário, agrupado por
+ * tipo, categoria e conta/cartão. É mantido incrementalmente a cada escrita
+ * de transação e pode ser reconstruído a partir da tabela de transações.
+ *
+ * As dimensões são ids simples (sem FK) para que o read model nunca bloqueie
+ * a exclusão de contas, cartões ou categorias.
+ */
+@Data
+@Entity
+@Table(name = "transaction_daily_rollup", indexes = {
+    @Index(name = "idx_rollup_user_date", columnList = "user_id, date")
+})
+@NoArgsConstructor
+public class TransactionDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "credit_card_id")
+    private Long creditCardId;
+
+    @Column(nullable = false)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    public TransactionDailyRollup(UUID userId, LocalDate date, TransactionType type, Long categoryId,
+                                  Long accountId, Long creditCardId, BigDecimal total, long transactionCount) {
+        this.userId = userId;
+        this.date = date;
+        this.type = type;
+        this.categoryId = categoryId;
+        this.accountId = accountId;
+        this.creditCardId = creditCardId;
+        this.total = total;
+        this.transactionCount = transactionCount;
+    }
+}
@@ -1,18 +1,42 @@
 package com.example.projetofinanceiro.repository;
 
+import com.example.projetofinanceiro.dto.AccountBalanceDTO;
 import com.example.projetofinanceiro.model.Account;
 import com.example.projetofinanceiro.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByUser(User user);
 
+    long countByUser(User user);
+
     @Query("SELECT SUM(a.initialBalance) FROM Account a WHERE a.user = :user")
     BigDecimal sumInitialBalanceByUser(User user);
+
+    @Query("SELECT COALESCE(SUM(a.currentBalance), 0) FROM Account a WHERE a.user = :user")
+    BigDecimal sumCurrentBalanceByUser(User user);
+
+    // Soma atômica no banco: escritas concorrentes na mesma conta nunca se sobrescrevem
+    @Modifying
+    @Query("UPDATE Account a SET a.currentBalance = a.currentBalance + CAST(:delta AS BigDecimal), a.version = a.version + 1 WHERE a.id = :accountId")
+    int adjustBalance(Long accountId, BigDecimal delta);
+
+    // Todos os saldos do usuário em uma consulta, recalculados a partir das transações
+    @Query("SELECT new com.example.projetofinanceiro.dto.AccountBalanceDTO(a.id, a.currentBalance, " +
+           "COALESCE(a.initialBalance, 0) + COALESCE(SUM(CASE " +
+           "WHEN t.type = com.example.projetofinanceiro.model.TransactionType.INCOME THEN t.amount " +
+           "WHEN t.type = com.example.projetofinanceiro.model.TransactionType.EXPENSE THEN 0 - t.amount " +
+           "ELSE 0 END), 0)) " +
+           "FROM Account a LEFT JOIN Transaction t ON t.account = a " +
+           "WHERE a.user.id = :userId " +
+           "GROUP BY a.id, a.currentBalance, a.initialBalance")
+    List<AccountBalanceDTO> computeBalancesByUser(UUID userId);
 }
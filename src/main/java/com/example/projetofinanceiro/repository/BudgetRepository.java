@@ -4,6 +4,7 @@ import com.example.projetofinanceiro.model.Budget;
 import com.example.projetofinanceiro.model.Category;
 import com.example.projetofinanceiro.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,6 +12,8 @@ import java.util.Optional;
 
 @Repository
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
+    // A categoria vem junto: o fechamento mensal lê o nome fora de uma transação
+    @Query("SELECT b FROM Budget b JOIN FETCH b.category WHERE b.user = :user AND b.month = :month AND b.year = :year")
     List<Budget> findByUserAndMonthAndYear(User user, int month, int year);
     Optional<Budget> findByUserAndCategoryAndMonthAndYear(User user, Category category, int month, int year);
 }
@@ -1,13 +1,34 @@
 package com.example.projetofinanceiro.repository;
 
+import com.example.projetofinanceiro.dto.CreditCardLimitDTO;
 import com.example.projetofinanceiro.model.CreditCard;
 import com.example.projetofinanceiro.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface CreditCardRepository extends JpaRepository<CreditCard, Long> {
     List<CreditCard> findByUser(User user);
+
+    long countByUser(User user);
+
+    // Soma atômica no banco, sem ler o cartão antes: compras simultâneas no mesmo cartão
+    // nunca se sobrescrevem. A versão sobe para que um save do cartão lido antes falhe
+    @Modifying
+    @Query("UPDATE CreditCard c SET c.limitUsed = COALESCE(c.limitUsed, 0) + CAST(:delta AS BigDecimal), " +
+           "c.version = c.version + 1 WHERE c.id = :cardId")
+    int adjustLimitUsed(Long cardId, BigDecimal delta);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.CreditCardLimitDTO(c.id, c.limitUsed, " +
+           "COALESCE(SUM(CASE WHEN t.type = com.example.projetofinanceiro.model.TransactionType.EXPENSE THEN t.amount ELSE 0 END), 0)) " +
+           "FROM CreditCard c LEFT JOIN Transaction t ON t.creditCard = c " +
+           "WHERE c.user.id = :userId " +
+           "GROUP BY c.id, c.limitUsed")
+    List<CreditCardLimitDTO> computeLimitUsedByUser(UUID userId);
 }
@@ -0,0 +1,73 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.dto.DashboardAggregateDTO;
+import com.example.projetofinanceiro.model.TransactionType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Camada de consulta do dashboard: calcula em um único round trip, a partir do
+ * rollup diário, a série de despesas dos últimos dias, os totais por tipo do mês
+ * atual/anterior e os totais por categoria do mês anterior. Retorna apenas escalares.
+ */
+@Repository
+public class DashboardQueryRepository {
+
+    public static final String SECTION_DAY = "DAY";
+    public static final String SECTION_MONTH = "MONTH";
+    public static final String SECTION_CATEGORY = "CATEGORY";
+
+    // CATEGORY conta só EXPENSE, com os totais com sinal do rollup. A versão antiga (sobre
+    // as transações) somava em módulo também valores negativos de qualquer tipo; o rollup
+    // soma por tipo e não guarda o sinal de cada transação, então essa regra não é reproduzível
+    private static final String AGGREGATE_QUERY =
+            "SELECT 'DAY', r.date, r.type, CAST(NULL AS String), SUM(r.total), CAST(0 AS BigDecimal) " +
+            "FROM TransactionDailyRollup r " +
+            "WHERE r.userId = :userId AND r.type = :expense AND r.date BETWEEN :dailyStart AND :dailyEnd " +
+            "GROUP BY r.date, r.type " +
+            "UNION ALL " +
+            "SELECT 'MONTH', CAST(NULL AS LocalDate), r.type, CAST(NULL AS String), " +
+            "SUM(CASE WHEN r.date >= :startOfMonth THEN r.total ELSE 0 END), " +
+            "SUM(CASE WHEN r.date < :startOfMonth THEN r.total ELSE 0 END) " +
+            "FROM TransactionDailyRollup r " +
+            "WHERE r.userId = :userId AND r.date BETWEEN :startOfLastMonth AND :endOfMonth " +
+            "GROUP BY r.type " +
+            "UNION ALL " +
+            "SELECT 'CATEGORY', CAST(NULL AS LocalDate), r.type, COALESCE(c.name, 'Sem Categoria'), SUM(r.total), CAST(0 AS BigDecimal) " +
+            "FROM TransactionDailyRollup r LEFT JOIN Category c ON c.id = r.categoryId " +
+            "WHERE r.userId = :userId AND r.type = :expense AND r.date BETWEEN :startOfLastMonth AND :endOfLastMonth " +
+            "GROUP BY r.type, c.name";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<DashboardAggregateDTO> findAggregates(UUID userId, LocalDate dailyStart, LocalDate dailyEnd,
+                                                      LocalDate startOfMonth, LocalDate endOfMonth,
+                                                      LocalDate startOfLastMonth, LocalDate endOfLastMonth) {
+        return entityManager.createQuery(AGGREGATE_QUERY, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("expense", TransactionType.EXPENSE)
+                .setParameter("dailyStart", dailyStart)
+                .setParameter("dailyEnd", dailyEnd)
+                .setParameter("startOfMonth", startOfMonth)
+                .setParameter("endOfMonth", endOfMonth)
+                .setParameter("startOfLastMonth", startOfLastMonth)
+                .setParameter("endOfLastMonth", endOfLastMonth)
+                .getResultList()
+                .stream()
+                .map(row -> new DashboardAggregateDTO(
+                        (String) row[0],
+                        (LocalDate) row[1],
+                        (TransactionType) row[2],
+                        (String) row[3],
+                        row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO,
+                        row[5] != null ? (BigDecimal) row[5] : BigDecimal.ZERO))
+                .toList();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.model.MonthlySummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface MonthlySummaryRepository extends JpaRepository<MonthlySummary, Long> {
+
+    Optional<MonthlySummary> findByUserIdAndSummaryYearAndSummaryMonth(UUID userId, int summaryYear, int summaryMonth);
+
+    // Os reabertos há mais tempo primeiro; os que estão esperando o backoff de uma falha ficam de fora
+    @Query("SELECT s FROM MonthlySummary s WHERE s.stale = true " +
+           "AND (s.rebuildAfter IS NULL OR s.rebuildAfter <= :now) ORDER BY s.closedAt, s.id")
+    List<MonthlySummary> findStaleReadyToRebuild(LocalDateTime now, Pageable pageable);
+
+    // Incrementa a versão junto: quem estiver reconstruindo o mês em paralelo perde no lock otimista
+    @Modifying
+    // Uma escrita nova também zera o backoff: o mês muda e merece outra tentativa
+    @Query("UPDATE MonthlySummary s SET s.stale = true, s.rebuildFailures = null, s.rebuildAfter = null, " +
+           "s.version = s.version + 1 WHERE s.userId = :userId AND s.summaryYear = :year AND s.summaryMonth = :month")
+    int reopen(UUID userId, int year, int month);
+
+    @Modifying
+    @Query("UPDATE MonthlySummary s SET s.stale = true, s.rebuildFailures = null, s.rebuildAfter = null, " +
+           "s.version = s.version + 1 WHERE s.userId = :userId")
+    int reopenAll(UUID userId);
+
+    // Sem incrementar a versão: não muda o conteúdo, e um fechamento em paralelo não deve perder por isso
+    @Modifying
+    @Query("UPDATE MonthlySummary s SET s.rebuildFailures = :failures, s.rebuildAfter = :rebuildAfter WHERE s.id = :id")
+    int postponeRebuild(Long id, int failures, LocalDateTime rebuildAfter);
+
+    @Modifying
+    @Query("DELETE FROM MonthlySummary s WHERE s.userId = :userId")
+    int deleteByUserId(UUID userId);
+}
@@ -0,0 +1,32 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.model.NetWorthSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NetWorthSnapshotRepository extends JpaRepository<NetWorthSnapshot, Long> {
+
+    Optional<NetWorthSnapshot> findByUserIdAndSnapshotDate(UUID userId, LocalDate snapshotDate);
+
+    boolean existsByUserId(UUID userId);
+
+    // Última foto de cada mês no intervalo: no máximo uma linha por mês
+    @Query("SELECT s FROM NetWorthSnapshot s WHERE s.userId = :userId AND s.snapshotDate IN (" +
+           "SELECT MAX(s2.snapshotDate) FROM NetWorthSnapshot s2 " +
+           "WHERE s2.userId = :userId AND s2.snapshotDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(s2.snapshotDate), MONTH(s2.snapshotDate)) " +
+           "ORDER BY s.snapshotDate")
+    List<NetWorthSnapshot> findMonthEndSnapshots(UUID userId, LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM NetWorthSnapshot s WHERE s.userId = :userId")
+    int deleteByUserId(UUID userId);
+}
@@ -0,0 +1,56 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.model.PluggySyncJob;
+import com.example.projetofinanceiro.model.PluggySyncJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PluggySyncJobRepository extends JpaRepository<PluggySyncJob, UUID> {
+
+    Optional<PluggySyncJob> findByIdAndUserId(UUID id, UUID userId);
+
+    List<PluggySyncJob> findByUserIdAndAccountIdAndStatusIn(UUID userId, String accountId, Collection<PluggySyncJobStatus> statuses);
+
+    long countByUserIdAndStatusIn(UUID userId, Collection<PluggySyncJobStatus> statuses);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PluggySyncJob j SET j.status = com.example.projetofinanceiro.model.PluggySyncJobStatus.RUNNING, j.startedAt = :now " +
+           "WHERE j.id = :id AND j.status = com.example.projetofinanceiro.model.PluggySyncJobStatus.QUEUED")
+    int markRunning(UUID id, LocalDateTime now);
+
+    // Progresso gravado por página, sem carregar o job
+    @Modifying
+    @Transactional
+    @Query("UPDATE PluggySyncJob j SET j.pagesFetched = :pagesFetched, j.rowsInserted = :rowsInserted, " +
+           "j.duplicatesSkipped = :duplicatesSkipped WHERE j.id = :id")
+    int updateProgress(UUID id, int pagesFetched, int rowsInserted, int duplicatesSkipped);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PluggySyncJob j SET j.heartbeatAt = :now WHERE j.owner = :owner AND j.status IN :statuses")
+    int touchHeartbeat(String owner, Collection<PluggySyncJobStatus> statuses, LocalDateTime now);
+
+    // Jobs de antes do heartbeat existir contam a partir da criação
+    @Modifying
+    @Transactional
+    @Query("UPDATE PluggySyncJob j SET j.status = com.example.projetofinanceiro.model.PluggySyncJobStatus.FAILED, " +
+           "j.finishedAt = :now, j.errorMessage = :message " +
+           "WHERE j.status IN :statuses AND COALESCE(j.heartbeatAt, j.createdAt) < :staleBefore")
+    int failStale(Collection<PluggySyncJobStatus> statuses, LocalDateTime staleBefore, LocalDateTime now, String message);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PluggySyncJob j WHERE j.finishedAt <= :finishedBefore")
+    int deleteFinishedBefore(LocalDateTime finishedBefore);
+}
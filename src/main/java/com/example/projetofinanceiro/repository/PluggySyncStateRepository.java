@@ -0,0 +1,21 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.model.PluggySyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PluggySyncStateRepository extends JpaRepository<PluggySyncState, Long> {
+    Optional<PluggySyncState> findByUserIdAndAccountId(UUID userId, String accountId);
+
+    // Contas já sincronizadas de um item, para os webhooks
+    List<PluggySyncState> findByItemId(String itemId);
+
+    // Webhooks de transações trazem também o accountId; cobre estados ainda sem itemId
+    List<PluggySyncState> findByAccountIdIn(Collection<String> accountIds);
+}
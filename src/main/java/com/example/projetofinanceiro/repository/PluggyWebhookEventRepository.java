@@ -0,0 +1,48 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.dto.PluggyWebhookItemDTO;
+import com.example.projetofinanceiro.model.PluggyWebhookEvent;
+import com.example.projetofinanceiro.model.PluggyWebhookEventStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PluggyWebhookEventRepository extends JpaRepository<PluggyWebhookEvent, Long> {
+
+    // Um reenvio do mesmo event_id é descartado pelo banco, sem exceção nem SELECT prévio
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO pluggy_webhook_events (event_id, event, item_id, account_id, payload, status, received_at) " +
+                   "VALUES (:eventId, :event, :itemId, :accountId, :payload, :status, :receivedAt) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(String eventId, String event, String itemId, String accountId, String payload, String status, LocalDateTime receivedAt);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.PluggyWebhookItemDTO(e.itemId, COUNT(e), MIN(e.receivedAt), MAX(e.receivedAt)) " +
+           "FROM PluggyWebhookEvent e WHERE e.status = com.example.projetofinanceiro.model.PluggyWebhookEventStatus.PENDING " +
+           "GROUP BY e.itemId")
+    List<PluggyWebhookItemDTO> findPendingItems();
+
+    @Query("SELECT DISTINCT e.accountId FROM PluggyWebhookEvent e WHERE e.itemId = :itemId " +
+           "AND e.status = com.example.projetofinanceiro.model.PluggyWebhookEventStatus.PENDING AND e.accountId IS NOT NULL")
+    List<String> findPendingAccountIds(String itemId);
+
+    // Só fecha os eventos já considerados; os que chegarem depois disparam a próxima sincronização
+    @Modifying
+    @Transactional
+    @Query("UPDATE PluggyWebhookEvent e SET e.status = :status, e.processedAt = :now " +
+           "WHERE e.itemId = :itemId AND e.status = com.example.projetofinanceiro.model.PluggyWebhookEventStatus.PENDING " +
+           "AND e.receivedAt <= :receivedUpTo")
+    int closePending(String itemId, PluggyWebhookEventStatus status, LocalDateTime receivedUpTo, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PluggyWebhookEvent e WHERE e.status <> com.example.projetofinanceiro.model.PluggyWebhookEventStatus.PENDING " +
+           "AND e.receivedAt <= :receivedBefore")
+    int deleteClosedBefore(LocalDateTime receivedBefore);
+}
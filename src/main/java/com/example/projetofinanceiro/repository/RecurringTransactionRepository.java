@@ -3,11 +3,14 @@ package com.example.projetofinanceiro.repository;
 import com.example.projetofinanceiro.model.RecurringTransaction;
 import com.example.projetofinanceiro.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface RecurringTransactionRepository extends JpaRepository<RecurringTransaction, Long> {
+    // A categoria vem junto: a lista é serializada fora da sessão (dashboard roda em outra thread)
+    @Query("SELECT r FROM RecurringTransaction r LEFT JOIN FETCH r.category WHERE r.user = :user")
     List<RecurringTransaction> findByUser(User user);
 }
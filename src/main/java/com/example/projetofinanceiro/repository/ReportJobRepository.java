@@ -0,0 +1,54 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.model.ReportJob;
+import com.example.projetofinanceiro.model.ReportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, UUID> {
+
+    Optional<ReportJob> findByIdAndUserId(UUID id, UUID userId);
+
+    // Candidatos a reaproveitamento: em andamento ou concluídos e ainda válidos
+    @Query("SELECT j FROM ReportJob j WHERE j.userId = :userId AND j.cacheKey = :cacheKey " +
+           "AND (j.status IN (com.example.projetofinanceiro.model.ReportJobStatus.QUEUED, com.example.projetofinanceiro.model.ReportJobStatus.RUNNING) " +
+           "OR (j.status = com.example.projetofinanceiro.model.ReportJobStatus.DONE AND j.expiresAt > :now)) " +
+           "ORDER BY j.createdAt DESC")
+    List<ReportJob> findReusable(UUID userId, String cacheKey, LocalDateTime now);
+
+    long countByUserIdAndStatusIn(UUID userId, Collection<ReportJobStatus> statuses);
+
+    // Concluídos que passaram do TTL e falhas antigas (que não têm expiresAt)
+    @Query("SELECT j FROM ReportJob j WHERE j.expiresAt <= :now " +
+           "OR (j.status = com.example.projetofinanceiro.model.ReportJobStatus.FAILED AND j.createdAt <= :failedBefore)")
+    List<ReportJob> findExpired(LocalDateTime now, LocalDateTime failedBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.status = com.example.projetofinanceiro.model.ReportJobStatus.RUNNING, j.startedAt = :now " +
+           "WHERE j.id = :id AND j.status = com.example.projetofinanceiro.model.ReportJobStatus.QUEUED")
+    int markRunning(UUID id, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.heartbeatAt = :now WHERE j.owner = :owner AND j.status IN :statuses")
+    int touchHeartbeat(String owner, Collection<ReportJobStatus> statuses, LocalDateTime now);
+
+    // Jobs de antes do heartbeat existir contam a partir da criação
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.status = com.example.projetofinanceiro.model.ReportJobStatus.FAILED, " +
+           "j.finishedAt = :now, j.errorMessage = :message " +
+           "WHERE j.status IN :statuses AND COALESCE(j.heartbeatAt, j.createdAt) < :staleBefore")
+    int failStale(Collection<ReportJobStatus> statuses, LocalDateTime staleBefore, LocalDateTime now, String message);
+}
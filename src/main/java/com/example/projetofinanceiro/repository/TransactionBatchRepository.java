@@ -0,0 +1,103 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Inserção de transações em lote via JDBC, sem passar pelo contexto de persistência:
+ * um único batch por chamada, sem SELECT de verificação nem entidades gerenciadas.
+ * Os ids gerados não são lidos; os efeitos (rollup, saldos, índice) usam só os valores.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO transactions " +
+            "(description, amount, date, type, external_id, category_id, account_id, credit_card_id, user_id, import_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Um único INSERT com as linhas em arrays (unnest): a linha cujo external_id já
+     * existe é descartada pelo banco, sem exceção, e o RETURNING diz quais entraram.
+     * As colunas vão como text[] e são convertidas no SELECT, para não depender de
+     * como o driver monta arrays de data, numeric ou uuid.
+     */
+    private static final String INSERT_IGNORING_CONFLICTS_SQL = "INSERT INTO transactions " +
+            "(description, amount, date, type, external_id, category_id, account_id, credit_card_id, user_id) " +
+            "SELECT r.description, CAST(r.amount AS numeric), CAST(r.date AS date), r.type, r.external_id, " +
+            "CAST(r.category_id AS bigint), CAST(r.account_id AS bigint), CAST(r.credit_card_id AS bigint), CAST(r.user_id AS uuid) " +
+            "FROM unnest(CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]), " +
+            "CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[])) " +
+            "AS r(description, amount, date, type, external_id, category_id, account_id, credit_card_id, user_id) " +
+            "ON CONFLICT DO NOTHING RETURNING external_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) return;
+        batchInsert(INSERT_SQL, transactions);
+    }
+
+    /**
+     * Insere as transações ignorando as que colidem com um external_id já gravado
+     * (por exemplo, uma sincronização concorrente) e devolve só as efetivamente inseridas,
+     * pelos external_ids que o banco devolveu. Sem external_id não há conflito possível.
+     */
+    public List<Transaction> insertAllIgnoringConflicts(List<Transaction> transactions) {
+        if (transactions.isEmpty()) return List.of();
+        Set<String> inserted = new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_IGNORING_CONFLICTS_SQL);
+            ps.setArray(1, textArray(con, transactions, Transaction::getDescription));
+            ps.setArray(2, textArray(con, transactions, Transaction::getAmount));
+            ps.setArray(3, textArray(con, transactions, Transaction::getDate));
+            ps.setArray(4, textArray(con, transactions, Transaction::getType));
+            ps.setArray(5, textArray(con, transactions, Transaction::getExternalId));
+            ps.setArray(6, textArray(con, transactions, t -> t.getCategory() != null ? t.getCategory().getId() : null));
+            ps.setArray(7, textArray(con, transactions, t -> t.getAccount() != null ? t.getAccount().getId() : null));
+            ps.setArray(8, textArray(con, transactions, t -> t.getCreditCard() != null ? t.getCreditCard().getId() : null));
+            ps.setArray(9, textArray(con, transactions, t -> t.getUser().getId()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1)));
+
+        return transactions.stream()
+                .filter(t -> t.getExternalId() == null || inserted.contains(t.getExternalId()))
+                .toList();
+    }
+
+    private void batchInsert(String sql, List<Transaction> transactions) {
+        jdbcTemplate.batchUpdate(sql, transactions, transactions.size(), (ps, t) -> {
+            ps.setString(1, t.getDescription());
+            ps.setBigDecimal(2, t.getAmount());
+            ps.setObject(3, t.getDate());
+            ps.setString(4, t.getType().name());
+            ps.setObject(5, t.getExternalId(), Types.VARCHAR);
+            ps.setObject(6, t.getCategory() != null ? t.getCategory().getId() : null, Types.BIGINT);
+            ps.setObject(7, t.getAccount() != null ? t.getAccount().getId() : null, Types.BIGINT);
+            ps.setObject(8, t.getCreditCard() != null ? t.getCreditCard().getId() : null, Types.BIGINT);
+            ps.setObject(9, t.getUser().getId());
+            ps.setObject(10, t.getImportId(), Types.VARCHAR);
+        });
+    }
+
+    private static Array textArray(Connection con, List<Transaction> transactions,
+                                   Function<Transaction, Object> column) throws SQLException {
+        String[] values = new String[transactions.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Objects.toString(column.apply(transactions.get(i)), null);
+        }
+        return con.createArrayOf("text", values);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.dto.CategoryMonthlyTotalDTO;
+import com.example.projetofinanceiro.dto.CategoryTotalDTO;
+import com.example.projetofinanceiro.dto.DailyTypeTotalDTO;
+import com.example.projetofinanceiro.dto.MonthlyTypeTotalDTO;
+import com.example.projetofinanceiro.dto.RollupTotalDTO;
+import com.example.projetofinanceiro.dto.SummaryLineDTO;
+import com.example.projetofinanceiro.dto.TypeTotalDTO;
+import com.example.projetofinanceiro.model.TransactionDailyRollup;
+import com.example.projetofinanceiro.model.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TransactionDailyRollupRepository extends JpaRepository<TransactionDailyRollup, Long> {
+
+    @Modifying
+    @Query("DELETE FROM TransactionDailyRollup r WHERE r.userId = :userId AND r.date = :date AND r.transactionCount <= 0")
+    int deleteEmpty(UUID userId, LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM TransactionDailyRollup r WHERE r.userId = :userId")
+    int deleteByUserId(UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM TransactionDailyRollup r WHERE r.accountId = :accountId")
+    int deleteByAccountId(Long accountId);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.RollupTotalDTO(r.date, r.type, r.categoryId, r.accountId, r.creditCardId, SUM(r.total), SUM(r.transactionCount)) " +
+           "FROM TransactionDailyRollup r WHERE r.userId = :userId " +
+           "GROUP BY r.date, r.type, r.categoryId, r.accountId, r.creditCardId")
+    List<RollupTotalDTO> findTotalsByUser(UUID userId);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.DailyTypeTotalDTO(r.date, r.type, SUM(r.total)) " +
+           "FROM TransactionDailyRollup r " +
+           "WHERE r.userId = :userId AND r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.date, r.type " +
+           "ORDER BY r.date ASC")
+    List<DailyTypeTotalDTO> sumDailyByDateAndType(UUID userId, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.MonthlyTypeTotalDTO(YEAR(r.date), MONTH(r.date), r.type, SUM(r.total)) " +
+           "FROM TransactionDailyRollup r " +
+           "WHERE r.userId = :userId AND r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(r.date), MONTH(r.date), r.type " +
+           "ORDER BY YEAR(r.date), MONTH(r.date)")
+    List<MonthlyTypeTotalDTO> sumMonthlyByType(UUID userId, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.TypeTotalDTO(r.type, SUM(r.total)) " +
+           "FROM TransactionDailyRollup r " +
+           "WHERE r.userId = :userId AND r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.type")
+    List<TypeTotalDTO> sumByType(UUID userId, LocalDate startDate, LocalDate endDate);
+
+    // Movimentação diária das contas (exclui cartões) a partir de uma data, sem limite superior
+    @Query("SELECT new com.example.projetofinanceiro.dto.DailyTypeTotalDTO(r.date, r.type, SUM(r.total)) " +
+           "FROM TransactionDailyRollup r " +
+           "WHERE r.userId = :userId AND r.accountId IS NOT NULL AND r.date >= :startDate " +
+           "GROUP BY r.date, r.type")
+    List<DailyTypeTotalDTO> sumAccountMovementsSince(UUID userId, LocalDate startDate);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.CategoryTotalDTO(COALESCE(c.name, 'Sem Categoria'), SUM(r.total)) " +
+           "FROM TransactionDailyRollup r LEFT JOIN Category c ON c.id = r.categoryId " +
+           "WHERE r.userId = :userId AND r.type = :type AND r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY c.name " +
+           "ORDER BY SUM(r.total) DESC")
+    List<CategoryTotalDTO> sumByCategory(UUID userId, TransactionType type, LocalDate startDate, LocalDate endDate);
+
+    // Soma por categoria e mês, ordenada por categoria e depois por mês: cada categoria vem em sequência
+    @Query("SELECT new com.example.projetofinanceiro.dto.CategoryMonthlyTotalDTO(r.categoryId, COALESCE(c.name, 'Sem Categoria'), YEAR(r.date), MONTH(r.date), SUM(r.total)) " +
+           "FROM TransactionDailyRollup r LEFT JOIN Category c ON c.id = r.categoryId " +
+           "WHERE r.userId = :userId AND r.type = :type AND r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.categoryId, c.name, YEAR(r.date), MONTH(r.date) " +
+           "ORDER BY r.categoryId NULLS LAST, YEAR(r.date), MONTH(r.date)")
+    List<CategoryMonthlyTotalDTO> sumMonthlyByCategory(UUID userId, TransactionType type, LocalDate startDate, LocalDate endDate);
+
+    // Linhas do resumo mensal: total e quantidade por tipo e categoria, conta ou cartão
+    @Query("SELECT new com.example.projetofinanceiro.dto.SummaryLineDTO(r.categoryId, COALESCE(c.name, 'Sem Categoria'), r.type, SUM(r.total), SUM(r.transactionCount)) " +
+           "FROM TransactionDailyRollup r LEFT JOIN Category c ON c.id = r.categoryId " +
+           "WHERE r.userId = :userId AND r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.categoryId, c.name, r.type " +
+           "ORDER BY SUM(r.total) DESC")
+    List<SummaryLineDTO> summarizeByCategory(UUID userId, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.SummaryLineDTO(r.accountId, a.name, r.type, SUM(r.total), SUM(r.transactionCount)) " +
+           "FROM TransactionDailyRollup r JOIN Account a ON a.id = r.accountId " +
+           "WHERE r.userId = :userId AND r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.accountId, a.name, r.type " +
+           "ORDER BY SUM(r.total) DESC")
+    List<SummaryLineDTO> summarizeByAccount(UUID userId, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.SummaryLineDTO(r.creditCardId, cc.name, r.type, SUM(r.total), SUM(r.transactionCount)) " +
+           "FROM TransactionDailyRollup r JOIN CreditCard cc ON cc.id = r.creditCardId " +
+           "WHERE r.userId = :userId AND r.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.creditCardId, cc.name, r.type " +
+           "ORDER BY SUM(r.total) DESC")
+    List<SummaryLineDTO> summarizeByCreditCard(UUID userId, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,56 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.model.TransactionDailyRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Soma deltas no rollup diário com INSERT ... ON CONFLICT DO UPDATE sobre a chave única
+ * uk_rollup_key (schema-postgresql.sql). Inserção e incremento são um único comando,
+ * então duas primeiras escritas concorrentes na mesma chave não criam linhas duplicadas.
+ * As dimensões nulas entram na chave via COALESCE(..., 0).
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionDailyRollupUpsertRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO transaction_daily_rollup " +
+            "(user_id, date, type, category_id, account_id, credit_card_id, total, transaction_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, date, type, COALESCE(category_id, 0), COALESCE(account_id, 0), COALESCE(credit_card_id, 0)) " +
+            "DO UPDATE SET total = transaction_daily_rollup.total + EXCLUDED.total, " +
+            "transaction_count = transaction_daily_rollup.transaction_count + EXCLUDED.transaction_count";
+
+    // Lotes concorrentes travam as chaves na mesma ordem, sem deadlock entre si
+    private static final Comparator<TransactionDailyRollup> KEY_ORDER = Comparator
+            .comparing(TransactionDailyRollup::getDate)
+            .thenComparing(TransactionDailyRollup::getType)
+            .thenComparing(TransactionDailyRollup::getCategoryId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(TransactionDailyRollup::getAccountId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(TransactionDailyRollup::getCreditCardId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Cada linha é um delta (total e quantidade podem ser negativos numa reversão)
+    public void upsertAll(List<TransactionDailyRollup> deltas) {
+        if (deltas.isEmpty()) return;
+        List<TransactionDailyRollup> ordered = new ArrayList<>(deltas);
+        ordered.sort(KEY_ORDER);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, ordered, ordered.size(), (ps, r) -> {
+            ps.setObject(1, r.getUserId());
+            ps.setObject(2, r.getDate());
+            ps.setString(3, r.getType().name());
+            ps.setObject(4, r.getCategoryId(), Types.BIGINT);
+            ps.setObject(5, r.getAccountId(), Types.BIGINT);
+            ps.setObject(6, r.getCreditCardId(), Types.BIGINT);
+            ps.setBigDecimal(7, r.getTotal());
+            ps.setLong(8, r.getTransactionCount());
+        });
+    }
+}
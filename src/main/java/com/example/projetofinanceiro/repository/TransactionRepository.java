@@ -2,34 +2,156 @@ package com.example.projetofinanceiro.repository;
 
 import com.example.projetofinanceiro.dto.CategoryTotalDTO;
 import com.example.projetofinanceiro.dto.DailyMetric;
+import com.example.projetofinanceiro.dto.DescriptionStatsDTO;
+import com.example.projetofinanceiro.dto.RollupTotalDTO;
+import com.example.projetofinanceiro.dto.TopCategoryDTO;
+import com.example.projetofinanceiro.dto.TransactionDTO;
 import com.example.projetofinanceiro.model.Account;
 import com.example.projetofinanceiro.model.Category;
 import com.example.projetofinanceiro.model.Transaction;
 import com.example.projetofinanceiro.model.TransactionType;
 import com.example.projetofinanceiro.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    // Projeção das listagens: só as colunas do TransactionDTO, com joins explícitos
+    // em vez de carregar categoria, conta, cartão e usuário como entidades
+    String LISTING_SELECT = "SELECT new com.example.projetofinanceiro.dto.TransactionDTO(" +
+            "t.id, t.description, t.amount, t.date, t.type, a.name, cc.name, c.id, c.name, c.type) " +
+            "FROM Transaction t LEFT JOIN t.category c LEFT JOIN t.account a LEFT JOIN t.creditCard cc ";
+
     List<Transaction> findByUser(User user);
-    
-    boolean existsByExternalId(String externalId);
 
-    @Query("SELECT t FROM Transaction t WHERE t.user = :user " +
-           "AND t.date BETWEEN :startDate AND :endDate " +
+    long countByUser(User user);
+
+    @Query("SELECT t.externalId FROM Transaction t WHERE t.externalId IN :externalIds")
+    Set<String> findExistingExternalIds(Collection<String> externalIds);
+
+    // Primeira página da listagem paginada por cursor: (date DESC, id DESC), sem OFFSET
+    @Query(LISTING_SELECT +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate " +
            "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
-           "ORDER BY t.date DESC")
-    List<Transaction> findFiltered(User user, LocalDate startDate, LocalDate endDate, Long categoryId);
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findPage(User user, LocalDate startDate, LocalDate endDate, Long categoryId, Limit limit);
 
-    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.date >= :startDate ORDER BY t.date DESC")
-    List<Transaction> findRecentTransactionsByUser(User user, LocalDate startDate);
+    // Páginas seguintes: continua logo após (cursorDate, cursorId) usando o índice (user_id, date, id)
+    @Query(LISTING_SELECT +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate " +
+           "AND (t.date, t.id) < (:cursorDate, :cursorId) " +
+           "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findPageAfter(User user, LocalDate startDate, LocalDate endDate, Long categoryId,
+                                       LocalDate cursorDate, Long cursorId, Limit limit);
+
+    // Operações em lote: a posse é verificada na mesma consulta que carrega as transações
+    @Query("SELECT t FROM Transaction t " +
+           "LEFT JOIN FETCH t.category LEFT JOIN FETCH t.account LEFT JOIN FETCH t.creditCard " +
+           "WHERE t.id IN :ids AND t.user = :user")
+    List<Transaction> findAllForBulk(Collection<Long> ids, User user);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Transaction t WHERE t.id IN :ids AND t.user = :user")
+    int bulkDelete(Collection<Long> ids, User user);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Transaction t WHERE t.importId = :importId AND t.user.id = :userId")
+    int deleteByImportId(String importId, UUID userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.category = :category WHERE t.id IN :ids AND t.user = :user")
+    int bulkSetCategory(Collection<Long> ids, User user, Category category);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.account = :account, t.creditCard = NULL WHERE t.id IN :ids AND t.user = :user")
+    int bulkSetAccount(Collection<Long> ids, User user, Account account);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.date = :date WHERE t.id IN :ids AND t.user = :user")
+    int bulkSetDate(Collection<Long> ids, User user, LocalDate date);
+
+    // Variantes com filtro q=: as descrições já vêm resolvidas pelo índice em memória
+    @Query(LISTING_SELECT +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate " +
+           "AND t.description IN :descriptions " +
+           "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findPageByDescriptions(User user, LocalDate startDate, LocalDate endDate, Long categoryId,
+                                                Collection<String> descriptions, Limit limit);
+
+    @Query(LISTING_SELECT +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate " +
+           "AND (t.date, t.id) < (:cursorDate, :cursorId) " +
+           "AND t.description IN :descriptions " +
+           "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findPageAfterByDescriptions(User user, LocalDate startDate, LocalDate endDate, Long categoryId,
+                                                     Collection<String> descriptions, LocalDate cursorDate, Long cursorId,
+                                                     Limit limit);
+
+    // Filtro q= direto no banco, quando o índice em memória não garante a lista completa.
+    // pattern e escapedPattern são as formas sem e com escape HTML, como na /search
+    @Query(LISTING_SELECT +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate " +
+           "AND (LOWER(t.description) LIKE :pattern ESCAPE '\\' OR LOWER(t.description) LIKE :escapedPattern ESCAPE '\\') " +
+           "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findPageByDescriptionLike(User user, LocalDate startDate, LocalDate endDate, Long categoryId,
+                                                   String pattern, String escapedPattern, Limit limit);
+
+    @Query(LISTING_SELECT +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate " +
+           "AND (t.date, t.id) < (:cursorDate, :cursorId) " +
+           "AND (LOWER(t.description) LIKE :pattern ESCAPE '\\' OR LOWER(t.description) LIKE :escapedPattern ESCAPE '\\') " +
+           "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findPageAfterByDescriptionLike(User user, LocalDate startDate, LocalDate endDate, Long categoryId,
+                                                        String pattern, String escapedPattern, LocalDate cursorDate,
+                                                        Long cursorId, Limit limit);
+
+    // Cursor somente-leitura para exportação: deve ser consumido dentro de uma transação
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Transaction t " +
+           "LEFT JOIN FETCH t.category LEFT JOIN FETCH t.account LEFT JOIN FETCH t.creditCard " +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate " +
+           "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
+           "ORDER BY t.date, t.id")
+    Stream<Transaction> streamForExport(User user, LocalDate startDate, LocalDate endDate, Long categoryId);
+
+    @Query(LISTING_SELECT +
+           "WHERE t.user = :user AND t.date >= :startDate " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findRecentByUser(User user, LocalDate startDate, Limit limit);
+
+    // Despesas do período por nome de categoria, somadas no banco com a mesma regra do
+    // top de categorias do dashboard (DashboardQueryRepository): só EXPENSE, com sinal
+    @Query("SELECT new com.example.projetofinanceiro.dto.TopCategoryDTO(COALESCE(c.name, 'Sem Categoria'), SUM(t.amount)) " +
+           "FROM Transaction t LEFT JOIN t.category c " +
+           "WHERE t.user = :user AND t.date BETWEEN :startDate AND :endDate AND t.amount IS NOT NULL " +
+           "AND t.type = com.example.projetofinanceiro.model.TransactionType.EXPENSE " +
+           "GROUP BY c.name " +
+           "ORDER BY SUM(t.amount) DESC")
+    List<TopCategoryDTO> sumExpensesByCategoryName(User user, LocalDate startDate, LocalDate endDate, Limit limit);
 
     @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.user = :user AND t.type = com.example.projetofinanceiro.model.TransactionType.INCOME AND t.date BETWEEN :startDate AND :endDate")
     BigDecimal sumIncomeBetweenByUser(User user, LocalDate startDate, LocalDate endDate);
@@ -51,12 +173,6 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
            "ORDER BY t.date ASC")
     List<DailyMetric> findDailyExpensesByUser(User user, LocalDate startDate);
 
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.account = :account AND t.type = com.example.projetofinanceiro.model.TransactionType.INCOME")
-    BigDecimal sumIncomeByAccount(Account account);
-
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.account = :account AND t.type = com.example.projetofinanceiro.model.TransactionType.EXPENSE")
-    BigDecimal sumExpenseByAccount(Account account);
-
     @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.user = :user AND t.category = :category AND t.type = com.example.projetofinanceiro.model.TransactionType.EXPENSE AND t.date BETWEEN :startDate AND :endDate")
     BigDecimal sumExpenseByCategoryAndDateRange(User user, Category category, LocalDate startDate, LocalDate endDate);
 
@@ -70,4 +186,16 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.date >= :startDate AND t.date <= :endDate")
     List<Transaction> findAllByDateRange(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.example.projetofinanceiro.dto.RollupTotalDTO(t.date, t.type, c.id, a.id, cc.id, SUM(t.amount), COUNT(t)) " +
+           "FROM Transaction t LEFT JOIN t.category c LEFT JOIN t.account a LEFT JOIN t.creditCard cc " +
+           "WHERE t.user.id = :userId AND t.date IS NOT NULL AND t.type IS NOT NULL AND t.amount IS NOT NULL " +
+           "GROUP BY t.date, t.type, c.id, a.id, cc.id")
+    List<RollupTotalDTO> computeRollupTotalsByUser(UUID userId);
+
+    // Base do índice de descrições: uma linha por descrição distinta, das mais usadas primeiro
+    @Query("SELECT new com.example.projetofinanceiro.dto.DescriptionStatsDTO(t.description, COUNT(t), MAX(t.date)) " +
+           "FROM Transaction t WHERE t.user.id = :userId AND t.description IS NOT NULL " +
+           "GROUP BY t.description ORDER BY COUNT(t) DESC")
+    List<DescriptionStatsDTO> findDescriptionStats(UUID userId, Limit limit);
 }
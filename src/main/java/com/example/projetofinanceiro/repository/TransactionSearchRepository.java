@@ -0,0 +1,91 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.dto.TransactionCursor;
+import com.example.projetofinanceiro.dto.TransactionSearchDTO;
+import com.example.projetofinanceiro.dto.TransactionSearchResultDTO;
+import com.example.projetofinanceiro.model.Account;
+import com.example.projetofinanceiro.model.Category;
+import com.example.projetofinanceiro.model.CreditCard;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Busca de transações com filtros dinâmicos. Só entram no WHERE os filtros que
+ * vieram preenchidos, então o plano usa o índice (user_id, date, id) e os das
+ * FKs sem predicados do tipo ":param IS NULL OR ...". Retorna apenas escalares.
+ */
+@Repository
+public class TransactionSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<TransactionSearchResultDTO> search(User user, TransactionSearchDTO filters, List<String> descriptionPatterns,
+                                                   TransactionCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionSearchResultDTO> query = cb.createQuery(TransactionSearchResultDTO.class);
+        Root<Transaction> t = query.from(Transaction.class);
+        Join<Transaction, Category> category = t.join("category", JoinType.LEFT);
+        Join<Transaction, Account> account = t.join("account", JoinType.LEFT);
+        Join<Transaction, CreditCard> creditCard = t.join("creditCard", JoinType.LEFT);
+
+        Path<LocalDate> date = t.get("date");
+        Path<Long> id = t.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(t.get("user"), user));
+        if (filters.startDate() != null) where.add(cb.greaterThanOrEqualTo(date, filters.startDate()));
+        if (filters.endDate() != null) where.add(cb.lessThanOrEqualTo(date, filters.endDate()));
+        if (filters.minAmount() != null) where.add(cb.greaterThanOrEqualTo(t.get("amount"), filters.minAmount()));
+        if (filters.maxAmount() != null) where.add(cb.lessThanOrEqualTo(t.get("amount"), filters.maxAmount()));
+        if (isPresent(filters.types())) where.add(t.get("type").in(filters.types()));
+        // Pelas chaves estrangeiras da própria transação, que têm índice; os joins servem só aos nomes
+        if (isPresent(filters.accountIds())) where.add(t.get("account").get("id").in(filters.accountIds()));
+        if (isPresent(filters.creditCardIds())) where.add(t.get("creditCard").get("id").in(filters.creditCardIds()));
+        if (isPresent(filters.categoryIds())) where.add(t.get("category").get("id").in(filters.categoryIds()));
+        if (!descriptionPatterns.isEmpty()) {
+            Expression<String> description = cb.lower(t.get("description"));
+            where.add(cb.or(descriptionPatterns.stream()
+                    .map(pattern -> cb.like(description, pattern.toLowerCase(Locale.ROOT), '\\'))
+                    .toArray(Predicate[]::new)));
+        }
+        if (after != null) {
+            // Equivalente a (date, id) < (cursorDate, cursorId), que a Criteria API não expressa como tupla
+            where.add(cb.or(
+                    cb.lessThan(date, after.date()),
+                    cb.and(cb.equal(date, after.date()), cb.lessThan(id, after.id()))));
+        }
+
+        query.select(cb.construct(TransactionSearchResultDTO.class,
+                        id, t.get("description"), t.get("amount"), date, t.get("type"),
+                        t.get("category").get("id"), category.get("name"),
+                        t.get("account").get("id"), account.get("name"),
+                        t.get("creditCard").get("id"), creditCard.get("name")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(date), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private boolean isPresent(List<?> values) {
+        return values != null && !values.isEmpty();
+    }
+}
@@ -2,11 +2,16 @@ package com.example.projetofinanceiro.repository;
 
 import com.example.projetofinanceiro.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
     User findByEmail(String email);
+
+    @Query("SELECT u.id FROM users u")
+    List<UUID> findAllIds();
 }
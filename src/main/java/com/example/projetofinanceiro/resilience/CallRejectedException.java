@@ -0,0 +1,15 @@
+package com.example.projetofinanceiro.resilience;
+
+import java.io.IOException;
+
+/**
+ * Chamada recusada no próprio cliente, sem chegar ao provedor: disjuntor aberto ou
+ * espera pelo limite de taxa longa demais. É um IOException para seguir o mesmo
+ * caminho de erro de uma falha de rede.
+ */
+public class CallRejectedException extends IOException {
+
+    public CallRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.projetofinanceiro.resilience;
+
+import java.time.Duration;
+
+/**
+ * Disjuntor por falhas consecutivas. Fechado, deixa as chamadas passarem; depois de
+ * failureThreshold falhas seguidas abre e rejeita tudo por openDuration. Passado esse
+ * tempo fica meio aberto e libera uma única chamada de teste: sucesso fecha o
+ * disjuntor, falha abre de novo.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long openings;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    // false quando a chamada deve falhar sem ser feita
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case OPEN -> {
+                if (System.nanoTime() - openedAt < openNanos) return false;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) return false;
+                probeInFlight = true;
+                return true;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    // Devolve a vez de uma chamada liberada que acabou não sendo feita
+    public synchronized void release() {
+        probeInFlight = false;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    // true quando esta falha abriu o disjuntor
+    public synchronized boolean onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            openings++;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long openings() {
+        return openings;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.projetofinanceiro.resilience;
+
+/**
+ * Limite de taxa no cliente (GCRA, equivalente a um balde de fichas): permitsPerSecond
+ * chamadas por segundo em média, com rajadas de até burst chamadas. reserve não dorme;
+ * devolve quanto a chamada deve esperar para respeitar a cota.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private long theoreticalArrival;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = (Math.max(1, burst) - 1) * intervalNanos;
+        this.theoreticalArrival = System.nanoTime();
+    }
+
+    /**
+     * Reserva uma vaga e devolve os nanossegundos de espera até ela, ou -1 (sem reservar
+     * nada) quando a espera passaria de maxWaitNanos.
+     */
+    public synchronized long reserve(long maxWaitNanos) {
+        long now = System.nanoTime();
+        long arrival = Math.max(theoreticalArrival, now);
+        long wait = Math.max(0, arrival - burstToleranceNanos - now);
+        if (wait > maxWaitNanos) return -1;
+        theoreticalArrival = arrival + intervalNanos;
+        return wait;
+    }
+}
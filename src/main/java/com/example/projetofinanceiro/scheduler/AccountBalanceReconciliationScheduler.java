@@ -0,0 +1,47 @@
+package com.example.projetofinanceiro.scheduler;
+
+import com.example.projetofinanceiro.dto.BalanceDriftDTO;
+import com.example.projetofinanceiro.repository.UserRepository;
+import com.example.projetofinanceiro.service.AccountBalanceService;
+import com.example.projetofinanceiro.service.DashboardDeltaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountBalanceReconciliationScheduler {
+
+    private final UserRepository userRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final DashboardDeltaService dashboardDeltaService;
+
+    // Na subida também: contas criadas antes da coluna current_balance começam com 0
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 40 3 * * *")
+    public void reconcileBalances() {
+        int users = 0;
+        int driftedAccounts = 0;
+
+        for (UUID userId : userRepository.findAllIds()) {
+            try {
+                BalanceDriftDTO drift = accountBalanceService.reconcile(userId);
+                users++;
+                driftedAccounts += drift.driftedAccounts();
+                if (drift.repaired()) {
+                    dashboardDeltaService.resync(userId, "balances-reconciled");
+                }
+            } catch (Exception e) {
+                log.error("Erro ao reconciliar saldos do usuário {}: ", userId, e);
+            }
+        }
+
+        log.info("Reconciliação de saldos concluída. {} usuários verificados, {} contas corrigidas.", users, driftedAccounts);
+    }
+}
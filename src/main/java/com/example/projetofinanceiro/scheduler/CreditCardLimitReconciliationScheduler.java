@@ -0,0 +1,47 @@
+package com.example.projetofinanceiro.scheduler;
+
+import com.example.projetofinanceiro.dto.CreditCardLimitDriftDTO;
+import com.example.projetofinanceiro.repository.UserRepository;
+import com.example.projetofinanceiro.service.CreditCardLimitService;
+import com.example.projetofinanceiro.service.DashboardDeltaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CreditCardLimitReconciliationScheduler {
+
+    private final UserRepository userRepository;
+    private final CreditCardLimitService creditCardLimitService;
+    private final DashboardDeltaService dashboardDeltaService;
+
+    // Na subida também: corrige o que o antigo ler-somar-gravar do limite deixou divergente
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 50 3 * * *")
+    public void reconcileLimits() {
+        int users = 0;
+        int driftedCards = 0;
+
+        for (UUID userId : userRepository.findAllIds()) {
+            try {
+                CreditCardLimitDriftDTO drift = creditCardLimitService.reconcile(userId);
+                users++;
+                driftedCards += drift.driftedCards();
+                if (drift.repaired()) {
+                    dashboardDeltaService.resync(userId, "credit-card-limits-reconciled");
+                }
+            } catch (Exception e) {
+                log.error("Erro ao reconciliar limites de cartão do usuário {}: ", userId, e);
+            }
+        }
+
+        log.info("Reconciliação de limites de cartão concluída. {} usuários verificados, {} cartões corrigidos.", users, driftedCards);
+    }
+}
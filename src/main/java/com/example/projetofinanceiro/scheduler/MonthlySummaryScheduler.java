@@ -0,0 +1,81 @@
+package com.example.projetofinanceiro.scheduler;
+
+import com.example.projetofinanceiro.model.MonthlySummary;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.MonthlySummaryRepository;
+import com.example.projetofinanceiro.repository.UserRepository;
+import com.example.projetofinanceiro.service.MonthlySummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonthlySummaryScheduler {
+
+    private static final int REBUILD_BATCH = 100;
+
+    private final UserRepository userRepository;
+    private final MonthlySummaryRepository summaryRepository;
+    private final MonthlySummaryService summaryService;
+
+    // Fechamento do mês que acabou de terminar, para todos os usuários
+    @Scheduled(cron = "0 10 0 1 * *")
+    public void closePreviousMonth() {
+        YearMonth month = YearMonth.now().minusMonths(1);
+        int closed = 0;
+        for (UUID userId : userRepository.findAllIds()) {
+            if (close(userId, month)) closed++;
+        }
+        log.info("Fechamento de {} concluído para {} usuários.", month, closed);
+    }
+
+    /**
+     * Reconstrói os meses reabertos por escritas retroativas, os mais antigos primeiro.
+     * Resumos de usuários que não existem mais são apagados, e um mês cuja reconstrução
+     * falha é adiado com backoff, para não prender o lote nas mesmas linhas para sempre.
+     */
+    @Scheduled(fixedDelayString = "${reports.summary.rebuild-delay:PT1M}")
+    public void rebuildReopenedMonths() {
+        List<MonthlySummary> stale = summaryRepository.findStaleReadyToRebuild(LocalDateTime.now(), PageRequest.of(0, REBUILD_BATCH));
+        for (MonthlySummary summary : stale) {
+            rebuild(summary);
+        }
+    }
+
+    private void rebuild(MonthlySummary summary) {
+        UUID userId = summary.getUserId();
+        YearMonth month = YearMonth.of(summary.getSummaryYear(), summary.getSummaryMonth());
+        try {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) {
+                int removed = summaryService.discardOrphaned(userId);
+                log.warn("Usuário {} não existe mais; {} resumos mensais removidos.", userId, removed);
+                return;
+            }
+            summaryService.ensureClosed(user, month);
+        } catch (Exception e) {
+            LocalDateTime retryAt = summaryService.postponeRebuild(summary);
+            log.error("Erro ao reconstruir o mês {} do usuário {}; nova tentativa depois de {}: ", month, userId, retryAt, e);
+        }
+    }
+
+    private boolean close(UUID userId, YearMonth month) {
+        try {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) return false;
+            return summaryService.ensureClosed(user, month);
+        } catch (Exception e) {
+            log.error("Erro ao fechar o mês {} do usuário {}: ", month, userId, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.projetofinanceiro.scheduler;
+
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.UserRepository;
+import com.example.projetofinanceiro.service.NetWorthSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NetWorthSnapshotScheduler {
+
+    private final UserRepository userRepository;
+    private final NetWorthSnapshotService snapshotService;
+
+    // Foto de fechamento do dia para todos os usuários
+    @Scheduled(cron = "0 55 23 * * *")
+    public void captureDailySnapshots() {
+        int captured = 0;
+        for (UUID userId : userRepository.findAllIds()) {
+            snapshotService.consumeDirty(userId);
+            if (capture(userId)) captured++;
+        }
+        log.info("Fotos de patrimônio do dia gravadas para {} usuários.", captured);
+    }
+
+    // Atualiza a foto de hoje de quem teve escritas relevantes desde a última passada
+    @Scheduled(fixedDelayString = "${networth.snapshot.flush-delay:PT1M}")
+    public void captureDirtySnapshots() {
+        for (UUID userId : snapshotService.dirtyUserIds()) {
+            if (snapshotService.consumeDirty(userId)) {
+                capture(userId);
+            }
+        }
+    }
+
+    private boolean capture(UUID userId) {
+        try {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) return false;
+            snapshotService.capture(user);
+            return true;
+        } catch (Exception e) {
+            log.error("Erro ao gravar foto de patrimônio do usuário {}: ", userId, e);
+            return false;
+        }
+    }
+}
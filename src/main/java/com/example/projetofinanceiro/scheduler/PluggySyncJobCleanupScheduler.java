@@ -0,0 +1,41 @@
+package com.example.projetofinanceiro.scheduler;
+
+import com.example.projetofinanceiro.service.PluggySyncJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PluggySyncJobCleanupScheduler {
+
+    private final PluggySyncJobService pluggySyncJobService;
+
+    // Mantém vivos os jobs desta instância e falha os de instâncias que pararam de responder
+    @Scheduled(fixedDelayString = "${pluggy.sync.jobs.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        try {
+            pluggySyncJobService.heartbeat();
+            int stale = pluggySyncJobService.failStale();
+            if (stale > 0) {
+                log.warn("{} sincronizações da Pluggy sem heartbeat foram marcadas como falhas.", stale);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao verificar sincronizações da Pluggy em andamento: ", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pluggy.sync.jobs.cleanup-delay:PT1H}")
+    public void purgeFinishedJobs() {
+        try {
+            int purged = pluggySyncJobService.purgeFinished();
+            if (purged > 0) {
+                log.info("{} sincronizações da Pluggy antigas removidas.", purged);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao remover sincronizações da Pluggy antigas: ", e);
+        }
+    }
+}
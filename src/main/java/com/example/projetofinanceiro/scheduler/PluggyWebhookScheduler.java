@@ -0,0 +1,36 @@
+package com.example.projetofinanceiro.scheduler;
+
+import com.example.projetofinanceiro.service.PluggyWebhookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PluggyWebhookScheduler {
+
+    private final PluggyWebhookService pluggyWebhookService;
+
+    @Scheduled(fixedDelayString = "${pluggy.webhooks.process-delay:PT5S}")
+    public void processPendingWebhooks() {
+        try {
+            pluggyWebhookService.processPending();
+        } catch (Exception e) {
+            log.error("Erro ao processar webhooks da Pluggy: ", e);
+        }
+    }
+
+    @Scheduled(cron = "0 20 4 * * *")
+    public void purgeClosedWebhooks() {
+        try {
+            int purged = pluggyWebhookService.purgeClosed();
+            if (purged > 0) {
+                log.info("{} webhooks da Pluggy antigos removidos.", purged);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao remover webhooks da Pluggy antigos: ", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.projetofinanceiro.scheduler;
+
+import com.example.projetofinanceiro.service.ReportJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReportJobCleanupScheduler {
+
+    private final ReportJobService reportJobService;
+
+    // Mantém vivos os jobs desta instância e falha os de instâncias que pararam de responder
+    @Scheduled(fixedDelayString = "${reports.jobs.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        try {
+            reportJobService.heartbeat();
+            int stale = reportJobService.failStale();
+            if (stale > 0) {
+                log.warn("{} relatórios sem heartbeat foram marcados como falhos.", stale);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao verificar relatórios em andamento: ", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.cleanup-delay:PT15M}")
+    public void purgeExpiredJobs() {
+        try {
+            int purged = reportJobService.purgeExpired();
+            if (purged > 0) {
+                log.info("{} relatórios expirados removidos.", purged);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao remover relatórios expirados: ", e);
+        }
+    }
+}
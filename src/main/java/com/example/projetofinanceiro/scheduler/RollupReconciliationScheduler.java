@@ -0,0 +1,48 @@
+package com.example.projetofinanceiro.scheduler;
+
+import com.example.projetofinanceiro.dto.RollupDriftDTO;
+import com.example.projetofinanceiro.repository.UserRepository;
+import com.example.projetofinanceiro.service.DashboardDeltaService;
+import com.example.projetofinanceiro.service.TransactionRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RollupReconciliationScheduler {
+
+    private final UserRepository userRepository;
+    private final TransactionRollupService rollupService;
+    private final DashboardDeltaService dashboardDeltaService;
+
+    // Na subida também: usuários com transações anteriores à tabela de rollup ainda não têm linhas
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 3 * * *")
+    public void reconcileRollups() {
+        int users = 0;
+        int driftedUsers = 0;
+
+        for (UUID userId : userRepository.findAllIds()) {
+            try {
+                RollupDriftDTO drift = rollupService.reconcile(userId);
+                users++;
+                if (drift.driftedKeys() > 0) {
+                    driftedUsers++;
+                    log.warn("Rollup do usuário {} reconstruído: {} de {} chaves divergentes.", userId, drift.driftedKeys(), drift.checkedKeys());
+                    dashboardDeltaService.resync(userId, "rollup-reconciled");
+                }
+            } catch (Exception e) {
+                log.error("Erro ao reconciliar rollup do usuário {}: ", userId, e);
+            }
+        }
+
+        log.info("Reconciliação de rollups concluída. {} usuários verificados, {} com divergência.", users, driftedUsers);
+    }
+}
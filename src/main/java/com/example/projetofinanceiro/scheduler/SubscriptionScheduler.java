@@ -2,6 +2,7 @@ package com.example.projetofinanceiro.scheduler;
 
 import com.example.projetofinanceiro.model.Subscription;
 import com.example.projetofinanceiro.repository.SubscriptionRepository;
+import com.example.projetofinanceiro.service.DashboardDeltaService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -14,6 +15,7 @@ import java.util.List;
 public class SubscriptionScheduler {
 
     private final SubscriptionRepository subscriptionRepository;
+    private final DashboardDeltaService dashboardDeltaService;
 
     @Scheduled(cron = "0 0 9 * * *")
     public void checkUpcomingSubscriptions() {
@@ -22,6 +24,7 @@ public class SubscriptionScheduler {
 
         for (Subscription sub : expiringSubscriptions) {
             System.out.println("Alerta: A assinatura " + sub.getName() + " do usuário " + sub.getUser().getId() + " vence dia " + targetDate);
+            dashboardDeltaService.alert(sub.getUser().getId(), "A assinatura " + sub.getName() + " vence dia " + targetDate);
         }
     }
 }
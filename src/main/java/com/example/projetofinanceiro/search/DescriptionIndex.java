@@ -0,0 +1,321 @@
+package com.example.projetofinanceiro.search;
+
+import com.example.projetofinanceiro.dto.DescriptionSuggestionDTO;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Índice das descrições de transação de um usuário: cada descrição distinta
+ * (normalizada) é uma entrada com frequência e data do último uso, e cada token
+ * aponta para as entradas que o contêm através de uma trie de prefixos.
+ *
+ * Todos os tokens da consulta são tratados como prefixo e combinados com AND.
+ * Não é thread-safe: quem usa sincroniza no próprio índice.
+ */
+public class DescriptionIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private final TrieNode root = new TrieNode();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Integer> idsByKey = new HashMap<>();
+    private final List<Integer> freeIds = new ArrayList<>();
+    private final int maxEntries;
+    private int liveEntries;
+    // Alguma descrição ficou de fora por causa do limite: as buscas podem estar incompletas
+    private boolean truncated;
+    private volatile long lastAccess = System.currentTimeMillis();
+
+    public DescriptionIndex(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Registra count usos de uma descrição. stored é o texto exatamente como está
+     * no banco; display é o texto legível mostrado nas sugestões. Com o índice
+     * cheio, descrições novas são ignoradas até alguma entrada sair.
+     */
+    public void add(String stored, String display, LocalDate date, int count) {
+        String key = normalize(display);
+        if (key.isEmpty()) return;
+
+        Integer id = idsByKey.get(key);
+        Entry entry;
+        if (id == null) {
+            if (liveEntries >= maxEntries) {
+                truncated = true;
+                return;
+            }
+            id = freeIds.isEmpty() ? entries.size() : freeIds.remove(freeIds.size() - 1);
+            entry = new Entry(display, tokens(key));
+            if (id == entries.size()) entries.add(entry); else entries.set(id, entry);
+            idsByKey.put(key, id);
+            liveEntries++;
+            for (String token : entry.tokens) {
+                if (root.insert(token, 0).addPosting(id)) root.adjustSubtree(token, 1);
+            }
+        } else {
+            entry = entries.get(id);
+            entry.display = display;
+        }
+
+        entry.count += count;
+        entry.storedForms.merge(stored, count, Integer::sum);
+        if (date != null && (entry.lastUsed == null || date.isAfter(entry.lastUsed))) {
+            entry.lastUsed = date;
+        }
+    }
+
+    // lastUsed não recua na remoção: continua valendo a data mais recente vista
+    public void remove(String stored, String display) {
+        String key = normalize(display);
+        Integer id = idsByKey.get(key);
+        if (id == null) return;
+
+        Entry entry = entries.get(id);
+        entry.count--;
+        entry.storedForms.computeIfPresent(stored, (form, n) -> n > 1 ? n - 1 : null);
+        if (entry.count > 0) return;
+
+        for (String token : entry.tokens) {
+            TrieNode node = root.find(token, 0);
+            if (node != null && node.removePosting(id)) root.adjustSubtree(token, -1);
+        }
+        idsByKey.remove(key);
+        entries.set(id, null);
+        freeIds.add(id);
+        liveEntries--;
+    }
+
+    // Top-k por frequência ponderada pela recência (um uso de 30 dias atrás vale metade)
+    public List<DescriptionSuggestionDTO> suggest(String query, int limit, LocalDate today) {
+        touch();
+        BitSet matches = match(query);
+        PriorityQueue<Entry> top = new PriorityQueue<>(Comparator.comparingDouble((Entry e) -> e.score(today)));
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            top.add(entries.get(id));
+            if (top.size() > limit) top.poll();
+        }
+
+        // A fila sai do menor para o maior score
+        DescriptionSuggestionDTO[] result = new DescriptionSuggestionDTO[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            Entry entry = top.poll();
+            result[i] = new DescriptionSuggestionDTO(entry.display, entry.count, entry.lastUsed);
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Formas gravadas no banco de todas as descrições que casam com a consulta, das
+     * mais usadas para as menos, limitadas a limit. Serve de filtro IN na listagem.
+     */
+    public List<String> storedForms(String query, int limit) {
+        touch();
+        BitSet matches = match(query);
+        List<Entry> matched = new ArrayList<>(matches.cardinality());
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            matched.add(entries.get(id));
+        }
+        matched.sort(Comparator.comparingInt((Entry e) -> e.count).reversed());
+
+        List<String> forms = new ArrayList<>();
+        for (Entry entry : matched) {
+            for (String form : entry.storedForms.keySet()) {
+                if (forms.size() >= limit) return forms;
+                forms.add(form);
+            }
+        }
+        return forms;
+    }
+
+    public int size() {
+        return liveEntries;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public long lastAccess() {
+        return lastAccess;
+    }
+
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    private BitSet match(String query) {
+        String[] terms = tokens(normalize(query));
+        BitSet result;
+        if (terms.length == 0) {
+            result = new BitSet(entries.size());
+            for (int id = 0; id < entries.size(); id++) {
+                if (entries.get(id) != null) result.set(id);
+            }
+            return result;
+        }
+
+        // Parte do termo mais seletivo (menor subárvore) e confere os demais nos
+        // tokens de cada candidata, em vez de varrer outras subárvores da trie
+        result = new BitSet(entries.size());
+        TrieNode best = null;
+        int bestTerm = -1;
+        for (int t = 0; t < terms.length; t++) {
+            TrieNode node = root.find(terms[t], 0);
+            if (node == null) return result;
+            if (best == null || node.subtreeSize < best.subtreeSize) {
+                best = node;
+                bestTerm = t;
+            }
+        }
+        best.collect(result);
+
+        for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+            String[] entryTokens = entries.get(id).tokens;
+            for (int t = 0; t < terms.length; t++) {
+                if (t != bestTerm && !hasPrefix(entryTokens, terms[t])) {
+                    result.clear(id);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasPrefix(String[] tokens, String prefix) {
+        for (String token : tokens) {
+            if (token.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    // Minúsculas, sem acentos e com separadores colapsados: "Padaria/Almoço" -> "padaria almoco"
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return SEPARATORS.matcher(MARKS.matcher(decomposed).replaceAll("")).replaceAll(" ").trim();
+    }
+
+    private static String[] tokens(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static final class Entry {
+        final String[] tokens;
+        String display;
+        int count;
+        LocalDate lastUsed;
+        // Forma gravada -> quantidade (o texto pode estar com ou sem escape HTML no banco)
+        final Map<String, Integer> storedForms = new LinkedHashMap<>(2);
+
+        Entry(String display, String[] tokens) {
+            this.display = display;
+            this.tokens = tokens;
+        }
+
+        double score(LocalDate today) {
+            long age = lastUsed != null ? Math.max(0, ChronoUnit.DAYS.between(lastUsed, today)) : 365;
+            return count / (1.0 + age / 30.0);
+        }
+    }
+
+    /**
+     * Nó da trie com filhos em arrays ordenados (busca binária) e a lista de
+     * entradas cujo token termina aqui. Bem mais compacto que um HashMap por nó.
+     */
+    private static final class TrieNode {
+        private static final char[] NO_KEYS = new char[0];
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+        private static final int[] NO_POSTINGS = new int[0];
+
+        char[] keys = NO_KEYS;
+        TrieNode[] children = NO_CHILDREN;
+        int childCount;
+        int[] postings = NO_POSTINGS;
+        int postingCount;
+        // Postings deste nó e de todos os descendentes
+        int subtreeSize;
+
+        TrieNode insert(String token, int depth) {
+            if (depth == token.length()) return this;
+            char c = token.charAt(depth);
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index < 0) {
+                index = -index - 1;
+                if (childCount == keys.length) {
+                    int capacity = Math.max(2, childCount * 2);
+                    keys = Arrays.copyOf(keys, capacity);
+                    children = Arrays.copyOf(children, capacity);
+                }
+                System.arraycopy(keys, index, keys, index + 1, childCount - index);
+                System.arraycopy(children, index, children, index + 1, childCount - index);
+                keys[index] = c;
+                children[index] = new TrieNode();
+                childCount++;
+            }
+            return children[index].insert(token, depth + 1);
+        }
+
+        TrieNode find(String prefix, int depth) {
+            if (depth == prefix.length()) return this;
+            int index = Arrays.binarySearch(keys, 0, childCount, prefix.charAt(depth));
+            return index < 0 ? null : children[index].find(prefix, depth + 1);
+        }
+
+        boolean addPosting(int id) {
+            for (int i = 0; i < postingCount; i++) {
+                if (postings[i] == id) return false;
+            }
+            if (postingCount == postings.length) {
+                postings = Arrays.copyOf(postings, Math.max(2, postingCount * 2));
+            }
+            postings[postingCount++] = id;
+            return true;
+        }
+
+        boolean removePosting(int id) {
+            for (int i = 0; i < postingCount; i++) {
+                if (postings[i] == id) {
+                    postings[i] = postings[--postingCount];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void adjustSubtree(String token, int delta) {
+            TrieNode node = this;
+            node.subtreeSize += delta;
+            for (int depth = 0; depth < token.length() && node != null; depth++) {
+                int index = Arrays.binarySearch(node.keys, 0, node.childCount, token.charAt(depth));
+                node = index < 0 ? null : node.children[index];
+                if (node != null) node.subtreeSize += delta;
+            }
+        }
+
+        // Todas as entradas de tokens que começam com o prefixo deste nó
+        void collect(BitSet into) {
+            for (int i = 0; i < postingCount; i++) {
+                into.set(postings[i]);
+            }
+            for (int i = 0; i < childCount; i++) {
+                children[i].collect(into);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.AccountBalanceDTO;
+import com.example.projetofinanceiro.dto.BalanceDriftDTO;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mantém Account.currentBalance em sincronia com as transações da conta.
+ *
+ * Assim como o rollup, record/revert devem rodar na mesma transação de banco que
+ * grava a transação. A atualização é um UPDATE com soma relativa, então duas
+ * escritas simultâneas na mesma conta não perdem valor.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountBalanceService {
+
+    private final AccountRepository accountRepository;
+
+    @Transactional
+    public void record(Transaction transaction) {
+        BigDecimal delta = delta(transaction);
+        if (delta.signum() != 0) {
+            accountRepository.adjustBalance(transaction.getAccount().getId(), delta);
+        }
+    }
+
+    @Transactional
+    public void revert(Transaction transaction) {
+        BigDecimal delta = delta(transaction);
+        if (delta.signum() != 0) {
+            accountRepository.adjustBalance(transaction.getAccount().getId(), delta.negate());
+        }
+    }
+
+    // Em lote: soma os deltas por conta e faz um UPDATE por conta
+    @Transactional
+    public void recordAll(Collection<Transaction> transactions) {
+        deltasByAccount(transactions).forEach(accountRepository::adjustBalance);
+    }
+
+    @Transactional
+    public void revertAll(Collection<Transaction> transactions) {
+        deltasByAccount(transactions).forEach((accountId, delta) -> accountRepository.adjustBalance(accountId, delta.negate()));
+    }
+
+    /**
+     * Recalcula todos os saldos do usuário em uma única consulta agrupada e corrige
+     * as contas divergentes. A correção aplica a diferença (e não o valor absoluto)
+     * para não apagar escritas que aconteçam entre a leitura e o ajuste.
+     */
+    @Transactional
+    public BalanceDriftDTO reconcile(UUID userId) {
+        List<AccountBalanceDTO> balances = accountRepository.computeBalancesByUser(userId);
+
+        int drifted = 0;
+        for (AccountBalanceDTO balance : balances) {
+            BigDecimal stored = balance.storedBalance() != null ? balance.storedBalance() : BigDecimal.ZERO;
+            BigDecimal difference = balance.computedBalance().subtract(stored);
+            if (difference.signum() != 0) {
+                drifted++;
+                log.warn("Saldo da conta {} divergente: esperado {}, encontrado {}", balance.accountId(), balance.computedBalance(), stored);
+                accountRepository.adjustBalance(balance.accountId(), difference);
+            }
+        }
+        return new BalanceDriftDTO(userId, balances.size(), drifted, drifted > 0);
+    }
+
+    private Map<Long, BigDecimal> deltasByAccount(Collection<Transaction> transactions) {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            BigDecimal delta = delta(transaction);
+            if (delta.signum() != 0) {
+                deltas.merge(transaction.getAccount().getId(), delta, BigDecimal::add);
+            }
+        }
+        deltas.values().removeIf(delta -> delta.signum() == 0);
+        return deltas;
+    }
+
+    private BigDecimal delta(Transaction transaction) {
+        if (transaction.getAccount() == null || transaction.getAmount() == null) return BigDecimal.ZERO;
+        if (transaction.getType() == TransactionType.INCOME) return transaction.getAmount();
+        if (transaction.getType() == TransactionType.EXPENSE) return transaction.getAmount().negate();
+        return BigDecimal.ZERO;
+    }
+}
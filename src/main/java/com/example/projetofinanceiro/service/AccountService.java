@@ -3,7 +3,7 @@ package com.example.projetofinanceiro.service;
 import com.example.projetofinanceiro.model.Account;
 import com.example.projetofinanceiro.model.User;
 import com.example.projetofinanceiro.repository.AccountRepository;
-import com.example.projetofinanceiro.repository.TransactionRepository;
+import com.example.projetofinanceiro.repository.TransactionDailyRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -18,25 +18,13 @@ import java.util.List;
 public class AccountService {
 
     private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final MonthlySummaryService monthlySummaryService;
+    private final DescriptionIndexService descriptionIndexService;
 
     public List<Account> getAccountsByUser(User user) {
-        List<Account> accounts = accountRepository.findByUser(user);
-        
-        // Calculate current balance for each account
-        for (Account account : accounts) {
-            BigDecimal income = transactionRepository.sumIncomeByAccount(account);
-            BigDecimal expense = transactionRepository.sumExpenseByAccount(account);
-            
-            if (income == null) income = BigDecimal.ZERO;
-            if (expense == null) expense = BigDecimal.ZERO;
-            
-            BigDecimal initial = account.getInitialBalance() != null ? account.getInitialBalance() : BigDecimal.ZERO;
-            
-            account.setCurrentBalance(initial.add(income).subtract(expense));
-        }
-        
-        return accounts;
+        // currentBalance é mantido a cada escrita de transação, basta ler
+        return accountRepository.findByUser(user);
     }
 
     public Account createAccount(Account account, User user) {
@@ -44,6 +32,8 @@ public class AccountService {
         if (account.getInitialBalance() == null) {
             account.setInitialBalance(BigDecimal.ZERO);
         }
+        // Conta nova ainda não tem transações: o saldo atual é o inicial
+        account.setCurrentBalance(account.getInitialBalance());
         return accountRepository.save(account);
     }
 
@@ -56,6 +46,10 @@ public class AccountService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
         }
 
+        // As transações da conta são removidas em cascata, então o rollup delas também sai
+        rollupRepository.deleteByAccountId(account.getId());
+        monthlySummaryService.reopenAll(user.getId());
+        descriptionIndexService.invalidate(user.getId());
         accountRepository.delete(account);
     }
 }
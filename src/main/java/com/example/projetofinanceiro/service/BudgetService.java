@@ -17,6 +17,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,6 +28,7 @@ public class BudgetService {
     private final BudgetRepository budgetRepository;
     private final TransactionRepository transactionRepository;
     private final CategoryRepository categoryRepository;
+    private final MonthlySummaryService monthlySummaryService;
 
     public List<BudgetProgressDTO> getBudgetsWithProgress(int month, int year) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -77,6 +79,9 @@ public class BudgetService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
         }
 
+        // Orçamento de mês já fechado muda o resultado gravado no resumo
+        monthlySummaryService.reopen(user.getId(), YearMonth.of(year, month));
+
         return budgetRepository.findByUserAndCategoryAndMonthAndYear(user, category, month, year)
                 .map(existingBudget -> {
                     existingBudget.setAmount(amount);
@@ -103,5 +108,6 @@ public class BudgetService {
         }
         
         budgetRepository.delete(budget);
+        monthlySummaryService.reopen(user.getId(), YearMonth.of(budget.getYear(), budget.getMonth()));
     }
 }
@@ -0,0 +1,99 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.CreditCardLimitDTO;
+import com.example.projetofinanceiro.dto.CreditCardLimitDriftDTO;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.repository.CreditCardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mantém CreditCard.limitUsed em sincronia com as despesas lançadas no cartão.
+ *
+ * Mesmo contrato do AccountBalanceService: record/revert rodam na transação que
+ * grava a transação e aplicam um UPDATE com soma relativa, então uma sincronização
+ * da Pluggy e um lançamento manual no mesmo cartão não perdem valor.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CreditCardLimitService {
+
+    private final CreditCardRepository creditCardRepository;
+
+    @Transactional
+    public void record(Transaction transaction) {
+        BigDecimal used = used(transaction);
+        if (used.signum() != 0) {
+            creditCardRepository.adjustLimitUsed(transaction.getCreditCard().getId(), used);
+        }
+    }
+
+    @Transactional
+    public void revert(Transaction transaction) {
+        BigDecimal used = used(transaction);
+        if (used.signum() != 0) {
+            creditCardRepository.adjustLimitUsed(transaction.getCreditCard().getId(), used.negate());
+        }
+    }
+
+    // Em lote: soma as despesas por cartão e faz um UPDATE por cartão
+    @Transactional
+    public void recordAll(Collection<Transaction> transactions) {
+        usageByCard(transactions).forEach(creditCardRepository::adjustLimitUsed);
+    }
+
+    @Transactional
+    public void revertAll(Collection<Transaction> transactions) {
+        usageByCard(transactions).forEach((cardId, used) -> creditCardRepository.adjustLimitUsed(cardId, used.negate()));
+    }
+
+    /**
+     * Recalcula o limite usado de todos os cartões do usuário em uma única consulta
+     * agrupada e corrige os divergentes aplicando a diferença, para não apagar compras
+     * que aconteçam entre a leitura e o ajuste.
+     */
+    @Transactional
+    public CreditCardLimitDriftDTO reconcile(UUID userId) {
+        List<CreditCardLimitDTO> limits = creditCardRepository.computeLimitUsedByUser(userId);
+
+        int drifted = 0;
+        for (CreditCardLimitDTO limit : limits) {
+            BigDecimal stored = limit.storedLimitUsed() != null ? limit.storedLimitUsed() : BigDecimal.ZERO;
+            BigDecimal difference = limit.computedLimitUsed().subtract(stored);
+            if (difference.signum() != 0 || limit.storedLimitUsed() == null) {
+                drifted++;
+                log.warn("Limite usado do cartão {} divergente: esperado {}, encontrado {}", limit.creditCardId(), limit.computedLimitUsed(), limit.storedLimitUsed());
+                creditCardRepository.adjustLimitUsed(limit.creditCardId(), difference);
+            }
+        }
+        return new CreditCardLimitDriftDTO(userId, limits.size(), drifted, drifted > 0);
+    }
+
+    private Map<Long, BigDecimal> usageByCard(Collection<Transaction> transactions) {
+        Map<Long, BigDecimal> usage = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            BigDecimal used = used(transaction);
+            if (used.signum() != 0) {
+                usage.merge(transaction.getCreditCard().getId(), used, BigDecimal::add);
+            }
+        }
+        usage.values().removeIf(used -> used.signum() == 0);
+        return usage;
+    }
+
+    private BigDecimal used(Transaction transaction) {
+        if (transaction.getCreditCard() == null || transaction.getAmount() == null) return BigDecimal.ZERO;
+        return transaction.getType() == TransactionType.EXPENSE ? transaction.getAmount() : BigDecimal.ZERO;
+    }
+}
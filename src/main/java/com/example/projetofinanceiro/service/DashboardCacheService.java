@@ -0,0 +1,103 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.CacheStatsDTO;
+import com.example.projetofinanceiro.dto.DashboardV2DTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache LRU do dashboard por usuário, limitado por tamanho e por TTL.
+ *
+ * Cada entrada guarda o ETag com que foi calculada; se o ETag atual do usuário
+ * mudou (nova escrita ou virada do dia), a entrada é descartada.
+ */
+@Service
+public class DashboardCacheService {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<UUID, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sizeEvictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    public DashboardCacheService(
+            @Value("${dashboard.cache.max-size:10000}") int maxSize,
+            @Value("${dashboard.cache.ttl:PT10M}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > DashboardCacheService.this.maxSize) {
+                    sizeEvictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public DashboardV2DTO get(UUID userId, String etag, Supplier<DashboardV2DTO> loader) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            if (entry != null) {
+                if (!entry.etag().equals(etag)) {
+                    entries.remove(userId);
+                    invalidations.incrementAndGet();
+                    entry = null;
+                } else if (System.currentTimeMillis() - entry.createdAt() > ttlMillis) {
+                    entries.remove(userId);
+                    expirations.incrementAndGet();
+                    entry = null;
+                }
+            }
+        }
+
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.value();
+        }
+
+        misses.incrementAndGet();
+        DashboardV2DTO value = loader.get();
+        // Resultado parcial (seção degradada) nunca é cacheado
+        if (!value.isPartial()) {
+            put(userId, etag, value);
+        }
+        return value;
+    }
+
+    public void put(UUID userId, String etag, DashboardV2DTO value) {
+        synchronized (entries) {
+            entries.put(userId, new Entry(etag, value, System.currentTimeMillis()));
+        }
+    }
+
+    public void recordNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    public CacheStatsDTO stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStatsDTO(size, maxSize, hits.get(), misses.get(), sizeEvictions.get(),
+                expirations.get(), invalidations.get(), notModified.get());
+    }
+
+    private record Entry(String etag, DashboardV2DTO value, long createdAt) {}
+}
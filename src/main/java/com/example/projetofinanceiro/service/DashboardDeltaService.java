@@ -0,0 +1,247 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.CategoryTotalDTO;
+import com.example.projetofinanceiro.dto.StreamEventDTO;
+import com.example.projetofinanceiro.dto.TypeTotalDTO;
+import com.example.projetofinanceiro.model.Account;
+import com.example.projetofinanceiro.model.Notification;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.repository.AccountRepository;
+import com.example.projetofinanceiro.repository.TransactionDailyRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Monta os eventos de delta do /api/stream a partir das escritas de transação.
+ *
+ * touch() anota mês, categoria e conta de cada transação tocada (antes e depois
+ * da alteração). Dentro de uma transação de banco, tudo é acumulado e os eventos
+ * são calculados uma única vez após o commit, fora da thread da requisição.
+ * Se o usuário não tem stream aberto, nada é calculado.
+ */
+@Slf4j
+@Service
+public class DashboardDeltaService {
+
+    private static final String SEM_CATEGORIA = "Sem Categoria";
+
+    private final UserEventStreamService streamService;
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final AccountRepository accountRepository;
+    private final ExecutorService streamExecutor;
+
+    // Chave do recurso da transação corrente (deltas pendentes por usuário)
+    private final Object pendingKey = new Object();
+
+    public DashboardDeltaService(UserEventStreamService streamService,
+                                 TransactionDailyRollupRepository rollupRepository,
+                                 AccountRepository accountRepository,
+                                 ExecutorService streamExecutor) {
+        this.streamService = streamService;
+        this.rollupRepository = rollupRepository;
+        this.accountRepository = accountRepository;
+        this.streamExecutor = streamExecutor;
+    }
+
+    public void touch(UUID userId, Transaction transaction) {
+        touch(userId, List.of(transaction));
+    }
+
+    public void touch(UUID userId, Collection<Transaction> transactions) {
+        if (!streamService.hasSubscribers(userId) || transactions.isEmpty()) return;
+
+        Map<UUID, Delta> deltas = pending();
+        Delta delta = deltas.computeIfAbsent(userId, id -> new Delta());
+        transactions.forEach(delta::add);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(deltas);
+        }
+    }
+
+    /**
+     * Para escritas longas feitas em várias transações (sincronização da Pluggy): o
+     * chamador acumula o que tocou com Delta.add e publica uma vez só no fim.
+     */
+    public void touch(UUID userId, Delta touched) {
+        if (!streamService.hasSubscribers(userId) || touched.isEmpty()) return;
+
+        Map<UUID, Delta> deltas = pending();
+        deltas.computeIfAbsent(userId, id -> new Delta()).merge(touched);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(deltas);
+        }
+    }
+
+    public void notificationCreated(UUID userId, Notification notification) {
+        StreamEventDTO event = new StreamEventDTO(StreamEventDTO.NOTIFICATION,
+                new StreamEventDTO.NotificationMessage(notification.getId(), notification.getMessage()));
+        afterCommit(() -> streamService.publish(userId, event));
+    }
+
+    // Alerta sem registro persistido (ex.: vencimento de assinatura)
+    public void alert(UUID userId, String message) {
+        streamService.publish(userId, new StreamEventDTO(StreamEventDTO.NOTIFICATION,
+                new StreamEventDTO.NotificationMessage(null, message)));
+    }
+
+    public void syncCompleted(UUID userId, String source, int newTransactions) {
+        streamService.publish(userId, new StreamEventDTO(StreamEventDTO.SYNC, new StreamEventDTO.SyncResult(source, newTransactions)));
+    }
+
+    // O evento final só sai após o commit, quando as transações importadas já estão visíveis
+    public void importProgress(UUID userId, StreamEventDTO.ImportProgress progress) {
+        Runnable publish = () -> streamService.publish(userId, new StreamEventDTO(StreamEventDTO.IMPORT, progress));
+        if (progress.done()) {
+            afterCommit(publish);
+        } else {
+            publish.run();
+        }
+    }
+
+    // Reconciliações que corrigiram dados: o cliente deve recarregar tudo
+    public void resync(UUID userId, String reason) {
+        streamService.publish(userId, new StreamEventDTO(StreamEventDTO.RESYNC, new StreamEventDTO.Resync(reason)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, Delta> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashMap<>();
+        }
+        Map<UUID, Delta> deltas = (Map<UUID, Delta>) TransactionSynchronizationManager.getResource(pendingKey);
+        if (deltas == null) {
+            Map<UUID, Delta> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(pendingKey, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+                }
+            });
+            deltas = created;
+        }
+        return deltas;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void dispatch(Map<UUID, Delta> deltas) {
+        Map<UUID, Delta> snapshot = new HashMap<>(deltas);
+        deltas.clear();
+        for (Map.Entry<UUID, Delta> entry : snapshot.entrySet()) {
+            streamExecutor.execute(() -> {
+                try {
+                    streamService.publish(entry.getKey(), buildEvents(entry.getKey(), entry.getValue()));
+                } catch (Exception e) {
+                    log.warn("Falha ao montar delta do stream para o usuário {}: ", entry.getKey(), e);
+                    resync(entry.getKey(), "delta-error");
+                }
+            });
+        }
+    }
+
+    private List<StreamEventDTO> buildEvents(UUID userId, Delta delta) {
+        List<StreamEventDTO> events = new ArrayList<>();
+
+        for (YearMonth month : delta.months) {
+            BigDecimal income = BigDecimal.ZERO;
+            BigDecimal expense = BigDecimal.ZERO;
+            for (TypeTotalDTO total : rollupRepository.sumByType(userId, month.atDay(1), month.atEndOfMonth())) {
+                if (total.type() == TransactionType.INCOME) income = total.total();
+                if (total.type() == TransactionType.EXPENSE) expense = total.total();
+            }
+            events.add(new StreamEventDTO(StreamEventDTO.TOTALS,
+                    new StreamEventDTO.MonthTotals(month.getYear(), month.getMonthValue(), income, expense)));
+        }
+
+        for (Map.Entry<YearMonth, Set<String>> entry : delta.categories.entrySet()) {
+            YearMonth month = entry.getKey();
+            Set<String> touched = entry.getValue();
+            Map<String, BigDecimal> sums = new HashMap<>();
+            for (CategoryTotalDTO total : rollupRepository.sumByCategory(userId, TransactionType.EXPENSE, month.atDay(1), month.atEndOfMonth())) {
+                if (touched.contains(total.getCategoryName())) {
+                    sums.put(total.getCategoryName(), total.getTotalAmount());
+                }
+            }
+            // Categoria que zerou também é enviada
+            List<CategoryTotalDTO> categories = touched.stream()
+                    .map(name -> new CategoryTotalDTO(name, sums.getOrDefault(name, BigDecimal.ZERO)))
+                    .toList();
+            events.add(new StreamEventDTO(StreamEventDTO.CATEGORIES,
+                    new StreamEventDTO.CategorySums(month.getYear(), month.getMonthValue(), categories)));
+        }
+
+        if (!delta.accountIds.isEmpty()) {
+            List<StreamEventDTO.AccountBalance> balances = accountRepository.findAllById(delta.accountIds).stream()
+                    .map(account -> new StreamEventDTO.AccountBalance(account.getId(), account.getCurrentBalance()))
+                    .toList();
+            events.add(new StreamEventDTO(StreamEventDTO.BALANCES, balances));
+        }
+        return events;
+    }
+
+    // Meses, categorias de despesa e contas tocados; não guarda as transações
+    public static final class Delta {
+        private final Set<YearMonth> months = new HashSet<>();
+        private final Map<YearMonth, Set<String>> categories = new HashMap<>();
+        private final Set<Long> accountIds = new HashSet<>();
+
+        public void add(Transaction transaction) {
+            LocalDate date = transaction.getDate() != null ? transaction.getDate() : LocalDate.now();
+            YearMonth month = YearMonth.from(date);
+            months.add(month);
+            if (transaction.getType() == TransactionType.EXPENSE) {
+                String category = transaction.getCategory() != null ? transaction.getCategory().getName() : SEM_CATEGORIA;
+                categories.computeIfAbsent(month, m -> new HashSet<>()).add(category);
+            }
+            Account account = transaction.getAccount();
+            if (account != null && account.getId() != null) {
+                accountIds.add(account.getId());
+            }
+        }
+
+        private void merge(Delta other) {
+            months.addAll(other.months);
+            other.categories.forEach((month, names) -> categories.computeIfAbsent(month, m -> new HashSet<>()).addAll(names));
+            accountIds.addAll(other.accountIds);
+        }
+
+        private boolean isEmpty() {
+            return months.isEmpty();
+        }
+    }
+}
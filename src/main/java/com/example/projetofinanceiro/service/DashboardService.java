@@ -2,37 +2,83 @@ package com.example.projetofinanceiro.service;
 
 import com.example.projetofinanceiro.dto.*;
 import com.example.projetofinanceiro.model.*;
-import com.example.projetofinanceiro.repository.AccountRepository;
-import com.example.projetofinanceiro.repository.AssetRepository;
+import com.example.projetofinanceiro.repository.DashboardQueryRepository;
 import com.example.projetofinanceiro.repository.RecurringTransactionRepository;
 import com.example.projetofinanceiro.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DashboardService {
 
     private final TransactionRepository transactionRepository;
-    private final AccountRepository accountRepository;
-    private final AssetRepository assetRepository;
     private final RecurringTransactionRepository recurringRepository;
+    private final DashboardQueryRepository dashboardQueryRepository;
+    private final DashboardCacheService dashboardCacheService;
+    private final DataVersionService dataVersionService;
+    private final NetWorthSnapshotService netWorthSnapshotService;
+    private final ExecutorService dashboardExecutor;
+    private final PlatformTransactionManager transactionManager;
 
-    public DashboardV2DTO getDashboardV2Data() {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    private static final int EVOLUTION_MONTHS = 12;
+    private static final int RECENT_TRANSACTIONS = 5;
+
+    @Value("${dashboard.sections.timeout:PT3S}")
+    private Duration sectionTimeout;
+
+    @Value("${dashboard.sections.partial-results:true}")
+    private boolean partialResults;
+
+    /**
+     * O usuário é recebido explicitamente: as seções rodam em outras threads,
+     * onde o SecurityContextHolder não está populado.
+     */
+    public DashboardV2DTO getDashboardV2Data(User user) {
+        // O ETag é lido antes do cálculo: se houver uma escrita no meio, o ETag fica
+        // mais antigo que os dados e a próxima requisição simplesmente recalcula.
+        String etag = getDashboardEtag(user);
+        return dashboardCacheService.get(user.getId(), etag, () -> buildDashboard(user));
+    }
+
+    /**
+     * ETag forte do dashboard: muda a cada escrita do usuário e na virada do dia
+     * (a série de 30 dias e os vencimentos próximos dependem da data).
+     */
+    public String getDashboardEtag(User user) {
+        return "dash-" + dataVersionService.token(user.getId()) + "-" + LocalDate.now().toEpochDay();
+    }
+
+    private DashboardV2DTO buildDashboard(User user) {
         LocalDate now = LocalDate.now();
         
         // Date Ranges
@@ -41,17 +87,38 @@ public class DashboardService {
         
         LocalDate startOfLastMonth = now.minusMonths(1).with(TemporalAdjusters.firstDayOfMonth());
         LocalDate endOfLastMonth = now.minusMonths(1).with(TemporalAdjusters.lastDayOfMonth());
-
-        // 1. Ritmo de Gastos (Spending Pace) - Last 30 Days
         LocalDate thirtyDaysAgo = now.minusDays(29);
-        List<Transaction> last30DaysExpenses = transactionRepository.findByTypeAndDateRange(user, thirtyDaysAgo, now, TransactionType.EXPENSE);
 
-        Map<LocalDate, BigDecimal> expenseMap = last30DaysExpenses.stream()
-                .collect(Collectors.groupingBy(
-                        Transaction::getDate,
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
-                ));
+        // As seções são independentes: dispara todas e espera cada uma até o mesmo prazo
+        long deadline = System.nanoTime() + sectionTimeout.toNanos();
+        // A série diária cobre também o mês passado inteiro, usado no ritmo de gastos anterior
+        LocalDate dailyStart = startOfLastMonth.isBefore(thirtyDaysAgo) ? startOfLastMonth : thirtyDaysAgo;
+        CompletableFuture<List<DashboardAggregateDTO>> aggregatesFuture = submit(deadline, () -> dashboardQueryRepository.findAggregates(
+                user.getId(), dailyStart, now, startOfMonth, endOfMonth, startOfLastMonth, endOfLastMonth));
+        CompletableFuture<NetWorthTotalsDTO> netWorthFuture = submit(deadline, () -> netWorthSnapshotService.computeTotals(user));
+        CompletableFuture<List<TransactionDTO>> recentFuture = submit(deadline, () -> loadRecentTransactions(user, now));
+        CompletableFuture<List<RecurringTransaction>> upcomingFuture = submit(deadline, () -> loadUpcomingExpenses(user, now));
+        CompletableFuture<List<DailyMetric>> evolutionFuture = submit(deadline, () -> netWorthSnapshotService.getMonthlyEvolution(user.getId(), EVOLUTION_MONTHS, now));
+
+        List<String> degraded = new ArrayList<>();
+
+        // 1, 2 e 4: série diária, totais do mês e categorias vêm da mesma consulta agregada
+        List<DashboardAggregateDTO> aggregates = await(aggregatesFuture, deadline, List.of(), degraded,
+                "dailyExpenses", "spendingPacePreviousMonth", "monthlyTotals", "topCategories");
 
+        Map<LocalDate, BigDecimal> expenseMap = new HashMap<>();
+        Map<TransactionType, DashboardAggregateDTO> monthTotals = new EnumMap<>(TransactionType.class);
+        List<TopCategoryDTO> categoryTotals = new ArrayList<>();
+        for (DashboardAggregateDTO row : aggregates) {
+            switch (row.section()) {
+                case DashboardQueryRepository.SECTION_DAY -> expenseMap.put(row.date(), row.currentAmount());
+                case DashboardQueryRepository.SECTION_MONTH -> monthTotals.put(row.type(), row);
+                case DashboardQueryRepository.SECTION_CATEGORY -> categoryTotals.add(new TopCategoryDTO(row.label(), row.currentAmount()));
+                default -> { }
+            }
+        }
+
+        // 1. Ritmo de Gastos (Spending Pace) - Last 30 Days
         List<ChartDataDTO> dailyExpenses = new ArrayList<>();
         for (int i = 0; i < 30; i++) {
             LocalDate date = thirtyDaysAgo.plusDays(i);
@@ -60,19 +127,14 @@ public class DashboardService {
             dailyExpenses.add(new ChartDataDTO(label, value));
         }
 
-        // 2. Monthly Totals & Comparison
-        List<Transaction> currentMonthTransactions = transactionRepository.findByDateRange(user, startOfMonth, endOfMonth);
-        List<Transaction> lastMonthTransactions = transactionRepository.findByDateRange(user, startOfLastMonth, endOfLastMonth);
+        // 1b. Ritmo de gastos do mês passado (acumulado dia a dia)
+        List<DailyMetric> spendingPacePreviousMonth = accumulateDaily(expenseMap, startOfLastMonth, endOfLastMonth, BigDecimal.ZERO);
 
-        BigDecimal totalSpentCurrent = currentMonthTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalSpentPrevious = lastMonthTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // 2. Monthly Totals & Comparison
+        DashboardAggregateDTO expenseTotals = monthTotals.get(TransactionType.EXPENSE);
+        DashboardAggregateDTO incomeTotals = monthTotals.get(TransactionType.INCOME);
+        BigDecimal totalSpentCurrent = expenseTotals != null ? expenseTotals.currentAmount() : BigDecimal.ZERO;
+        BigDecimal totalSpentPrevious = expenseTotals != null ? expenseTotals.previousAmount() : BigDecimal.ZERO;
 
         Double spendingChange = 0.0;
         if (totalSpentPrevious.compareTo(BigDecimal.ZERO) > 0) {
@@ -81,115 +143,160 @@ public class DashboardService {
                     .multiply(new BigDecimal(100)).doubleValue();
         }
 
-        BigDecimal incomeCurrent = currentMonthTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal incomeCurrent = incomeTotals != null ? incomeTotals.currentAmount() : BigDecimal.ZERO;
         
         BigDecimal monthlyResult = incomeCurrent.subtract(totalSpentCurrent);
 
         // 3. Net Worth Logic (With Variation)
-        NetWorthDataDTO netWorthData = calculateNetWorth(user, incomeCurrent, totalSpentCurrent);
-
-        // 4. Top Categories Comparison (Last Month vs Current Month)
-        // Correção A: Lógica do Top Categorias (Mês Passado) - "Rede de Pesca"
-        List<Transaction> allTransactionsLastMonth = transactionRepository.findAllByDateRange(user, startOfLastMonth, endOfLastMonth);
-
-        System.out.println("DEBUG FATAL: Total de itens encontrados no mes passado: " + allTransactionsLastMonth.size());
-
-        // Filtre no Java (Mais seguro)
-        List<Transaction> expensesLastMonth = allTransactionsLastMonth.stream()
-            .filter(t -> t.getType() == TransactionType.EXPENSE || t.getAmount().compareTo(BigDecimal.ZERO) < 0)
-            .collect(Collectors.toList());
-
-        System.out.println("DEBUG FATAL: Itens considerados Despesa: " + expensesLastMonth.size());
+        NetWorthTotalsDTO netWorthTotals = await(netWorthFuture, deadline, null, degraded, "netWorth");
+        List<DailyMetric> netWorthEvolution = new ArrayList<>(await(evolutionFuture, deadline, List.of(), degraded, "netWorthEvolution"));
+        NetWorthDataDTO netWorthData = calculateNetWorth(
+                netWorthTotals != null ? netWorthTotals : new NetWorthTotalsDTO(BigDecimal.ZERO, BigDecimal.ZERO),
+                netWorthAt(netWorthEvolution, endOfLastMonth), incomeCurrent, totalSpentCurrent);
 
-        // Agrupe por Categoria
-        Map<String, Double> categorySum = expensesLastMonth.stream()
-            .collect(Collectors.groupingBy(
-                t -> t.getCategory() != null ? t.getCategory().getName() : "Sem Categoria",
-                Collectors.summingDouble(t -> t.getAmount().abs().doubleValue())
-            ));
+        // O ponto de hoje vem do cálculo ao vivo, a foto do dia pode estar atrasada
+        if (netWorthTotals != null) {
+            if (!netWorthEvolution.isEmpty() && netWorthEvolution.get(netWorthEvolution.size() - 1).getDate().equals(now)) {
+                netWorthEvolution.remove(netWorthEvolution.size() - 1);
+            }
+            netWorthEvolution.add(new DailyMetric(now, netWorthTotals.total()));
+        }
 
-        // Converta para o DTO e ordene
-        List<TopCategoryDTO> topCategories = categorySum.entrySet().stream()
-            .map(entry -> new TopCategoryDTO(entry.getKey(), BigDecimal.valueOf(entry.getValue())))
+        // 4. Top Categories (Mês Passado)
+        List<TopCategoryDTO> topCategories = categoryTotals.stream()
             .sorted((c1, c2) -> c2.totalAmount().compareTo(c1.totalAmount()))
             .limit(5)
             .collect(Collectors.toList());
 
         // 5. Recent Transactions
-        List<Transaction> recentTx = transactionRepository.findRecentTransactionsByUser(user, now.minusDays(7));
-        List<TransactionDTO> recentDTOs = recentTx.stream().limit(5).map(TransactionDTO::fromEntity).collect(Collectors.toList());
+        List<TransactionDTO> recentDTOs = await(recentFuture, deadline, List.of(), degraded, "recentTransactions");
 
         // 6. Upcoming Expenses
-        List<RecurringTransaction> recurring = recurringRepository.findByUser(user);
-        List<RecurringTransaction> upcoming = recurring.stream()
-                .filter(r -> r.getDueDay() >= now.getDayOfMonth() && r.getDueDay() <= now.plusDays(14).getDayOfMonth())
-                .sorted(Comparator.comparingInt(RecurringTransaction::getDueDay))
-                .collect(Collectors.toList());
+        List<RecurringTransaction> upcoming = await(upcomingFuture, deadline, List.of(), degraded, "upcomingExpenses");
 
         return new DashboardV2DTO(
             dailyExpenses,
-            new ArrayList<>(), 
+            spendingPacePreviousMonth,
             totalSpentCurrent,
             spendingChange,
-            new ArrayList<>(), 
+            netWorthEvolution,
             incomeCurrent,
             totalSpentCurrent,
             monthlyResult,
-            topCategories, // Using the new list
+            topCategories,
             recentDTOs,
             upcoming,
-            netWorthData
+            netWorthData,
+            degraded
         );
     }
 
-    private NetWorthDataDTO calculateNetWorth(User user, BigDecimal monthlyIncome, BigDecimal monthlyExpense) {
-        // Correção B: Lógica do Patrimônio Total
-        // 1. Soma Saldo das Contas
-        BigDecimal totalAccounts = accountRepository.findByUser(user).stream()
-            .map(acc -> {
-                BigDecimal income = transactionRepository.sumIncomeByAccount(acc);
-                BigDecimal expense = transactionRepository.sumExpenseByAccount(acc);
-                if (income == null) income = BigDecimal.ZERO;
-                if (expense == null) expense = BigDecimal.ZERO;
-                BigDecimal initial = acc.getInitialBalance() != null ? acc.getInitialBalance() : BigDecimal.ZERO;
-                return initial.add(income).subtract(expense);
-            })
-            .filter(Objects::nonNull)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // 2. Soma Valor dos Ativos (Carros, Casas, Investimentos)
-        BigDecimal totalAssets = assetRepository.findByUser(user).stream()
-            .map(Asset::getValue)
-            .filter(Objects::nonNull)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private List<TransactionDTO> loadRecentTransactions(User user, LocalDate now) {
+        return transactionRepository.findRecentByUser(user, now.minusDays(7), Limit.of(RECENT_TRANSACTIONS));
+    }
+
+    private List<RecurringTransaction> loadUpcomingExpenses(User user, LocalDate now) {
+        List<RecurringTransaction> recurring = recurringRepository.findByUser(user);
+        return recurring.stream()
+                .filter(r -> r.getDueDay() >= now.getDayOfMonth() && r.getDueDay() <= now.plusDays(14).getDayOfMonth())
+                .sorted(Comparator.comparingInt(RecurringTransaction::getDueDay))
+                .collect(Collectors.toList());
+    }
 
+    private NetWorthDataDTO calculateNetWorth(NetWorthTotalsDTO totals, BigDecimal lastMonthNetWorth,
+                                              BigDecimal monthlyIncome, BigDecimal monthlyExpense) {
         // 3. Patrimônio Real = Contas + Ativos
-        BigDecimal currentNetWorth = totalAccounts.add(totalAssets);
+        BigDecimal currentNetWorth = totals.total();
 
-        // 3. Calculate Start of Month Net Worth (Reverse Engineering)
-        BigDecimal monthlyNetChange = monthlyIncome.subtract(monthlyExpense);
-        BigDecimal startMonthNetWorth = currentNetWorth.subtract(monthlyNetChange);
+        // Base de comparação: a foto do fim do mês passado; sem ela, o início do mês
+        // é estimado descontando o resultado do mês do patrimônio atual
+        BigDecimal startMonthNetWorth = lastMonthNetWorth != null
+                ? lastMonthNetWorth
+                : currentNetWorth.subtract(monthlyIncome.subtract(monthlyExpense));
 
         Double percentageChange = 0.0;
         if (startMonthNetWorth.compareTo(BigDecimal.ZERO) != 0) {
             percentageChange = currentNetWorth.subtract(startMonthNetWorth)
-                    .divide(startMonthNetWorth, 4, RoundingMode.HALF_UP)
+                    .divide(startMonthNetWorth.abs(), 4, RoundingMode.HALF_UP)
                     .multiply(new BigDecimal(100)).doubleValue();
         } else if (currentNetWorth.compareTo(BigDecimal.ZERO) != 0) {
             percentageChange = 100.0;
         }
 
-        return new NetWorthDataDTO(totalAccounts, totalAssets, currentNetWorth, percentageChange);
+        return new NetWorthDataDTO(totals.accounts(), totals.assets(), currentNetWorth, percentageChange);
+    }
+
+    private BigDecimal netWorthAt(List<DailyMetric> evolution, LocalDate date) {
+        for (DailyMetric point : evolution) {
+            if (point.getDate().equals(date)) return point.getTotal();
+        }
+        return null;
     }
 
-    private List<DailyMetric> fillMissingDays(List<DailyMetric> existingData, LocalDate start, LocalDate end) {
-        return new ArrayList<>(); 
+    /**
+     * Roda a seção numa transação somente leitura cujo timeout é o que resta do prazo
+     * comum. O Spring aplica esse timeout a cada consulta (JPA e JdbcTemplate), então
+     * uma seção que estoura o prazo tem a consulta cancelada pelo banco e devolve a
+     * thread e a conexão ao pool; cancelar o CompletableFuture não interrompe nada.
+     */
+    private <T> CompletableFuture<T> submit(long deadline, Supplier<T> section) {
+        return CompletableFuture.supplyAsync(() -> {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                // Ficou na fila do executor além do prazo: ninguém espera mais o resultado
+                throw new CancellationException("Dashboard deadline expired before the section started");
+            }
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            // O timeout do JDBC é em segundos e o Hibernate trunca o que resta dele a cada
+            // consulta: arredonda para cima e soma um segundo, senão uma seção que começa
+            // com menos de um segundo de folga falharia sem nem executar a consulta
+            transaction.setTimeout((int) TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1) + 1);
+            return transaction.execute(status -> section.get());
+        }, dashboardExecutor);
     }
 
-    private List<DailyMetric> accumulateMetrics(List<DailyMetric> daily) {
-        return new ArrayList<>();
+    /**
+     * Espera uma seção até o prazo comum. Em modo parcial, uma seção lenta ou com
+     * erro volta com o valor padrão e é listada em degradedSections; caso contrário
+     * a requisição inteira falha.
+     */
+    private <T> T await(CompletableFuture<T> future, long deadline, T fallback, List<String> degraded, String... sections) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Só solta a espera; a consulta é cancelada pelo timeout da transação da seção
+            future.cancel(false);
+            return degrade(fallback, degraded, sections, HttpStatus.GATEWAY_TIMEOUT, e);
+        } catch (ExecutionException e) {
+            return degrade(fallback, degraded, sections, HttpStatus.SERVICE_UNAVAILABLE, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return degrade(fallback, degraded, sections, HttpStatus.SERVICE_UNAVAILABLE, e);
+        }
+    }
+
+    private <T> T degrade(T fallback, List<String> degraded, String[] sections, HttpStatus status, Throwable cause) {
+        if (!partialResults) {
+            throw new ResponseStatusException(status, "Dashboard section unavailable: " + String.join(", ", sections), cause);
+        }
+        log.warn("Seções do dashboard degradadas {}: {}", List.of(sections), cause.toString());
+        degraded.addAll(List.of(sections));
+        return fallback;
+    }
+
+    /**
+     * Preenche os dias sem movimento e acumula os valores na mesma passada:
+     * um ponto por dia entre start e end, partindo de base.
+     */
+    private List<DailyMetric> accumulateDaily(Map<LocalDate, BigDecimal> daily, LocalDate start, LocalDate end, BigDecimal base) {
+        List<DailyMetric> series = new ArrayList<>();
+        BigDecimal running = base;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            running = running.add(daily.getOrDefault(date, BigDecimal.ZERO));
+            series.add(new DailyMetric(date, running));
+        }
+        return series;
     }
 }
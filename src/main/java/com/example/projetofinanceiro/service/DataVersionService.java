@@ -0,0 +1,54 @@
+package com.example.projetofinanceiro.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão dos dados de cada usuário, incrementada a cada escrita que afeta
+ * dashboards e relatórios. Usada como chave de cache e para gerar ETags.
+ *
+ * A versão fica em memória; o bootId garante que tokens gerados antes de um
+ * restart nunca coincidam com os de depois.
+ */
+@Service
+public class DataVersionService {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long currentVersion(UUID userId) {
+        AtomicLong version = versions.get(userId);
+        return version != null ? version.get() : 0L;
+    }
+
+    public String token(UUID userId) {
+        return bootId + "-" + currentVersion(userId);
+    }
+
+    /**
+     * Incrementa a versão imediatamente e, se houver uma transação ativa, de novo
+     * após o commit. Assim uma leitura feita entre a escrita e o commit (que ainda
+     * enxerga os dados antigos) não fica valendo para a versão nova.
+     */
+    public void bump(UUID userId) {
+        increment(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(userId);
+                }
+            });
+        }
+    }
+
+    private void increment(UUID userId) {
+        versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.DescriptionStatsDTO;
+import com.example.projetofinanceiro.dto.DescriptionSuggestionDTO;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.repository.TransactionRepository;
+import com.example.projetofinanceiro.search.DescriptionIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índices de descrições por usuário, em memória. Cada índice é montado na primeira
+ * consulta a partir de um GROUP BY nas transações, atualizado a cada escrita e
+ * descartado quando o usuário fica ocioso ou o total de entradas passa do limite.
+ *
+ * record/revert seguem o mesmo padrão do rollup: chamados junto com a escrita,
+ * mas só aplicados ao índice depois do commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DescriptionIndexService {
+
+    private final TransactionRepository transactionRepository;
+
+    private final Map<UUID, DescriptionIndex> indexes = new ConcurrentHashMap<>();
+    // Contador de escritas por usuário, para detectar escritas concorrentes com a montagem
+    private final Map<UUID, AtomicLong> writes = new ConcurrentHashMap<>();
+
+    @Value("${search.descriptions.max-entries-per-user:5000}")
+    private int maxEntriesPerUser;
+
+    @Value("${search.descriptions.max-total-entries:200000}")
+    private int maxTotalEntries;
+
+    @Value("${search.descriptions.idle-ttl:PT30M}")
+    private Duration idleTtl;
+
+    public List<DescriptionSuggestionDTO> suggest(UUID userId, String query, int limit) {
+        DescriptionIndex index = indexFor(userId);
+        synchronized (index) {
+            return index.suggest(query, limit, LocalDate.now());
+        }
+    }
+
+    /**
+     * Descrições exatamente como gravadas no banco que casam com q, para o filtro da
+     * listagem. null quando o índice não garante a lista completa (índice truncado pelo
+     * limite de entradas ou limit atingido); aí quem chama filtra direto no banco.
+     */
+    public List<String> matchingDescriptions(UUID userId, String query, int limit) {
+        DescriptionIndex index = indexFor(userId);
+        synchronized (index) {
+            if (index.isTruncated()) return null;
+            List<String> forms = index.storedForms(query, limit);
+            return forms.size() < limit ? forms : null;
+        }
+    }
+
+    public void record(Transaction transaction) {
+        update(transaction, true);
+    }
+
+    public void revert(Transaction transaction) {
+        update(transaction, false);
+    }
+
+    // Para escritas em massa que não passam por record/revert: o índice é remontado na próxima consulta
+    public void invalidate(UUID userId) {
+        afterCommit(userId, () -> indexes.remove(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${search.descriptions.eviction-delay:PT5M}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtl.toMillis();
+        int before = indexes.size();
+        indexes.values().removeIf(index -> index.lastAccess() < cutoff);
+        int evicted = before - indexes.size();
+        if (evicted > 0) {
+            log.debug("{} índices de descrição ociosos descartados.", evicted);
+        }
+    }
+
+    public int loadedIndexes() {
+        return indexes.size();
+    }
+
+    private DescriptionIndex indexFor(UUID userId) {
+        DescriptionIndex index = indexes.get(userId);
+        if (index != null) return index;
+
+        // Montado fora de qualquer lock; só entra no mapa se nenhuma escrita aconteceu
+        // durante a leitura, senão o índice poderia perder essa escrita para sempre
+        long version = writeCount(userId);
+        DescriptionIndex built = build(userId);
+        if (writeCount(userId) != version) {
+            return built;
+        }
+
+        DescriptionIndex existing = indexes.putIfAbsent(userId, built);
+        if (existing != null) return existing;
+        enforceMemoryLimit(userId);
+        return built;
+    }
+
+    private DescriptionIndex build(UUID userId) {
+        DescriptionIndex index = new DescriptionIndex(maxEntriesPerUser);
+        // Uma linha além do limite: se ela for descartada, o índice se marca como truncado
+        List<DescriptionStatsDTO> stats = transactionRepository.findDescriptionStats(userId, Limit.of(maxEntriesPerUser + 1));
+        for (DescriptionStatsDTO row : stats) {
+            index.add(row.description(), HtmlUtils.htmlUnescape(row.description()), row.lastUsed(),
+                    row.transactionCount().intValue());
+        }
+        return index;
+    }
+
+    // Descarta os índices menos usados recentemente até o total caber no limite
+    private void enforceMemoryLimit(UUID keep) {
+        int total = indexes.values().stream().mapToInt(DescriptionIndex::size).sum();
+        if (total <= maxTotalEntries) return;
+
+        List<Map.Entry<UUID, DescriptionIndex>> byAccess = indexes.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(keep))
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess()))
+                .toList();
+        for (Map.Entry<UUID, DescriptionIndex> entry : byAccess) {
+            if (total <= maxTotalEntries) break;
+            if (indexes.remove(entry.getKey(), entry.getValue())) {
+                total -= entry.getValue().size();
+            }
+        }
+    }
+
+    private void update(Transaction transaction, boolean added) {
+        if (transaction.getUser() == null || transaction.getDescription() == null) return;
+        // Captura os valores agora: no update a mesma entidade é alterada antes do commit
+        UUID userId = transaction.getUser().getId();
+        String description = transaction.getDescription();
+        LocalDate date = transaction.getDate();
+
+        afterCommit(userId, () -> {
+            DescriptionIndex index = indexes.get(userId);
+            if (index == null) return;
+            synchronized (index) {
+                if (added) {
+                    index.add(description, HtmlUtils.htmlUnescape(description), date, 1);
+                } else {
+                    index.remove(description, HtmlUtils.htmlUnescape(description));
+                }
+            }
+        });
+    }
+
+    /**
+     * Conta a escrita agora e de novo após o commit (como o DataVersionService) e só
+     * então mexe no índice: uma montagem que leu o banco nesse intervalo é descartada.
+     */
+    private void afterCommit(UUID userId, Runnable apply) {
+        AtomicLong counter = writes.computeIfAbsent(userId, id -> new AtomicLong());
+        counter.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter.incrementAndGet();
+                    apply.run();
+                }
+            });
+        } else {
+            counter.incrementAndGet();
+            apply.run();
+        }
+    }
+
+    private long writeCount(UUID userId) {
+        AtomicLong counter = writes.get(userId);
+        return counter != null ? counter.get() : 0L;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.CashFlowDTO;
+import com.example.projetofinanceiro.dto.CategoryReportDTO;
+import com.example.projetofinanceiro.export.ExportFormat;
+import com.example.projetofinanceiro.export.TabularWriter;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação em streaming: as linhas vão do cursor do banco direto para a
+ * resposta, então o uso de memória não depende do tamanho do histórico.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    public static final String TRANSACTIONS = "transacoes";
+    public static final String CASH_FLOW = "fluxo-de-caixa";
+    public static final String EXPENSES_BY_CATEGORY = "despesas-por-categoria";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ExportService(TransactionRepository transactionRepository, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportTransactions(User user, LocalDate startDate, LocalDate endDate,
+                                                                    Long categoryId, ExportFormat format, boolean gzip) {
+        return response(TRANSACTIONS, format, gzip, out -> writeTransactions(out, user, startDate, endDate, categoryId, format));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportCashFlow(List<CashFlowDTO> cashFlow, ExportFormat format, boolean gzip) {
+        return response(CASH_FLOW, format, gzip, out -> writeCashFlow(out, cashFlow, format));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportExpensesByCategory(List<CategoryReportDTO> categories, ExportFormat format, boolean gzip) {
+        return response(EXPENSES_BY_CATEGORY, format, gzip, out -> writeExpensesByCategory(out, categories, format));
+    }
+
+    public void writeTransactions(OutputStream out, User user, LocalDate startDate, LocalDate endDate,
+                                  Long categoryId, ExportFormat format) throws IOException {
+        write(out, format, TRANSACTIONS, writer -> {
+            writer.header("Id", "Data", "Descrição", "Tipo", "Valor", "Categoria", "Conta/Cartão");
+            // O cursor precisa de uma transação aberta; roda na thread que escreve a saída
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Transaction> transactions = transactionRepository.streamForExport(user, startDate, endDate, categoryId)) {
+                    Iterator<Transaction> iterator = transactions.iterator();
+                    while (iterator.hasNext()) {
+                        Transaction t = iterator.next();
+                        writer.row(
+                                t.getId(),
+                                t.getDate(),
+                                t.getDescription() != null ? HtmlUtils.htmlUnescape(t.getDescription()) : null,
+                                t.getType() != null ? t.getType().name() : null,
+                                t.getAmount(),
+                                t.getCategory() != null ? t.getCategory().getName() : null,
+                                t.getCreditCard() != null ? t.getCreditCard().getName()
+                                        : t.getAccount() != null ? t.getAccount().getName() : null);
+                        // Solta a transação do contexto de persistência para o heap não crescer
+                        entityManager.detach(t);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        });
+    }
+
+    public void writeCashFlow(OutputStream out, List<CashFlowDTO> cashFlow, ExportFormat format) throws IOException {
+        write(out, format, CASH_FLOW, writer -> {
+            writer.header("Início", "Fim", "Receitas", "Despesas", "Resultado", "Acumulado",
+                    "Variação Receitas", "Variação Despesas", "Variação Resultado");
+            for (CashFlowDTO row : cashFlow) {
+                writer.row(row.date(), row.periodEnd(), row.totalIncome(), row.totalExpense(), row.netBalance(),
+                        row.runningBalance(), row.incomeChange(), row.expenseChange(), row.netChange());
+            }
+        });
+    }
+
+    public void writeExpensesByCategory(OutputStream out, List<CategoryReportDTO> categories, ExportFormat format) throws IOException {
+        write(out, format, EXPENSES_BY_CATEGORY, writer -> {
+            writer.header("Categoria", "Total", "Percentual");
+            for (CategoryReportDTO row : categories) {
+                writer.row(row.categoryName(), row.totalValue(), row.percentage());
+            }
+        });
+    }
+
+    public static String filename(String baseName, String extension) {
+        return baseName + "-" + LocalDate.now() + "." + extension;
+    }
+
+    public static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    private ResponseEntity<StreamingResponseBody> response(String baseName, ExportFormat format, boolean gzip, StreamingResponseBody content) {
+        boolean compress = gzip && format.isCompressible();
+
+        StreamingResponseBody body = out -> {
+            if (compress) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(out, 8 * 1024);
+                content.writeTo(gzipStream);
+                gzipStream.finish();
+            } else {
+                content.writeTo(out);
+            }
+            out.flush();
+        };
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, format.contentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename(baseName, format.extension())).build().toString());
+        if (compress) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return builder.body(body);
+    }
+
+    private void write(OutputStream out, ExportFormat format, String sheetName, RowSource rows) throws IOException {
+        TabularWriter writer = format.open(out, sheetName);
+        try {
+            rows.write(writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        void write(TabularWriter writer) throws IOException;
+    }
+}
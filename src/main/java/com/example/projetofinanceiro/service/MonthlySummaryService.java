@@ -0,0 +1,238 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.BudgetProgressDTO;
+import com.example.projetofinanceiro.dto.MonthlySummaryDTO;
+import com.example.projetofinanceiro.dto.SummaryLineDTO;
+import com.example.projetofinanceiro.dto.TypeTotalDTO;
+import com.example.projetofinanceiro.model.Budget;
+import com.example.projetofinanceiro.model.MonthlySummary;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.BudgetRepository;
+import com.example.projetofinanceiro.repository.MonthlySummaryRepository;
+import com.example.projetofinanceiro.repository.TransactionDailyRollupRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fechamento mensal: meses encerrados são resumidos uma vez em monthly_summary e
+ * servidos dali, sem voltar às transações. Uma escrita com data em mês fechado
+ * reabre o resumo, que é reconstruído na próxima leitura ou pelo scheduler.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonthlySummaryService {
+
+    private final MonthlySummaryRepository summaryRepository;
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final BudgetRepository budgetRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${reports.summary.rebuild-backoff:PT5M}")
+    private Duration rebuildBackoff;
+
+    @Value("${reports.summary.rebuild-backoff-max:PT24H}")
+    private Duration maxRebuildBackoff;
+
+    public boolean isClosed(YearMonth month) {
+        return month.isBefore(YearMonth.now());
+    }
+
+    public MonthlySummaryDTO getSummary(User user, YearMonth month) {
+        if (!isClosed(month)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "month is not closed yet");
+        }
+
+        MonthlySummary summary = find(user.getId(), month);
+        if (summary != null && !summary.isStale()) {
+            return toDto(summary);
+        }
+        return close(user, month, summary);
+    }
+
+    // Fecha o mês se ainda não houver resumo válido; retorna true se precisou calcular
+    public boolean ensureClosed(User user, YearMonth month) {
+        MonthlySummary summary = find(user.getId(), month);
+        if (summary != null && !summary.isStale()) return false;
+        close(user, month, summary);
+        return true;
+    }
+
+    /**
+     * Reabre o mês da data, se ele já estiver fechado. Deve rodar na mesma transação
+     * da escrita para que um fechamento concorrente perca no lock otimista.
+     */
+    @Transactional
+    public void reopen(UUID userId, LocalDate date) {
+        if (date != null) {
+            reopen(userId, YearMonth.from(date));
+        }
+    }
+
+    @Transactional
+    public void reopen(UUID userId, YearMonth month) {
+        if (isClosed(month)) {
+            summaryRepository.reopen(userId, month.getYear(), month.getMonthValue());
+        }
+    }
+
+    // Para escritas que afetam meses indeterminados (exclusão de conta, rebuild do rollup)
+    @Transactional
+    public void reopenAll(UUID userId) {
+        summaryRepository.reopenAll(userId);
+    }
+
+    // O usuário não existe mais: os resumos dele não têm o que reconstruir
+    @Transactional
+    public int discardOrphaned(UUID userId) {
+        return summaryRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Adia a próxima reconstrução de um resumo que falhou, dobrando a espera a cada
+     * falha seguida até o teto, para ele não voltar em toda passada do scheduler.
+     */
+    @Transactional
+    public LocalDateTime postponeRebuild(MonthlySummary summary) {
+        int failures = (summary.getRebuildFailures() != null ? summary.getRebuildFailures() : 0) + 1;
+        Duration wait = rebuildBackoff.multipliedBy(1L << Math.min(failures - 1, 20));
+        if (wait.compareTo(maxRebuildBackoff) > 0) wait = maxRebuildBackoff;
+
+        LocalDateTime rebuildAfter = LocalDateTime.now().plus(wait);
+        summaryRepository.postponeRebuild(summary.getId(), failures, rebuildAfter);
+        return rebuildAfter;
+    }
+
+    /**
+     * Resposta com cache longo: o ETag é a versão do resumo, e quando o cliente pede
+     * a versão atual (?v=) o conteúdo daquela URL nunca muda, então vai como immutable.
+     */
+    public <T> ResponseEntity<T> respond(MonthlySummaryDTO summary, String requestedVersion, WebRequest request, T body) {
+        if (summary.version() == null) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+        }
+
+        String etag = "ms-" + summary.version();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        CacheControl cacheControl = summary.version().equals(requestedVersion)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body);
+    }
+
+    private MonthlySummaryDTO close(User user, YearMonth month, MonthlySummary existing) {
+        // A versão lida antes do cálculo vale como lock: se o mês for reaberto enquanto
+        // calculamos, o save falha e o resumo continua marcado para reconstrução
+        MonthlySummary summary = existing != null ? existing : new MonthlySummary(user.getId(), month.getYear(), month.getMonthValue());
+        MonthlySummaryDTO content = compute(user, month);
+
+        summary.setContent(toJson(content));
+        summary.setTotalIncome(content.totalIncome());
+        summary.setTotalExpense(content.totalExpense());
+        summary.setStale(false);
+        summary.setRebuildFailures(null);
+        summary.setRebuildAfter(null);
+        summary.setClosedAt(LocalDateTime.now());
+        try {
+            MonthlySummary saved = summaryRepository.saveAndFlush(summary);
+            return content.withVersion(versionToken(saved), saved.getClosedAt());
+        } catch (ObjectOptimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.debug("Resumo de {} do usuário {} mudou durante o fechamento: {}", month, user.getId(), e.getMessage());
+            return content;
+        }
+    }
+
+    private MonthlySummaryDTO compute(User user, YearMonth month) {
+        UUID userId = user.getId();
+        LocalDate startDate = month.atDay(1);
+        LocalDate endDate = month.atEndOfMonth();
+
+        List<SummaryLineDTO> byCategory = rollupRepository.summarizeByCategory(userId, startDate, endDate);
+        List<SummaryLineDTO> byAccount = rollupRepository.summarizeByAccount(userId, startDate, endDate);
+        List<SummaryLineDTO> byCreditCard = rollupRepository.summarizeByCreditCard(userId, startDate, endDate);
+
+        // Toda linha do rollup tem categoria (ou "Sem Categoria"), então as categorias cobrem os totais
+        Map<TransactionType, BigDecimal> byType = new EnumMap<>(TransactionType.class);
+        for (SummaryLineDTO line : byCategory) {
+            byType.merge(line.type(), line.total(), BigDecimal::add);
+        }
+        BigDecimal income = byType.getOrDefault(TransactionType.INCOME, BigDecimal.ZERO);
+        BigDecimal expense = byType.getOrDefault(TransactionType.EXPENSE, BigDecimal.ZERO);
+
+        List<BudgetProgressDTO> budgets = new ArrayList<>();
+        for (Budget budget : budgetRepository.findByUserAndMonthAndYear(user, month.getMonthValue(), month.getYear())) {
+            BigDecimal spent = byCategory.stream()
+                    .filter(line -> line.type() == TransactionType.EXPENSE && Objects.equals(line.id(), budget.getCategory().getId()))
+                    .map(SummaryLineDTO::total)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            double percentage = budget.getAmount().signum() > 0
+                    ? spent.divide(budget.getAmount(), 4, RoundingMode.HALF_UP).multiply(new BigDecimal(100)).doubleValue()
+                    : 0.0;
+            budgets.add(new BudgetProgressDTO(budget.getId(), budget.getCategory().getName(), budget.getCategory().getId(),
+                    budget.getAmount(), spent, percentage));
+        }
+
+        List<TypeTotalDTO> typeTotals = byType.entrySet().stream()
+                .map(e -> new TypeTotalDTO(e.getKey(), e.getValue()))
+                .toList();
+        return new MonthlySummaryDTO(month, null, null, income, expense, income.subtract(expense),
+                typeTotals, byCategory, byAccount, byCreditCard, budgets);
+    }
+
+    private MonthlySummary find(UUID userId, YearMonth month) {
+        return summaryRepository.findByUserIdAndSummaryYearAndSummaryMonth(userId, month.getYear(), month.getMonthValue())
+                .orElse(null);
+    }
+
+    private MonthlySummaryDTO toDto(MonthlySummary summary) {
+        try {
+            return objectMapper.readValue(summary.getContent(), MonthlySummaryDTO.class)
+                    .withVersion(versionToken(summary), summary.getClosedAt());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resumo mensal " + summary.getId() + " ilegível", e);
+        }
+    }
+
+    // id + versão: único entre usuários, então serve de ETag e de chave de URL sem vazar nada
+    private String versionToken(MonthlySummary summary) {
+        return summary.getId() + "." + summary.getVersion();
+    }
+
+    private String toJson(MonthlySummaryDTO content) {
+        try {
+            return objectMapper.writeValueAsString(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
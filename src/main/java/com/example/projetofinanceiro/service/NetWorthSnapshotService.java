@@ -0,0 +1,159 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.DailyMetric;
+import com.example.projetofinanceiro.dto.DailyTypeTotalDTO;
+import com.example.projetofinanceiro.dto.NetWorthTotalsDTO;
+import com.example.projetofinanceiro.model.Asset;
+import com.example.projetofinanceiro.model.NetWorthSnapshot;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.AccountRepository;
+import com.example.projetofinanceiro.repository.AssetRepository;
+import com.example.projetofinanceiro.repository.NetWorthSnapshotRepository;
+import com.example.projetofinanceiro.repository.TransactionDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantém a tabela net_worth_snapshot: uma foto por usuário e dia, gravada pelo
+ * agendamento diário e, ao longo do dia, para os usuários marcados como "sujos"
+ * por escritas em transações, contas e ativos.
+ */
+@Service
+@RequiredArgsConstructor
+public class NetWorthSnapshotService {
+
+    private final NetWorthSnapshotRepository snapshotRepository;
+    private final AccountRepository accountRepository;
+    private final AssetRepository assetRepository;
+    private final TransactionDailyRollupRepository rollupRepository;
+
+    private final Set<UUID> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    public NetWorthTotalsDTO computeTotals(User user) {
+        // 1. Soma Saldo das Contas (mantido em current_balance)
+        BigDecimal totalAccounts = accountRepository.sumCurrentBalanceByUser(user);
+
+        // 2. Soma Valor dos Ativos (Carros, Casas, Investimentos)
+        BigDecimal totalAssets = assetRepository.findByUser(user).stream()
+            .map(Asset::getValue)
+            .filter(Objects::nonNull)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return new NetWorthTotalsDTO(totalAccounts, totalAssets);
+    }
+
+    /**
+     * Grava (ou atualiza) a foto de hoje. Na primeira captura de um usuário, os
+     * meses anteriores são preenchidos a partir do rollup diário.
+     */
+    @Transactional
+    public NetWorthSnapshot capture(User user) {
+        LocalDate today = LocalDate.now();
+        NetWorthTotalsDTO totals = computeTotals(user);
+
+        if (!snapshotRepository.existsByUserId(user.getId())) {
+            backfill(user.getId(), totals, today.minusMonths(12).with(TemporalAdjusters.firstDayOfMonth()), today);
+        }
+
+        NetWorthSnapshot snapshot = snapshotRepository.findByUserIdAndSnapshotDate(user.getId(), today)
+                .orElseGet(() -> new NetWorthSnapshot(user.getId(), today, BigDecimal.ZERO, BigDecimal.ZERO));
+        snapshot.setAccountsTotal(totals.accounts());
+        snapshot.setAssetsTotal(totals.assets());
+        snapshot.setNetWorth(totals.total());
+        return snapshotRepository.save(snapshot);
+    }
+
+    /**
+     * Marca o usuário para nova captura. Só vale após o commit, para que o
+     * agendamento nunca fotografe dados que ainda podem sofrer rollback.
+     */
+    public void markDirty(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyUsers.add(userId);
+                }
+            });
+        } else {
+            dirtyUsers.add(userId);
+        }
+    }
+
+    public boolean consumeDirty(UUID userId) {
+        return dirtyUsers.remove(userId);
+    }
+
+    public List<UUID> dirtyUserIds() {
+        return new ArrayList<>(dirtyUsers);
+    }
+
+    /**
+     * Série mensal do patrimônio: um ponto por fim de mês (o mês corrente termina
+     * em "hoje"). Meses sem foto repetem o último valor conhecido; meses anteriores
+     * à primeira foto ficam de fora. Uma única passada sobre as linhas ordenadas.
+     */
+    public List<DailyMetric> getMonthlyEvolution(UUID userId, int months, LocalDate today) {
+        LocalDate firstMonth = today.minusMonths(months - 1L).with(TemporalAdjusters.firstDayOfMonth());
+        List<NetWorthSnapshot> snapshots = snapshotRepository.findMonthEndSnapshots(userId, firstMonth, today);
+
+        List<DailyMetric> evolution = new ArrayList<>(months);
+        int next = 0;
+        BigDecimal lastKnown = null;
+        for (LocalDate month = firstMonth; !month.isAfter(today); month = month.plusMonths(1)) {
+            LocalDate pointDate = month.with(TemporalAdjusters.lastDayOfMonth());
+            if (pointDate.isAfter(today)) pointDate = today;
+
+            while (next < snapshots.size() && !snapshots.get(next).getSnapshotDate().isAfter(pointDate)) {
+                lastKnown = snapshots.get(next++).getNetWorth();
+            }
+            if (lastKnown != null) {
+                evolution.add(new DailyMetric(pointDate, lastKnown));
+            }
+        }
+        return evolution;
+    }
+
+    /**
+     * Reconstrói as fotos de fim de mês entre start e ontem partindo do saldo atual
+     * e descontando, em uma passada, a movimentação das contas registrada no rollup.
+     * Os ativos não têm histórico, então o valor atual é usado para todo o período.
+     */
+    private void backfill(UUID userId, NetWorthTotalsDTO current, LocalDate start, LocalDate today) {
+        Map<LocalDate, BigDecimal> netByDay = new HashMap<>();
+        BigDecimal movementSinceStart = BigDecimal.ZERO;
+        for (DailyTypeTotalDTO row : rollupRepository.sumAccountMovementsSince(userId, start)) {
+            // Mesma regra do saldo da conta: transferências não entram
+            if (row.type() == TransactionType.TRANSFER) continue;
+            BigDecimal signed = row.type() == TransactionType.INCOME ? row.total() : row.total().negate();
+            netByDay.merge(row.date(), signed, BigDecimal::add);
+            movementSinceStart = movementSinceStart.add(signed);
+        }
+
+        BigDecimal accounts = current.accounts().subtract(movementSinceStart);
+        List<NetWorthSnapshot> rows = new ArrayList<>();
+        for (LocalDate day = start; day.isBefore(today); day = day.plusDays(1)) {
+            accounts = accounts.add(netByDay.getOrDefault(day, BigDecimal.ZERO));
+            if (day.equals(day.with(TemporalAdjusters.lastDayOfMonth()))) {
+                rows.add(new NetWorthSnapshot(userId, day, accounts, current.assets()));
+            }
+        }
+        snapshotRepository.saveAll(rows);
+    }
+}
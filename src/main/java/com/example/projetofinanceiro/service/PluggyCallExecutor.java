@@ -0,0 +1,212 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.PluggyClientStatsDTO;
+import com.example.projetofinanceiro.resilience.CallRejectedException;
+import com.example.projetofinanceiro.resilience.CircuitBreaker;
+import com.example.projetofinanceiro.resilience.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executa as chamadas do PluggyClient com timeout por chamada, limite de taxa e
+ * disjuntor, para que uma Pluggy lenta ou fora do ar não prenda threads da aplicação.
+ * Leituras (read) são repetidas em falhas transitórias (rede, 429 e 5xx) com backoff
+ * exponencial e jitter; escritas (write) são feitas uma única vez.
+ *
+ * Cada tentativa passa pelo disjuntor e pelo limite de taxa. Com o disjuntor aberto
+ * ou o limite exigindo espera maior que pluggy.client.rate-limit.max-wait, a chamada
+ * falha na hora com CallRejectedException.
+ */
+@Slf4j
+@Service
+public class PluggyCallExecutor {
+
+    private final Duration callTimeout;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration maxRateLimitWait;
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong throttleRejections = new AtomicLong();
+
+    public PluggyCallExecutor(
+            @Value("${pluggy.client.call-timeout:PT10S}") Duration callTimeout,
+            @Value("${pluggy.client.retry.max-attempts:3}") int maxAttempts,
+            @Value("${pluggy.client.retry.base-delay:PT0.2S}") Duration baseDelay,
+            @Value("${pluggy.client.retry.max-delay:PT5S}") Duration maxDelay,
+            @Value("${pluggy.client.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${pluggy.client.circuit.open-duration:PT30S}") Duration openDuration,
+            @Value("${pluggy.client.rate-limit.permits-per-second:10}") double permitsPerSecond,
+            @Value("${pluggy.client.rate-limit.burst:10}") int burst,
+            @Value("${pluggy.client.rate-limit.max-wait:PT5S}") Duration maxRateLimitWait) {
+
+        this.callTimeout = callTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxRateLimitWait = maxRateLimitWait;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.rateLimiter = new RateLimiter(permitsPerSecond, burst);
+    }
+
+    // Chamadas idempotentes (GET): repetidas em falhas transitórias
+    public <T> Response<T> read(Call<T> call) throws IOException {
+        return execute(call, maxAttempts);
+    }
+
+    // Chamadas com efeito no provedor: uma única tentativa
+    public <T> Response<T> write(Call<T> call) throws IOException {
+        return execute(call, 1);
+    }
+
+    public PluggyClientStatsDTO stats() {
+        return new PluggyClientStatsDTO(
+                circuitBreaker.state().name(),
+                calls.get(),
+                successes.get(),
+                failures.get(),
+                retries.get(),
+                timeouts.get(),
+                circuitBreaker.openings(),
+                shortCircuited.get(),
+                throttled.get(),
+                throttleRejections.get()
+        );
+    }
+
+    /**
+     * Devolve a resposta final, que pode não ser de sucesso: um 4xx não é repetido e,
+     * esgotadas as tentativas, volta a última resposta 429/5xx para o chamador tratar.
+     */
+    private <T> Response<T> execute(Call<T> call, int attempts) throws IOException {
+        calls.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            // Um Call do Retrofit só executa uma vez; as novas tentativas usam uma cópia
+            Call<T> current = attempt == 1 ? call : call.clone();
+            Response<T> response;
+            try {
+                response = attempt(current);
+            } catch (CallRejectedException e) {
+                failures.incrementAndGet();
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= attempts) {
+                    failures.incrementAndGet();
+                    throw e;
+                }
+                log.warn("Falha na chamada à Pluggy (tentativa {} de {}): {}", attempt, attempts, e.toString());
+                backoff(attempt, null);
+                continue;
+            }
+
+            if (!isTransient(response) || attempt >= attempts) {
+                (response.isSuccessful() ? successes : failures).incrementAndGet();
+                return response;
+            }
+            log.warn("Pluggy respondeu {} (tentativa {} de {})", response.code(), attempt, attempts);
+            if (response.errorBody() != null) {
+                response.errorBody().close();
+            }
+            backoff(attempt, response);
+        }
+    }
+
+    private <T> Response<T> attempt(Call<T> call) throws IOException {
+        if (!circuitBreaker.tryAcquire()) {
+            shortCircuited.incrementAndGet();
+            throw new CallRejectedException("Pluggy circuit breaker is open");
+        }
+        try {
+            awaitRateLimit();
+        } catch (IOException e) {
+            circuitBreaker.release();
+            throw e;
+        }
+
+        call.timeout().timeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            Response<T> response = call.execute();
+            // 4xx e 429 mostram que a Pluggy está respondendo; só 5xx conta contra o disjuntor
+            if (response.code() >= 500) {
+                recordFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof InterruptedIOException) {
+                timeouts.incrementAndGet();
+            }
+            recordFailure();
+            throw e;
+        }
+    }
+
+    private void awaitRateLimit() throws IOException {
+        long waitNanos = rateLimiter.reserve(maxRateLimitWait.toNanos());
+        if (waitNanos < 0) {
+            throttleRejections.incrementAndGet();
+            throw new CallRejectedException("Pluggy rate limit exceeded");
+        }
+        if (waitNanos > 0) {
+            throttled.incrementAndGet();
+            sleep(waitNanos);
+        }
+    }
+
+    private void recordFailure() {
+        if (circuitBreaker.onFailure()) {
+            log.warn("Disjuntor da Pluggy aberto: chamadas serão recusadas por um tempo.");
+        }
+    }
+
+    // Backoff exponencial com jitter completo; um Retry-After maior do provedor é respeitado
+    private void backoff(int attempt, Response<?> response) throws IOException {
+        retries.incrementAndGet();
+        long ceiling = Math.min(maxDelay.toNanos(), baseDelay.toNanos() << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+
+        String retryAfter = response != null ? response.headers().get("Retry-After") : null;
+        if (retryAfter != null) {
+            try {
+                long requested = TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+                delay = Math.max(delay, Math.min(requested, maxDelay.toNanos()));
+            } catch (NumberFormatException ignored) {
+                // Retry-After em formato de data: fica o backoff calculado
+            }
+        }
+        sleep(delay);
+    }
+
+    private static boolean isTransient(Response<?> response) {
+        return response.code() == 429 || response.code() >= 500;
+    }
+
+    private static void sleep(long nanos) throws IOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to call Pluggy");
+        }
+    }
+}
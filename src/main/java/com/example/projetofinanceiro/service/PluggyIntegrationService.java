@@ -5,32 +5,93 @@ import ai.pluggy.client.request.CreateConnectTokenRequest;
 import ai.pluggy.client.request.TransactionsSearchRequest;
 import ai.pluggy.client.response.ConnectTokenResponse;
 import ai.pluggy.client.response.TransactionsResponse;
+import com.example.projetofinanceiro.dto.PluggySyncProgress;
+import com.example.projetofinanceiro.model.PluggySyncState;
 import com.example.projetofinanceiro.model.Transaction;
 import com.example.projetofinanceiro.model.TransactionType;
 import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.PluggySyncStateRepository;
+import com.example.projetofinanceiro.repository.TransactionBatchRepository;
 import com.example.projetofinanceiro.repository.TransactionRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import retrofit2.Response;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class PluggyIntegrationService {
 
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
     private final PluggyClient pluggyClient;
     private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransactionRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersionService dataVersionService;
+    private final DashboardDeltaService dashboardDeltaService;
+    private final DescriptionIndexService descriptionIndexService;
+    private final PluggySyncStateRepository syncStateRepository;
+    private final ExecutorService pluggyFetchExecutor;
+    private final PluggyCallExecutor pluggyCallExecutor;
+
+    @Value("${pluggy.sync.overlap-days:3}")
+    private int overlapDays;
+
+    @Value("${pluggy.sync.backfill-days:365}")
+    private int backfillDays;
+
+    @Value("${pluggy.sync.backfill-chunk-days:90}")
+    private int backfillChunkDays;
+
+    @Value("${pluggy.sync.page-size:500}")
+    private int pageSize;
+
+    @Value("${pluggy.sync.page-concurrency:4}")
+    private int pageConcurrency;
 
     public PluggyIntegrationService(
             @Value("${pluggy.client.id:}") String clientId,
             @Value("${pluggy.client.secret:}") String clientSecret,
-            TransactionRepository transactionRepository) {
+            TransactionRepository transactionRepository,
+            TransactionBatchRepository transactionBatchRepository,
+            TransactionRollupService rollupService,
+            PlatformTransactionManager transactionManager,
+            DataVersionService dataVersionService,
+            DashboardDeltaService dashboardDeltaService,
+            DescriptionIndexService descriptionIndexService,
+            PluggySyncStateRepository syncStateRepository,
+            ExecutorService pluggyFetchExecutor,
+            PluggyCallExecutor pluggyCallExecutor) {
         
         this.transactionRepository = transactionRepository;
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.rollupService = rollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataVersionService = dataVersionService;
+        this.dashboardDeltaService = dashboardDeltaService;
+        this.descriptionIndexService = descriptionIndexService;
+        this.syncStateRepository = syncStateRepository;
+        this.pluggyFetchExecutor = pluggyFetchExecutor;
+        this.pluggyCallExecutor = pluggyCallExecutor;
         
         if (clientId != null && !clientId.isEmpty() && clientSecret != null && !clientSecret.isEmpty()) {
             this.pluggyClient = PluggyClient.builder()
@@ -49,9 +110,8 @@ public class PluggyIntegrationService {
         try {
             // Na versão 0.10.0, o método pode exigir um objeto de request vazio ou nulo, 
             // mas CreateConnectTokenRequest é o padrão.
-            Response<ConnectTokenResponse> response = pluggyClient.service()
-                .createConnectToken(new CreateConnectTokenRequest())
-                .execute();
+            Response<ConnectTokenResponse> response = pluggyCallExecutor.write(pluggyClient.service()
+                .createConnectToken(new CreateConnectTokenRequest()));
             
             if (response.isSuccessful() && response.body() != null) {
                 return response.body().getAccessToken();
@@ -63,52 +123,229 @@ public class PluggyIntegrationService {
         }
     }
 
-    public void sincronizarTransacoes(String accountId, User user) {
+    public boolean isEnabled() {
+        return pluggyClient != null;
+    }
+
+    /**
+     * Guarda o item da Pluggy ao qual a conta pertence, para que os webhooks do item
+     * cheguem às contas certas. Sem itemId (clientes antigos) nada muda.
+     */
+    public void vincularItem(User user, String accountId, String itemId) {
+        if (accountId == null || accountId.isBlank() || itemId == null || itemId.isBlank()) return;
+
+        PluggySyncState state = syncStateRepository.findByUserIdAndAccountId(user.getId(), accountId)
+                .orElseGet(() -> {
+                    LocalDate today = LocalDate.now();
+                    return new PluggySyncState(user.getId(), accountId, today, today.minusDays(backfillDays));
+                });
+        if (itemId.equals(state.getItemId())) return;
+        state.setItemId(itemId);
+        try {
+            syncStateRepository.save(state);
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição criou o estado ao mesmo tempo; o próximo envio grava o item
+            log.warn("Item {} não vinculado à conta {}: estado criado em paralelo.", itemId, accountId);
+        }
+    }
+
+    /**
+     * Busca as transações novas da conta e grava página a página. Com marca d'água, lê só
+     * o intervalo desde a última sincronização (menos pluggy.sync.overlap-days, para pegar
+     * lançamentos publicados com atraso); a primeira sincronização faz a carga histórica
+     * de pluggy.sync.backfill-days em blocos, gravando o cursor a cada bloco para que uma
+     * interrupção continue de onde parou. Roda fora de transação: a chamada HTTP não segura
+     * conexão do banco, só a gravação de cada página. O progresso acumulado é entregue a
+     * onProgress depois de cada página; falhas da API ou de gravação são propagadas para
+     * quem agendou a sincronização, sem avançar a marca d'água do intervalo que falhou.
+     *
+     * O estado não tem trava própria: o PluggySyncJobService garante um job ativo por conta.
+     */
+    public PluggySyncProgress sincronizarTransacoes(String accountId, User user, Consumer<PluggySyncProgress> onProgress) throws IOException {
         if (pluggyClient == null) {
-            log.error("Pluggy client is not initialized.");
-            return;
+            throw new IllegalStateException("Pluggy client is not initialized.");
         }
 
-        try {
-            // Busca transações dos últimos 30 dias
-            TransactionsSearchRequest request = new TransactionsSearchRequest()
-                    .accountId(accountId)
-                    .from(LocalDate.now().minusDays(30).toString());
-
-            Response<TransactionsResponse> response = pluggyClient.service()
-                .transactions()
-                .list(request)
-                .execute();
-
-            if (response.isSuccessful() && response.body() != null && response.body().getResults() != null) {
-                int count = 0;
-                for (ai.pluggy.client.response.Transaction pluggyTx : response.body().getResults()) {
-                    if (saveTransaction(pluggyTx, user)) {
-                        count++;
+        LocalDate today = LocalDate.now();
+        PluggySyncState state = syncStateRepository.findByUserIdAndAccountId(user.getId(), accountId)
+                .orElseGet(() -> new PluggySyncState(user.getId(), accountId, today, today.minusDays(backfillDays)));
+        SyncRun run = new SyncRun(user, onProgress);
+
+        if (state.getLastSyncedDate() != null) {
+            fetchRange(run, accountId, state.getLastSyncedDate().minusDays(overlapDays), null);
+            state.setLastSyncedDate(today);
+            state.setLastSyncedAt(LocalDateTime.now());
+            state = syncStateRepository.save(state);
+        }
+
+        // Carga histórica do bloco mais recente para o mais antigo
+        while (state.isBackfillPending()) {
+            LocalDate to = state.getBackfillCursor().minusDays(1);
+            LocalDate from = to.minusDays(backfillChunkDays - 1L);
+            if (from.isBefore(state.getBackfillHorizon())) {
+                from = state.getBackfillHorizon();
+            }
+            // O bloco de hoje fica aberto no fim para trazer também lançamentos com data futura
+            fetchRange(run, accountId, from, to.isBefore(today) ? to : null);
+
+            state.setBackfillCursor(from.isAfter(state.getBackfillHorizon()) ? from : null);
+            if (state.getLastSyncedDate() == null) {
+                state.setLastSyncedDate(today);
+            }
+            state.setLastSyncedAt(LocalDateTime.now());
+            state = syncStateRepository.save(state);
+        }
+
+        int count = run.rowsInserted;
+        if (count > 0) {
+            dataVersionService.bump(user.getId());
+            // Um único conjunto de deltas para a sincronização inteira
+            dashboardDeltaService.touch(user.getId(), run.touched);
+        }
+        dashboardDeltaService.syncCompleted(user.getId(), "pluggy", count);
+        log.info("Sincronização concluída. {} páginas lidas, {} novas transações salvas para o usuário {}.", run.pages, count, user.getEmail());
+        return run.progress();
+    }
+
+    /**
+     * Lê todas as páginas do intervalo. A API pagina por número, então depois da primeira
+     * (que informa o total) as demais são buscadas em paralelo, até pluggy.sync.page-concurrency
+     * por vez; a gravação continua em ordem, na thread da sincronização.
+     */
+    private void fetchRange(SyncRun run, String accountId, LocalDate from, LocalDate to) throws IOException {
+        TransactionsResponse first = fetchPage(accountId, from, to, 1);
+        run.save(first);
+
+        int totalPages = first.getTotalPages() != null ? first.getTotalPages() : 1;
+        for (int start = 2; start <= totalPages; start += pageConcurrency) {
+            List<CompletableFuture<TransactionsResponse>> wave = new ArrayList<>();
+            for (int page = start; page < start + pageConcurrency && page <= totalPages; page++) {
+                int number = page;
+                wave.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return fetchPage(accountId, from, to, number);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
                     }
+                }, pluggyFetchExecutor));
+            }
+
+            try {
+                for (CompletableFuture<TransactionsResponse> page : wave) {
+                    run.save(page.join());
                 }
-                log.info("Sincronização concluída. {} novas transações salvas para o usuário {}.", count, user.getEmail());
-            } else {
-                log.error("Falha ao buscar transações da Pluggy. Código: {}, Mensagem: {}", response.code(), response.message());
+            } catch (CompletionException e) {
+                wave.forEach(page -> page.cancel(true));
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw e;
             }
+        }
+    }
 
-        } catch (IOException e) {
-            log.error("Erro de conexão com a API da Pluggy: ", e);
-        } catch (Exception e) {
-            log.error("Erro inesperado durante a sincronização: ", e);
+    private TransactionsResponse fetchPage(String accountId, LocalDate from, LocalDate to, int page) throws IOException {
+        TransactionsSearchRequest request = new TransactionsSearchRequest()
+                .accountId(accountId)
+                .from(from.toString())
+                .page(page)
+                .pageSize(pageSize);
+        if (to != null) {
+            request.to(to.toString());
+        }
+
+        Response<TransactionsResponse> response = pluggyCallExecutor.read(pluggyClient.service()
+            .transactions()
+            .list(request));
+
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("Falha ao buscar transações da Pluggy. Código: " + response.code() + ", Mensagem: " + response.message());
+        }
+        return response.body();
+    }
+
+    // Progresso acumulado de uma sincronização, somando todos os intervalos e páginas.
+    // Só contadores e o delta agregado: uma carga histórica não fica inteira na memória
+    private final class SyncRun {
+        private final User user;
+        private final Consumer<PluggySyncProgress> onProgress;
+        private final DashboardDeltaService.Delta touched = new DashboardDeltaService.Delta();
+        private int pages;
+        private int rowsInserted;
+        private int duplicates;
+
+        private SyncRun(User user, Consumer<PluggySyncProgress> onProgress) {
+            this.user = user;
+            this.onProgress = onProgress;
+        }
+
+        private void save(TransactionsResponse response) {
+            List<Transaction> page = new ArrayList<>();
+            if (response.getResults() != null) {
+                for (ai.pluggy.client.response.Transaction pluggyTx : response.getResults()) {
+                    Transaction transaction = toTransaction(pluggyTx, user);
+                    if (transaction != null) {
+                        page.add(transaction);
+                    }
+                }
+            }
+
+            List<Transaction> inserted = saveNew(page, user);
+            inserted.forEach(touched::add);
+            rowsInserted += inserted.size();
+            pages++;
+            duplicates += page.size() - inserted.size();
+            onProgress.accept(progress());
         }
+
+        private PluggySyncProgress progress() {
+            return new PluggySyncProgress(pages, rowsInserted, duplicates);
+        }
+    }
+
+    /**
+     * Grava só as transações da página que ainda não existem: uma consulta IN com os
+     * ids externos da página e um único INSERT em batch, tudo na mesma transação de
+     * banco que o rollup. Uma sincronização concorrente que grave o mesmo id entre a
+     * consulta e o INSERT é absorvida pelo ON CONFLICT DO NOTHING.
+     */
+    private List<Transaction> saveNew(List<Transaction> page, User user) {
+        if (page.isEmpty()) return List.of();
+        return transactionTemplate.execute(status -> {
+            Set<String> externalIds = new HashSet<>();
+            for (Transaction transaction : page) {
+                externalIds.add(transaction.getExternalId());
+            }
+            Set<String> existing = transactionRepository.findExistingExternalIds(externalIds);
+
+            List<Transaction> fresh = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (Transaction transaction : page) {
+                if (!existing.contains(transaction.getExternalId()) && seen.add(transaction.getExternalId())) {
+                    fresh.add(transaction);
+                }
+            }
+
+            List<Transaction> inserted = transactionBatchRepository.insertAllIgnoringConflicts(fresh);
+            rollupService.recordAll(user.getId(), inserted);
+            inserted.forEach(descriptionIndexService::record);
+            return inserted;
+        });
     }
 
-    private boolean saveTransaction(ai.pluggy.client.response.Transaction pluggyTx, User user) {
+    private Transaction toTransaction(ai.pluggy.client.response.Transaction pluggyTx, User user) {
         try {
-            // Verifica duplicidade pelo ID externo
-            if (transactionRepository.existsByExternalId(pluggyTx.getId())) {
-                return false; // Já existe, ignora
+            if (pluggyTx.getId() == null) {
+                log.warn("Transação da Pluggy sem id ignorada: {}", pluggyTx.getDescription());
+                return null;
             }
 
             Transaction transaction = new Transaction();
             transaction.setExternalId(pluggyTx.getId());
-            transaction.setDescription(pluggyTx.getDescription());
+            String description = pluggyTx.getDescription();
+            // Uma descrição longa demais derrubaria o INSERT do lote inteiro
+            transaction.setDescription(description != null && description.length() > MAX_DESCRIPTION_LENGTH
+                    ? description.substring(0, MAX_DESCRIPTION_LENGTH) : description);
             transaction.setUser(user);
             
             // Mapeamento de valor e tipo
@@ -135,13 +372,11 @@ public class PluggyIntegrationService {
             } else {
                 transaction.setDate(LocalDate.now());
             }
-
-            transactionRepository.save(transaction);
-            return true;
+            return transaction;
 
         } catch (Exception e) {
-            log.error("Erro ao converter/salvar transação {}: ", pluggyTx.getId(), e);
-            return false;
+            log.error("Erro ao converter transação {}: ", pluggyTx.getId(), e);
+            return null;
         }
     }
 }
@@ -0,0 +1,156 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.config.InstanceIdentity;
+import com.example.projetofinanceiro.dto.PluggySyncJobDTO;
+import com.example.projetofinanceiro.dto.PluggySyncProgress;
+import com.example.projetofinanceiro.model.PluggySyncJob;
+import com.example.projetofinanceiro.model.PluggySyncJobStatus;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.PluggySyncJobRepository;
+import com.example.projetofinanceiro.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sincronizações da Pluggy em segundo plano: o pedido vira uma linha em
+ * pluggy_sync_jobs e roda no pool limitado pluggySyncExecutor, longe das threads
+ * do Tomcat. Há no máximo um job ativo por usuário e conta, garantido pelo índice
+ * único parcial uk_pluggy_sync_jobs_active (schema-postgresql.sql); pedidos repetidos
+ * enquanto ele está na fila ou rodando recebem o mesmo job.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PluggySyncJobService {
+
+    private static final Set<PluggySyncJobStatus> ACTIVE = EnumSet.of(PluggySyncJobStatus.QUEUED, PluggySyncJobStatus.RUNNING);
+
+    private final PluggySyncJobRepository syncJobRepository;
+    private final UserRepository userRepository;
+    private final PluggyIntegrationService pluggyIntegrationService;
+    private final ExecutorService pluggySyncExecutor;
+    private final InstanceIdentity instanceIdentity;
+
+    @Value("${pluggy.sync.max-active-per-user:3}")
+    private int maxActivePerUser;
+
+    @Value("${pluggy.sync.jobs.ttl:P7D}")
+    private Duration ttl;
+
+    @Value("${pluggy.sync.jobs.stale-after:PT2M}")
+    private Duration staleAfter;
+
+    /**
+     * Sem lock na aplicação: dois pedidos simultâneos da mesma conta disputam o insert
+     * e o perdedor recebe o job do vencedor. O limite por usuário é conferido antes do
+     * insert e pode ser excedido por pedidos exatamente simultâneos de contas diferentes.
+     */
+    public PluggySyncJobDTO submit(User user, String accountId) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Account ID is required");
+        }
+        if (!pluggyIntegrationService.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Pluggy integration is not configured");
+        }
+
+        List<PluggySyncJob> active = syncJobRepository.findByUserIdAndAccountIdAndStatusIn(user.getId(), accountId, ACTIVE);
+        if (!active.isEmpty()) {
+            return PluggySyncJobDTO.from(active.get(0), true);
+        }
+
+        if (syncJobRepository.countByUserIdAndStatusIn(user.getId(), ACTIVE) >= maxActivePerUser) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many syncs in progress (max " + maxActivePerUser + ")");
+        }
+
+        PluggySyncJob job;
+        try {
+            PluggySyncJob queued = new PluggySyncJob(user.getId(), accountId);
+            queued.setOwner(instanceIdentity.getId());
+            queued.setHeartbeatAt(LocalDateTime.now());
+            job = syncJobRepository.save(queued);
+        } catch (DataIntegrityViolationException e) {
+            return syncJobRepository.findByUserIdAndAccountIdAndStatusIn(user.getId(), accountId, ACTIVE).stream()
+                    .findFirst()
+                    .map(existing -> PluggySyncJobDTO.from(existing, true))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Sync already in progress, try again"));
+        }
+        try {
+            pluggySyncExecutor.execute(() -> run(job.getId()));
+        } catch (RejectedExecutionException e) {
+            fail(job, "Sync queue is full");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Sync queue is full, try again later");
+        }
+        return PluggySyncJobDTO.from(job, false);
+    }
+
+    public PluggySyncJobDTO getStatus(User user, UUID jobId) {
+        PluggySyncJob job = syncJobRepository.findByIdAndUserId(jobId, user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Sync job not found"));
+        return PluggySyncJobDTO.from(job, false);
+    }
+
+    // Renova o heartbeat dos jobs na fila ou rodando nesta instância
+    public int heartbeat() {
+        return syncJobRepository.touchHeartbeat(instanceIdentity.getId(), ACTIVE, LocalDateTime.now());
+    }
+
+    /**
+     * Jobs cuja instância parou de renovar o heartbeat nunca vão terminar. Só esses são
+     * falhados: os de outras instâncias vivas (várias réplicas, deploy gradual) seguem.
+     */
+    public int failStale() {
+        LocalDateTime now = LocalDateTime.now();
+        return syncJobRepository.failStale(ACTIVE, now.minus(staleAfter), now, "Interrupted: the server running it stopped");
+    }
+
+    public int purgeFinished() {
+        return syncJobRepository.deleteFinishedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private void run(UUID jobId) {
+        // Só um worker assume o job; se ele já saiu de QUEUED não há nada a fazer
+        if (syncJobRepository.markRunning(jobId, LocalDateTime.now()) == 0) return;
+        PluggySyncJob job = syncJobRepository.findById(jobId).orElse(null);
+        if (job == null) return;
+
+        try {
+            User user = userRepository.findById(job.getUserId())
+                    .orElseThrow(() -> new IllegalStateException("Usuário do job não existe mais"));
+            PluggySyncProgress progress = pluggyIntegrationService.sincronizarTransacoes(job.getAccountId(), user,
+                    p -> syncJobRepository.updateProgress(jobId, p.pagesFetched(), p.rowsInserted(), p.duplicatesSkipped()));
+
+            job.setPagesFetched(progress.pagesFetched());
+            job.setRowsInserted(progress.rowsInserted());
+            job.setDuplicatesSkipped(progress.duplicatesSkipped());
+            job.setStatus(PluggySyncJobStatus.DONE);
+            job.setFinishedAt(LocalDateTime.now());
+            syncJobRepository.save(job);
+        } catch (Exception e) {
+            log.error("Erro na sincronização {} da conta {} do usuário {}: ", jobId, job.getAccountId(), job.getUserId(), e);
+            // O job carregado não viu o progresso gravado por página; relê antes de marcar a falha
+            fail(syncJobRepository.findById(jobId).orElse(job), "Failed to sync transactions from Pluggy");
+        }
+    }
+
+    private void fail(PluggySyncJob job, String message) {
+        job.setStatus(PluggySyncJobStatus.FAILED);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setErrorMessage(message);
+        syncJobRepository.save(job);
+    }
+}
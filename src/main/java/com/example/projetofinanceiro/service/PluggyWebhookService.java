@@ -0,0 +1,173 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.PluggySyncJobDTO;
+import com.example.projetofinanceiro.dto.PluggyWebhookDTO;
+import com.example.projetofinanceiro.dto.PluggyWebhookItemDTO;
+import com.example.projetofinanceiro.model.PluggySyncJobStatus;
+import com.example.projetofinanceiro.model.PluggySyncState;
+import com.example.projetofinanceiro.model.PluggyWebhookEventStatus;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.PluggySyncStateRepository;
+import com.example.projetofinanceiro.repository.PluggyWebhookEventRepository;
+import com.example.projetofinanceiro.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Webhooks da Pluggy (/api/pluggy/webhooks). O recebimento valida o segredo e o corpo,
+ * grava o evento na caixa de entrada e responde; nada de chamada à Pluggy nem de
+ * sincronização na requisição. processPending agrupa os eventos pendentes por item e,
+ * quando a rajada acalma, agenda uma única sincronização incremental para cada conta
+ * já sincronizada do item (pelo itemId gravado no estado ou pelo accountId do evento).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PluggyWebhookService {
+
+    // A Pluggy não assina o corpo; o segredo vai num header configurado no cadastro do webhook
+    public static final String SECRET_HEADER = "X-Webhook-Secret";
+
+    private static final int MAX_PAYLOAD_LENGTH = 16_384;
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    // Eventos que podem trazer transações novas; os demais ficam registrados como IGNORED
+    private static final Set<String> SYNC_EVENTS = Set.of(
+            "item/updated", "transactions/created", "transactions/updated", "transactions/deleted");
+
+    private final PluggyWebhookEventRepository webhookEventRepository;
+    private final PluggySyncStateRepository syncStateRepository;
+    private final UserRepository userRepository;
+    private final PluggySyncJobService pluggySyncJobService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${pluggy.webhooks.secret:}")
+    private String secret;
+
+    @Value("${pluggy.webhooks.coalesce-window:PT10S}")
+    private Duration coalesceWindow;
+
+    @Value("${pluggy.webhooks.max-delay:PT2M}")
+    private Duration maxDelay;
+
+    @Value("${pluggy.webhooks.ttl:P30D}")
+    private Duration ttl;
+
+    // Sem segredo configurado nenhum webhook é aceito
+    public boolean isAuthentic(String providedSecret) {
+        if (secret == null || secret.isEmpty() || providedSecret == null) return false;
+        return MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), providedSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null quando o corpo não é um webhook válido
+    public PluggyWebhookDTO parse(String payload) {
+        if (payload == null || payload.isEmpty() || payload.length() > MAX_PAYLOAD_LENGTH) return null;
+        try {
+            PluggyWebhookDTO webhook = objectMapper.readValue(payload, PluggyWebhookDTO.class);
+            if (!isValidField(webhook.event()) || !isValidField(webhook.eventId()) || !isValidField(webhook.itemId())) return null;
+            if (webhook.accountId() != null && webhook.accountId().length() > MAX_FIELD_LENGTH) return null;
+            return webhook;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Grava o evento na caixa de entrada. Retorna false para um reenvio de um event_id
+     * já recebido, que não gera nova sincronização.
+     */
+    public boolean receive(PluggyWebhookDTO webhook, String payload) {
+        PluggyWebhookEventStatus status = SYNC_EVENTS.contains(webhook.event())
+                ? PluggyWebhookEventStatus.PENDING : PluggyWebhookEventStatus.IGNORED;
+        return webhookEventRepository.insertIfAbsent(webhook.eventId(), webhook.event(), webhook.itemId(),
+                webhook.accountId(), payload, status.name(), LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * Agenda uma sincronização por item cuja rajada de eventos terminou (nenhum evento novo
+     * em pluggy.webhooks.coalesce-window) ou que espera há mais de pluggy.webhooks.max-delay.
+     * Se a sincronização não puder ser agendada agora, os eventos continuam pendentes.
+     */
+    public int processPending() {
+        LocalDateTime now = LocalDateTime.now();
+        int dispatched = 0;
+
+        for (PluggyWebhookItemDTO item : webhookEventRepository.findPendingItems()) {
+            boolean quiet = !item.lastReceivedAt().isAfter(now.minus(coalesceWindow));
+            boolean overdue = !item.firstReceivedAt().isAfter(now.minus(maxDelay));
+            if (!quiet && !overdue) continue;
+
+            try {
+                List<PluggySyncState> owners = owners(item.itemId());
+                PluggyWebhookEventStatus outcome;
+                if (owners.isEmpty()) {
+                    log.warn("Webhooks da Pluggy para o item {} ignorados: nenhum usuário sincronizou esse item.", item.itemId());
+                    outcome = PluggyWebhookEventStatus.IGNORED;
+                } else if (submitAll(item.itemId(), owners)) {
+                    outcome = PluggyWebhookEventStatus.PROCESSED;
+                    dispatched++;
+                } else {
+                    continue;
+                }
+                webhookEventRepository.closePending(item.itemId(), outcome, item.lastReceivedAt(), now);
+                log.info("{} webhooks da Pluggy do item {} agrupados ({}).", item.events(), item.itemId(), outcome);
+            } catch (Exception e) {
+                log.error("Erro ao processar webhooks da Pluggy do item {}: ", item.itemId(), e);
+            }
+        }
+        return dispatched;
+    }
+
+    public int purgeClosed() {
+        return webhookEventRepository.deleteClosedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private List<PluggySyncState> owners(String itemId) {
+        Map<Long, PluggySyncState> owners = new LinkedHashMap<>();
+        syncStateRepository.findByItemId(itemId).forEach(state -> owners.put(state.getId(), state));
+        List<String> accountIds = webhookEventRepository.findPendingAccountIds(itemId);
+        if (!accountIds.isEmpty()) {
+            syncStateRepository.findByAccountIdIn(accountIds).forEach(state -> owners.putIfAbsent(state.getId(), state));
+        }
+        return new ArrayList<>(owners.values());
+    }
+
+    // false quando algum dono precisa de nova tentativa
+    private boolean submitAll(String itemId, List<PluggySyncState> owners) {
+        boolean complete = true;
+        for (PluggySyncState owner : owners) {
+            User user = userRepository.findById(owner.getUserId()).orElse(null);
+            if (user == null) continue;
+            try {
+                PluggySyncJobDTO job = pluggySyncJobService.submit(user, owner.getAccountId());
+                // Um job já rodando pode ter lido as páginas antes desses eventos: tenta de novo quando ele terminar
+                if (job.coalesced() && job.status() == PluggySyncJobStatus.RUNNING) {
+                    complete = false;
+                }
+            } catch (ResponseStatusException e) {
+                log.warn("Sincronização da conta {} do item {} adiada: {}", owner.getAccountId(), itemId, e.getReason());
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    private static boolean isValidField(String value) {
+        return value != null && !value.isBlank() && value.length() <= MAX_FIELD_LENGTH;
+    }
+}
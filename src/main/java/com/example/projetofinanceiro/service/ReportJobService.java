@@ -0,0 +1,376 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.config.InstanceIdentity;
+import com.example.projetofinanceiro.dto.CashFlowDTO;
+import com.example.projetofinanceiro.dto.CategoryReportDTO;
+import com.example.projetofinanceiro.dto.ReportJobDTO;
+import com.example.projetofinanceiro.dto.ReportJobRequestDTO;
+import com.example.projetofinanceiro.export.ExportFormat;
+import com.example.projetofinanceiro.model.ReportGranularity;
+import com.example.projetofinanceiro.model.ReportJob;
+import com.example.projetofinanceiro.model.ReportJobStatus;
+import com.example.projetofinanceiro.model.ReportJobType;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.ReportJobRepository;
+import com.example.projetofinanceiro.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Relatórios assíncronos: o pedido vira uma linha em report_jobs, roda no pool
+ * limitado reportJobExecutor e o resultado fica comprimido em disco até expirar.
+ *
+ * O cacheKey junta usuário, tipo, parâmetros normalizados e a versão dos dados
+ * (DataVersionService); enquanto nada mudar, o mesmo pedido devolve o job já
+ * existente em vez de gerar o relatório de novo. O índice único parcial
+ * uk_report_jobs_active (schema-postgresql.sql) garante um só job ativo por cacheKey.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportJobService {
+
+    private static final Set<ReportJobStatus> ACTIVE = EnumSet.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING);
+    private static final String JSON = "json";
+
+    private final ReportJobRepository reportJobRepository;
+    private final UserRepository userRepository;
+    private final ReportService reportService;
+    private final ExportService exportService;
+    private final DataVersionService dataVersionService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService reportJobExecutor;
+    private final InstanceIdentity instanceIdentity;
+
+    @Value("${reports.jobs.storage-dir:${java.io.tmpdir}/lume-reports}")
+    private String storageDir;
+
+    @Value("${reports.jobs.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${reports.jobs.stale-after:PT2M}")
+    private Duration staleAfter;
+
+    @Value("${reports.jobs.max-active-per-user:2}")
+    private int maxActivePerUser;
+
+    /**
+     * Sem lock na aplicação: dois pedidos idênticos simultâneos disputam o insert e o
+     * perdedor recebe o job do vencedor. O limite por usuário é conferido antes do
+     * insert e pode ser excedido por pedidos diferentes exatamente simultâneos.
+     */
+    public ReportJobDTO submit(User user, ReportJobRequestDTO request) {
+        ReportJobRequestDTO normalized = normalize(request);
+        String params = toJson(normalized);
+        String dataVersion = dataVersionService.token(user.getId());
+        String cacheKey = sha256(user.getId() + "|" + normalized.type() + "|" + params + "|" + dataVersion);
+
+        ReportJobDTO reused = findReusable(user, cacheKey);
+        if (reused != null) {
+            return reused;
+        }
+
+        if (reportJobRepository.countByUserIdAndStatusIn(user.getId(), ACTIVE) >= maxActivePerUser) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many report jobs in progress (max " + maxActivePerUser + ")");
+        }
+
+        ReportJob job;
+        try {
+            ReportJob queued = new ReportJob(user.getId(), normalized.type(), params, dataVersion, cacheKey);
+            queued.setOwner(instanceIdentity.getId());
+            queued.setHeartbeatAt(LocalDateTime.now());
+            job = reportJobRepository.save(queued);
+        } catch (DataIntegrityViolationException e) {
+            reused = findReusable(user, cacheKey);
+            if (reused == null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Report job already in progress, try again");
+            }
+            return reused;
+        }
+        try {
+            reportJobExecutor.execute(() -> run(job.getId()));
+        } catch (RejectedExecutionException e) {
+            fail(job, "Report queue is full");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Report queue is full, try again later");
+        }
+        return ReportJobDTO.from(job, false);
+    }
+
+    // Job em andamento ou concluído com o arquivo ainda em disco; null se não houver
+    private ReportJobDTO findReusable(User user, String cacheKey) {
+        for (ReportJob existing : reportJobRepository.findReusable(user.getId(), cacheKey, LocalDateTime.now())) {
+            if (existing.isActive() || Files.exists(Paths.get(existing.getResultPath()))) {
+                return ReportJobDTO.from(existing, true);
+            }
+        }
+        return null;
+    }
+
+    public ReportJobDTO getStatus(User user, UUID jobId) {
+        return ReportJobDTO.from(find(user, jobId), false);
+    }
+
+    public ResponseEntity<StreamingResponseBody> getResult(User user, UUID jobId, boolean acceptsGzip) {
+        ReportJob job = find(user, jobId);
+        if (job.getStatus() != ReportJobStatus.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report job is " + job.getStatus().name().toLowerCase(Locale.ROOT));
+        }
+        Path path = Paths.get(job.getResultPath());
+        if (job.isExpired(LocalDateTime.now()) || !Files.exists(path)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Report result has expired");
+        }
+
+        // Arquivo em gzip vai como está para quem aceita; para os demais descomprime no caminho
+        boolean passthrough = !job.isResultGzipped() || acceptsGzip;
+        StreamingResponseBody body = out -> {
+            try (InputStream in = passthrough ? Files.newInputStream(path) : new GZIPInputStream(Files.newInputStream(path), 8 * 1024)) {
+                in.transferTo(out);
+            }
+            out.flush();
+        };
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, job.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(job.getFileName()).build().toString());
+        if (job.isResultGzipped()) {
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (passthrough) {
+            builder.contentLength(job.getResultSize());
+            if (job.isResultGzipped()) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
+        return builder.body(body);
+    }
+
+    // Remove arquivos e linhas vencidos; falhas ficam pelo mesmo TTL para consulta de status
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ReportJob> expired = reportJobRepository.findExpired(now, now.minus(ttl));
+        for (ReportJob job : expired) {
+            deleteQuietly(job.getResultPath());
+        }
+        reportJobRepository.deleteAll(expired);
+        return expired.size();
+    }
+
+    // Renova o heartbeat dos jobs na fila ou rodando nesta instância
+    public int heartbeat() {
+        return reportJobRepository.touchHeartbeat(instanceIdentity.getId(), ACTIVE, LocalDateTime.now());
+    }
+
+    /**
+     * Jobs cuja instância parou de renovar o heartbeat nunca vão terminar; os de outras
+     * instâncias vivas, que ainda podem estar gravando o arquivo, não são tocados.
+     */
+    public int failStale() {
+        LocalDateTime now = LocalDateTime.now();
+        return reportJobRepository.failStale(ACTIVE, now.minus(staleAfter), now, "Interrupted: the server running it stopped");
+    }
+
+    private void run(UUID jobId) {
+        // Só um worker assume o job; se ele já saiu de QUEUED não há nada a fazer
+        if (reportJobRepository.markRunning(jobId, LocalDateTime.now()) == 0) return;
+        ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+        if (job == null) return;
+
+        try {
+            User user = userRepository.findById(job.getUserId())
+                    .orElseThrow(() -> new IllegalStateException("Usuário do job não existe mais"));
+            ReportJobRequestDTO request = objectMapper.readValue(job.getParams(), ReportJobRequestDTO.class);
+            writeResult(job, user, request);
+
+            LocalDateTime finishedAt = LocalDateTime.now();
+            job.setStatus(ReportJobStatus.DONE);
+            job.setFinishedAt(finishedAt);
+            job.setExpiresAt(finishedAt.plus(ttl));
+            reportJobRepository.save(job);
+        } catch (ResponseStatusException e) {
+            fail(job, e.getReason());
+        } catch (Exception e) {
+            log.error("Erro ao gerar relatório {} do usuário {}: ", jobId, job.getUserId(), e);
+            deleteQuietly(job.getResultPath());
+            fail(job, "Failed to generate report");
+        }
+    }
+
+    private void writeResult(ReportJob job, User user, ReportJobRequestDTO request) throws IOException {
+        Path dir = Paths.get(storageDir);
+        Files.createDirectories(dir);
+
+        boolean json = JSON.equals(request.format());
+        ExportFormat format = json ? null : ExportFormat.from(request.format());
+        boolean gzip = json || format.isCompressible();
+        String extension = json ? JSON : format.extension();
+
+        // Grava num temporário e move no fim: um leitor nunca vê arquivo pela metade
+        Path temp = dir.resolve(job.getId() + ".tmp");
+        Path target = dir.resolve(job.getId() + "." + extension + (gzip ? ".gz" : ""));
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp));
+             OutputStream out = gzip ? new GZIPOutputStream(file, 8 * 1024) : file) {
+            writeContent(out, user, request, format);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        job.setResultPath(target.toString());
+        job.setResultSize(Files.size(target));
+        job.setResultGzipped(gzip);
+        job.setContentType(json ? "application/json" : format.contentType());
+        job.setFileName(ExportService.filename(baseName(request.type()), extension));
+    }
+
+    private void writeContent(OutputStream out, User user, ReportJobRequestDTO request, ExportFormat format) throws IOException {
+        switch (request.type()) {
+            case CASH_FLOW -> {
+                List<CashFlowDTO> cashFlow = reportService.generateCashFlow(user, request.startDate(), request.endDate(),
+                        ReportGranularity.from(request.granularity()));
+                if (format == null) objectMapper.writeValue(out, cashFlow);
+                else exportService.writeCashFlow(out, cashFlow, format);
+            }
+            case EXPENSES_BY_CATEGORY -> {
+                List<CategoryReportDTO> categories = reportService.getExpensesByCategory(user, request.month(), request.year());
+                if (format == null) objectMapper.writeValue(out, categories);
+                else exportService.writeExpensesByCategory(out, categories, format);
+            }
+            case TRANSACTIONS_EXPORT -> exportService.writeTransactions(out, user, request.startDate(), request.endDate(),
+                    request.categoryId(), format);
+        }
+    }
+
+    /**
+     * Preenche os padrões e descarta campos que não se aplicam ao tipo, para que
+     * pedidos equivalentes gerem o mesmo JSON de parâmetros (e o mesmo cacheKey).
+     */
+    private ReportJobRequestDTO normalize(ReportJobRequestDTO request) {
+        if (request == null || request.type() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "type must be one of CASH_FLOW, EXPENSES_BY_CATEGORY, TRANSACTIONS_EXPORT");
+        }
+
+        LocalDate today = LocalDate.now();
+        String format = request.format() != null ? request.format().trim().toLowerCase(Locale.ROOT) : null;
+
+        return switch (request.type()) {
+            case CASH_FLOW -> {
+                LocalDate start = request.startDate() != null ? request.startDate() : today.withDayOfMonth(1);
+                LocalDate end = request.endDate() != null ? request.endDate() : today.withDayOfMonth(today.lengthOfMonth());
+                validateRange(start, end);
+                ReportGranularity granularity = ReportGranularity.from(request.granularity() != null ? request.granularity() : "day");
+                yield new ReportJobRequestDTO(ReportJobType.CASH_FLOW, start, end, granularity.name(), null, null, null, reportFormat(format));
+            }
+            case EXPENSES_BY_CATEGORY -> {
+                int month = request.month() != null ? request.month() : today.getMonthValue();
+                int year = request.year() != null ? request.year() : today.getYear();
+                if (month < 1 || month > 12) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "month must be between 1 and 12");
+                }
+                yield new ReportJobRequestDTO(ReportJobType.EXPENSES_BY_CATEGORY, null, null, null, month, year, null, reportFormat(format));
+            }
+            case TRANSACTIONS_EXPORT -> {
+                // Sem datas, exporta o histórico inteiro (mesmo padrão de /api/transactions/export)
+                LocalDate start = request.startDate() != null ? request.startDate() : LocalDate.of(1900, 1, 1);
+                LocalDate end = request.endDate() != null ? request.endDate() : LocalDate.of(9999, 12, 31);
+                validateRange(start, end);
+                String exportFormat = ExportFormat.from(format != null ? format : "csv").name().toLowerCase(Locale.ROOT);
+                yield new ReportJobRequestDTO(ReportJobType.TRANSACTIONS_EXPORT, start, end, null, null, null, request.categoryId(), exportFormat);
+            }
+        };
+    }
+
+    private String reportFormat(String format) {
+        if (format == null || format.equals(JSON)) return JSON;
+        return ExportFormat.from(format).name().toLowerCase(Locale.ROOT);
+    }
+
+    private void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "endDate must not be before startDate");
+        }
+    }
+
+    private String baseName(ReportJobType type) {
+        return switch (type) {
+            case CASH_FLOW -> ExportService.CASH_FLOW;
+            case EXPENSES_BY_CATEGORY -> ExportService.EXPENSES_BY_CATEGORY;
+            case TRANSACTIONS_EXPORT -> ExportService.TRANSACTIONS;
+        };
+    }
+
+    private ReportJob find(User user, UUID jobId) {
+        return reportJobRepository.findByIdAndUserId(jobId, user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job not found"));
+    }
+
+    private void fail(ReportJob job, String message) {
+        job.setStatus(ReportJobStatus.FAILED);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setErrorMessage(message);
+        reportJobRepository.save(job);
+    }
+
+    private void deleteQuietly(String path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (IOException e) {
+            log.warn("Não foi possível remover o resultado {}: {}", path, e.getMessage());
+        }
+    }
+
+    private String toJson(ReportJobRequestDTO request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,98 +1,195 @@
 package com.example.projetofinanceiro.service;
 
 import com.example.projetofinanceiro.dto.CashFlowDTO;
+import com.example.projetofinanceiro.dto.CategoryComparisonDTO;
+import com.example.projetofinanceiro.dto.CategoryComparisonReportDTO;
+import com.example.projetofinanceiro.dto.CategoryMonthDTO;
+import com.example.projetofinanceiro.dto.CategoryMonthlyTotalDTO;
 import com.example.projetofinanceiro.dto.CategoryReportDTO;
-import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.dto.CategoryTotalDTO;
+import com.example.projetofinanceiro.dto.DailyTypeTotalDTO;
+import com.example.projetofinanceiro.dto.MonthlySummaryDTO;
+import com.example.projetofinanceiro.dto.SummaryLineDTO;
+import com.example.projetofinanceiro.model.ReportGranularity;
 import com.example.projetofinanceiro.model.TransactionType;
 import com.example.projetofinanceiro.model.User;
-import com.example.projetofinanceiro.repository.TransactionRepository;
+import com.example.projetofinanceiro.repository.TransactionDailyRollupRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ReportService {
 
-    private final TransactionRepository transactionRepository;
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final MonthlySummaryService monthlySummaryService;
 
-    public List<CashFlowDTO> generateCashFlow(LocalDate startDate, LocalDate endDate) {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
-        List<Transaction> transactions = transactionRepository.findByUser(user).stream()
-                .filter(t -> !t.getDate().isBefore(startDate) && !t.getDate().isAfter(endDate))
-                .collect(Collectors.toList());
+    public List<CashFlowDTO> generateCashFlow(User user, LocalDate startDate, LocalDate endDate, ReportGranularity granularity) {
+        validateRange(startDate, endDate);
 
-        Map<LocalDate, List<Transaction>> transactionsByDate = transactions.stream()
-                .collect(Collectors.groupingBy(Transaction::getDate));
+        // (data, tipo, soma) ordenados por data: por dia, ou por mês direto do banco
+        // quando o período pedido é mês, trimestre ou ano
+        List<DailyTypeTotalDTO> totals = granularity.isMonthBased()
+                ? rollupRepository.sumMonthlyByType(user.getId(), startDate, endDate).stream()
+                        .map(m -> new DailyTypeTotalDTO(LocalDate.of(m.year(), m.month(), 1), m.type(), m.total()))
+                        .toList()
+                : rollupRepository.sumDailyByDateAndType(user.getId(), startDate, endDate);
 
         List<CashFlowDTO> cashFlow = new ArrayList<>();
-        
-        LocalDate current = startDate;
-        while (!current.isAfter(endDate)) {
-            List<Transaction> dailyTransactions = transactionsByDate.getOrDefault(current, new ArrayList<>());
-
-            BigDecimal income = dailyTransactions.stream()
-                    .filter(t -> t.getType() == TransactionType.INCOME)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal expense = dailyTransactions.stream()
-                    .filter(t -> t.getType() == TransactionType.EXPENSE)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal running = BigDecimal.ZERO;
+        CashFlowDTO previous = null;
+
+        // Uma passada: avança o cursor sobre as linhas ordenadas enquanto percorre os períodos
+        int next = 0;
+        for (LocalDate periodStart = granularity.periodStart(startDate); !periodStart.isAfter(endDate);
+             periodStart = granularity.nextPeriodStart(periodStart)) {
+            LocalDate from = periodStart.isBefore(startDate) ? startDate : periodStart;
+            LocalDate periodEnd = granularity.nextPeriodStart(periodStart).minusDays(1);
+            LocalDate to = periodEnd.isAfter(endDate) ? endDate : periodEnd;
+
+            BigDecimal income = BigDecimal.ZERO;
+            BigDecimal expense = BigDecimal.ZERO;
+            while (next < totals.size() && !totals.get(next).date().isAfter(to)) {
+                DailyTypeTotalDTO row = totals.get(next++);
+                if (row.type() == TransactionType.INCOME) income = income.add(row.total());
+                else if (row.type() == TransactionType.EXPENSE) expense = expense.add(row.total());
+            }
 
             BigDecimal net = income.subtract(expense);
-
-            cashFlow.add(new CashFlowDTO(current, income, expense, net));
-            current = current.plusDays(1);
+            running = running.add(net);
+            CashFlowDTO bucket = new CashFlowDTO(from, to, income, expense, net, running,
+                    previous != null ? income.subtract(previous.totalIncome()) : null,
+                    previous != null ? expense.subtract(previous.totalExpense()) : null,
+                    previous != null ? net.subtract(previous.netBalance()) : null);
+            cashFlow.add(bucket);
+            previous = bucket;
         }
 
         return cashFlow;
     }
 
-    public List<CategoryReportDTO> getExpensesByCategory(int month, int year) {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+    public List<CategoryReportDTO> getExpensesByCategory(User user, int month, int year) {
+        YearMonth period = YearMonth.of(year, month);
+        if (monthlySummaryService.isClosed(period)) {
+            return getExpensesByCategory(monthlySummaryService.getSummary(user, period));
+        }
 
-        List<Transaction> expenses = transactionRepository.findByUser(user).stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .filter(t -> !t.getDate().isBefore(startDate) && !t.getDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        // (categoria, soma) agrupados no banco, apenas do mês pedido
+        return toCategoryReport(rollupRepository.sumByCategory(user.getId(), TransactionType.EXPENSE,
+                period.atDay(1), period.atEndOfMonth()));
+    }
 
-        BigDecimal totalExpenses = expenses.stream()
-                .map(Transaction::getAmount)
+    // Mês fechado: as mesmas somas, lidas do resumo gravado
+    public List<CategoryReportDTO> getExpensesByCategory(MonthlySummaryDTO summary) {
+        Map<String, BigDecimal> byName = new LinkedHashMap<>();
+        for (SummaryLineDTO line : summary.byCategory()) {
+            if (line.type() == TransactionType.EXPENSE) {
+                byName.merge(line.name(), line.total(), BigDecimal::add);
+            }
+        }
+        return toCategoryReport(byName.entrySet().stream()
+                .map(e -> new CategoryTotalDTO(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparing(CategoryTotalDTO::getTotalAmount).reversed())
+                .toList());
+    }
+
+    private List<CategoryReportDTO> toCategoryReport(List<CategoryTotalDTO> expensesByCategory) {
+        BigDecimal totalExpenses = expensesByCategory.stream()
+                .map(CategoryTotalDTO::getTotalAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         if (totalExpenses.compareTo(BigDecimal.ZERO) == 0) {
             return new ArrayList<>();
         }
 
-        Map<String, BigDecimal> expensesByCategory = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory().getName() : "Sem Categoria",
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
-                ));
-
-        return expensesByCategory.entrySet().stream()
-                .map(entry -> {
-                    BigDecimal value = entry.getValue();
+        return expensesByCategory.stream()
+                .map(category -> {
+                    BigDecimal value = category.getTotalAmount();
                     Double percentage = value.divide(totalExpenses, 4, RoundingMode.HALF_UP)
                             .multiply(new BigDecimal(100))
                             .doubleValue();
-                    return new CategoryReportDTO(entry.getKey(), value, percentage);
+                    return new CategoryReportDTO(category.getCategoryName(), value, percentage);
                 })
-                .sorted((a, b) -> b.totalValue().compareTo(a.totalValue()))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Despesas por categoria em meses consecutivos (from..to). Uma consulta agrupada
+     * no rollup devolve as linhas ordenadas por categoria e mês; uma passada linear
+     * monta a série de cada categoria, preenchendo com zero os meses sem gasto.
+     */
+    public CategoryComparisonReportDTO compareCategories(User user, YearMonth from, YearMonth to) {
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to must not be before from");
+        }
+        int periods = (int) from.until(to, ChronoUnit.MONTHS) + 1;
+
+        List<CategoryMonthlyTotalDTO> rows = rollupRepository.sumMonthlyByCategory(user.getId(), TransactionType.EXPENSE,
+                from.atDay(1), to.atEndOfMonth());
+
+        List<CategoryComparisonDTO> categories = new ArrayList<>();
+        int next = 0;
+        while (next < rows.size()) {
+            CategoryMonthlyTotalDTO first = rows.get(next);
+            BigDecimal[] amounts = new BigDecimal[periods];
+            Arrays.fill(amounts, BigDecimal.ZERO);
+            // Linhas da mesma categoria são contíguas; o índice do mês vem direto de (ano, mês)
+            while (next < rows.size() && Objects.equals(rows.get(next).categoryId(), first.categoryId())) {
+                CategoryMonthlyTotalDTO row = rows.get(next++);
+                int index = (int) from.until(YearMonth.of(row.year(), row.month()), ChronoUnit.MONTHS);
+                amounts[index] = amounts[index].add(row.total());
+            }
+            categories.add(toComparison(first.categoryId(), first.categoryName(), from, amounts));
+        }
+
+        categories.sort(Comparator.comparing(CategoryComparisonDTO::currentAmount).reversed()
+                .thenComparing(CategoryComparisonDTO::categoryName));
+        return new CategoryComparisonReportDTO(from, to, periods, categories);
+    }
+
+    private CategoryComparisonDTO toComparison(Long categoryId, String categoryName, YearMonth from, BigDecimal[] amounts) {
+        List<CategoryMonthDTO> months = new ArrayList<>(amounts.length);
+        for (int i = 0; i < amounts.length; i++) {
+            BigDecimal previous = i > 0 ? amounts[i - 1] : null;
+            months.add(new CategoryMonthDTO(from.plusMonths(i), amounts[i],
+                    previous != null ? amounts[i].subtract(previous) : null,
+                    percentageChange(amounts[i], previous)));
+        }
+
+        BigDecimal current = amounts[amounts.length - 1];
+        BigDecimal previous = amounts.length > 1 ? amounts[amounts.length - 2] : null;
+        return new CategoryComparisonDTO(categoryId, categoryName, current, previous, percentageChange(current, previous), months);
+    }
+
+    private Double percentageChange(BigDecimal current, BigDecimal previous) {
+        if (previous == null || previous.signum() == 0) {
+            return null;
+        }
+        return current.subtract(previous)
+                .divide(previous, 4, RoundingMode.HALF_UP)
+                .multiply(new BigDecimal(100))
+                .doubleValue();
+    }
+
+    private void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "endDate must not be before startDate");
+        }
+    }
 }
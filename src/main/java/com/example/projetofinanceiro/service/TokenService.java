@@ -4,19 +4,28 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.projetofinanceiro.model.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
 @Service
 public class TokenService {
+    // Tokens com escopo só valem onde o escopo permite; o token de login não tem essa claim
+    private static final String SCOPE_CLAIM = "scope";
+    private static final String STREAM_SCOPE = "stream";
+
     @Value("${api.security.token.secret}")
     private String secret;
 
+    @Value("${api.security.stream-token.ttl:PT1M}")
+    private Duration streamTokenTtl;
+
     public String generateToken(User user){
         try{
             Algorithm algorithm = Algorithm.HMAC256(secret);
@@ -30,19 +39,55 @@ public class TokenService {
         }
     }
 
-    public String validateToken(String token){
-        try {
+    /**
+     * Token de curta duração só para abrir o /api/stream. O EventSource do navegador não
+     * envia o header Authorization, então ele vai na query string, onde pode parar em
+     * logs de acesso: por isso expira logo e não serve para o resto da API.
+     */
+    public String generateStreamToken(User user){
+        try{
             Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
+            return JWT.create()
                     .withIssuer("auth-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+                    .withSubject(user.getEmail())
+                    .withClaim(SCOPE_CLAIM, STREAM_SCOPE)
+                    .withExpiresAt(Instant.now().plus(streamTokenTtl))
+                    .sign(algorithm);
+        } catch (JWTCreationException exception) {
+            throw new RuntimeException("Error while generating stream token", exception);
+        }
+    }
+
+    public long getStreamTokenTtlSeconds(){
+        return streamTokenTtl.toSeconds();
+    }
+
+    public String validateToken(String token){
+        try {
+            DecodedJWT jwt = verify(token);
+            return jwt.getClaim(SCOPE_CLAIM).isMissing() ? jwt.getSubject() : "";
+        } catch (JWTVerificationException exception){
+            return "";
+        }
+    }
+
+    public String validateStreamToken(String token){
+        try {
+            DecodedJWT jwt = verify(token);
+            return STREAM_SCOPE.equals(jwt.getClaim(SCOPE_CLAIM).asString()) ? jwt.getSubject() : "";
         } catch (JWTVerificationException exception){
             return "";
         }
     }
 
+    private DecodedJWT verify(String token){
+        Algorithm algorithm = Algorithm.HMAC256(secret);
+        return JWT.require(algorithm)
+                .withIssuer("auth-api")
+                .build()
+                .verify(token);
+    }
+
     private Instant genExpirationDate(){
         return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
     }
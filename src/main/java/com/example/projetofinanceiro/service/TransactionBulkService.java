@@ -0,0 +1,162 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.TransactionBulkRequestDTO;
+import com.example.projetofinanceiro.dto.TransactionBulkResultDTO;
+import com.example.projetofinanceiro.model.Account;
+import com.example.projetofinanceiro.model.Category;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.TransactionBulkOperation;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.AccountRepository;
+import com.example.projetofinanceiro.repository.CategoryRepository;
+import com.example.projetofinanceiro.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Exclusão e alteração de várias transações em uma única transação de banco.
+ *
+ * As transações são carregadas uma vez (com a verificação de posse na própria
+ * consulta) para desfazer seus efeitos no rollup, nos saldos e nos limites dos
+ * cartões; a alteração em si é um único UPDATE/DELETE. Os efeitos derivados são
+ * agregados por chave (dia/categoria, conta, cartão) em vez de aplicados por linha.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionBulkService {
+
+    public static final int MAX_BULK_IDS = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRollupService rollupService;
+    private final AccountBalanceService accountBalanceService;
+    private final CreditCardLimitService creditCardLimitService;
+    private final DescriptionIndexService descriptionIndexService;
+    private final DashboardDeltaService dashboardDeltaService;
+    private final DataVersionService dataVersionService;
+    private final NetWorthSnapshotService netWorthSnapshotService;
+
+    @Transactional
+    public TransactionBulkResultDTO apply(User user, TransactionBulkRequestDTO request) {
+        TransactionBulkOperation operation = TransactionBulkOperation.from(request.operation());
+        Set<Long> ids = validateIds(request.ids());
+
+        // Destino resolvido antes de qualquer escrita
+        Category category = null;
+        Account account = null;
+        switch (operation) {
+            case SET_CATEGORY -> category = request.categoryId() != null ? findCategory(request.categoryId(), user) : null;
+            case SET_ACCOUNT -> {
+                if (request.accountId() == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "accountId is required for set-account");
+                }
+                account = findAccount(request.accountId(), user);
+            }
+            case SET_DATE -> {
+                if (request.date() == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "date is required for set-date");
+                }
+            }
+            case DELETE -> { }
+        }
+
+        List<Transaction> transactions = transactionRepository.findAllForBulk(ids, user);
+        if (transactions.size() != ids.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "One or more transactions not found");
+        }
+
+        UUID userId = user.getId();
+        rollupService.revertAll(userId, transactions);
+        accountBalanceService.revertAll(transactions);
+        dashboardDeltaService.touch(userId, transactions);
+
+        // Excluir ou mover para uma conta libera o limite usado pelas despesas no cartão
+        if (operation == TransactionBulkOperation.DELETE || operation == TransactionBulkOperation.SET_ACCOUNT) {
+            creditCardLimitService.revertAll(transactions);
+        }
+
+        // Os UPDATE/DELETE em lote limpam o contexto de persistência: as entidades já
+        // carregadas ficam desanexadas e são alteradas só em memória, para recalcular
+        // os efeitos com os valores novos
+        int affected;
+        switch (operation) {
+            case DELETE -> {
+                transactions.forEach(descriptionIndexService::revert);
+                affected = transactionRepository.bulkDelete(ids, user);
+            }
+            case SET_CATEGORY -> {
+                affected = transactionRepository.bulkSetCategory(ids, user, category);
+                for (Transaction transaction : transactions) {
+                    transaction.setCategory(category);
+                }
+            }
+            case SET_ACCOUNT -> {
+                affected = transactionRepository.bulkSetAccount(ids, user, account);
+                for (Transaction transaction : transactions) {
+                    transaction.setAccount(account);
+                    transaction.setCreditCard(null);
+                }
+            }
+            case SET_DATE -> {
+                affected = transactionRepository.bulkSetDate(ids, user, request.date());
+                for (Transaction transaction : transactions) {
+                    transaction.setDate(request.date());
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected operation " + operation);
+        }
+
+        if (operation != TransactionBulkOperation.DELETE) {
+            rollupService.recordAll(userId, transactions);
+            accountBalanceService.recordAll(transactions);
+            dashboardDeltaService.touch(userId, transactions);
+        }
+        dataVersionService.bump(userId);
+        netWorthSnapshotService.markDirty(userId);
+
+        return new TransactionBulkResultDTO(operation.name().toLowerCase(Locale.ROOT).replace('_', '-'), affected);
+    }
+
+    private Set<Long> validateIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must not be empty");
+        }
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        if (unique.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must not contain null");
+        }
+        if (unique.size() > MAX_BULK_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BULK_IDS + " transactions per request");
+        }
+        return unique;
+    }
+
+    private Category findCategory(Long categoryId, User user) {
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+        if (!category.getUser().getId().equals(user.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Category does not belong to user");
+        }
+        return category;
+    }
+
+    private Account findAccount(Long accountId, User user) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
+        if (!account.getUser().getId().equals(user.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Account does not belong to user");
+        }
+        return account;
+    }
+}
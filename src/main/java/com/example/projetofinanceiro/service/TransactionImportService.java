@@ -0,0 +1,341 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.ImportRowErrorDTO;
+import com.example.projetofinanceiro.dto.StreamEventDTO;
+import com.example.projetofinanceiro.dto.TransactionImportResultDTO;
+import com.example.projetofinanceiro.importer.ImportFormat;
+import com.example.projetofinanceiro.importer.ImportRowException;
+import com.example.projetofinanceiro.importer.StatementReader;
+import com.example.projetofinanceiro.importer.StatementRow;
+import com.example.projetofinanceiro.importer.StatementValues;
+import com.example.projetofinanceiro.model.Account;
+import com.example.projetofinanceiro.model.Category;
+import com.example.projetofinanceiro.model.CreditCard;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.AccountRepository;
+import com.example.projetofinanceiro.repository.CategoryRepository;
+import com.example.projetofinanceiro.repository.CreditCardRepository;
+import com.example.projetofinanceiro.repository.TransactionBatchRepository;
+import com.example.projetofinanceiro.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importação de extratos CSV/OFX. O arquivo é lido em streaming e gravado em lotes
+ * com INSERT em batch via JDBC: as transações usam id IDENTITY, que impede o
+ * Hibernate de agrupar inserts, e aqui o id gerado não é necessário.
+ *
+ * Cada lote de batchSize linhas é gravado em uma transação curta própria, junto com
+ * rollup, saldos e limites dos cartões (somas agregadas por lote); a memória fica
+ * limitada a um lote e nenhuma conexão fica presa enquanto o arquivo é lido. As linhas
+ * levam o importId: se a importação falhar no meio, os lotes já gravados são apagados
+ * e os agregados do usuário recalculados. Linhas inválidas vão para o relatório de
+ * erros sem interromper as demais.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionImportService {
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final CategoryRepository categoryRepository;
+    private final AccountRepository accountRepository;
+    private final CreditCardRepository creditCardRepository;
+    private final UsageLimitService usageLimitService;
+    private final TransactionRollupService rollupService;
+    private final AccountBalanceService accountBalanceService;
+    private final CreditCardLimitService creditCardLimitService;
+    private final DescriptionIndexService descriptionIndexService;
+    private final DashboardDeltaService dashboardDeltaService;
+    private final DataVersionService dataVersionService;
+    private final NetWorthSnapshotService netWorthSnapshotService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${transactions.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${transactions.import.max-rows:200000}")
+    private long maxRows;
+
+    @Value("${transactions.import.max-reported-errors:500}")
+    private int maxReportedErrors;
+
+    public TransactionImportResultDTO importStatement(User user, InputStream in, ImportFormat format,
+                                                      Long accountId, Long creditCardId) throws IOException {
+        if (accountId != null && creditCardId != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Use either accountId or creditCardId, not both");
+        }
+
+        long started = System.nanoTime();
+        Lookup lookup = new Lookup(user);
+        Account defaultAccount = accountId != null ? lookup.account(accountId) : null;
+        CreditCard defaultCard = creditCardId != null ? lookup.card(creditCardId) : null;
+
+        ImportRun run = new ImportRun(UUID.randomUUID().toString(), user, format,
+                usageLimitService.remainingTransactions(user));
+
+        // Leitura sem transação: um upload lento de parsear não segura conexão do pool
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        try (StatementReader reader = format.open(in)) {
+            StatementRow row;
+            while ((row = reader.next()) != null) {
+                if (++run.totalRows > maxRows) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "File has more than " + maxRows + " rows");
+                }
+                try {
+                    batch.add(new PendingRow(row.line(), toTransaction(row, run, lookup, defaultAccount, defaultCard)));
+                } catch (ImportRowException e) {
+                    run.error(row.line(), e.getMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    write(run, batch);
+                    batch.clear();
+                }
+            }
+            write(run, batch);
+        } catch (IOException | RuntimeException e) {
+            undo(run, e);
+            throw e;
+        }
+
+        UUID userId = run.user.getId();
+        dashboardDeltaService.importProgress(userId, run.progress(true));
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Importação {} ({}) do usuário {}: {} linhas em {} ms, {} importadas, {} duplicadas, {} com erro",
+                run.importId, format, userId, run.totalRows, elapsed, run.importedRows, run.duplicateRows, run.failedRows);
+
+        return new TransactionImportResultDTO(run.importId, format.name().toLowerCase(Locale.ROOT), run.totalRows,
+                run.importedRows, run.duplicateRows, run.failedRows, run.errors,
+                run.failedRows > run.errors.size(), elapsed);
+    }
+
+    private void write(ImportRun run, List<PendingRow> batch) {
+        if (batch.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status -> flush(run, batch));
+    }
+
+    /**
+     * Desfaz os lotes já gravados de uma importação que falhou: apaga as linhas pelo
+     * importId e recalcula rollup, saldos e limites do usuário com as consultas
+     * agrupadas da reconciliação, sem carregar as transações.
+     */
+    private void undo(ImportRun run, Exception cause) {
+        if (run.importedRows == 0) return;
+        UUID userId = run.user.getId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int deleted = transactionRepository.deleteByImportId(run.importId, userId);
+                rollupService.rebuild(userId);
+                accountBalanceService.reconcile(userId);
+                creditCardLimitService.reconcile(userId);
+                descriptionIndexService.invalidate(userId);
+                dataVersionService.bump(userId);
+                netWorthSnapshotService.markDirty(userId);
+                log.warn("Importação {} do usuário {} falhou; {} linhas gravadas foram removidas", run.importId, userId, deleted);
+            });
+        } catch (RuntimeException e) {
+            log.error("Não foi possível desfazer a importação {} do usuário {}", run.importId, userId, e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private Transaction toTransaction(StatementRow row, ImportRun run, Lookup lookup,
+                                      Account defaultAccount, CreditCard defaultCard) {
+        if (row.description() == null) throw new ImportRowException("description is required");
+
+        Transaction transaction = new Transaction();
+        transaction.setUser(run.user);
+        transaction.setDate(StatementValues.parseDate(row.date()));
+
+        BigDecimal amount = StatementValues.parseAmount(row.amount());
+        TransactionType type = StatementValues.parseType(row.type());
+        if (type == null) {
+            type = amount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+        }
+        transaction.setType(type);
+        transaction.setAmount(amount.abs());
+
+        // Mesmo escape aplicado na criação pela API
+        String description = HtmlUtils.htmlEscape(row.description());
+        if (description.length() > MAX_TEXT_LENGTH) throw new ImportRowException("description is too long");
+        transaction.setDescription(description);
+
+        if (row.category() != null) {
+            transaction.setCategory(lookup.categoryByName(row.category()));
+        }
+
+        if (row.account() != null) {
+            Account account = lookup.accountByName(row.account());
+            if (account != null) {
+                transaction.setAccount(account);
+            } else {
+                transaction.setCreditCard(lookup.cardByName(row.account()));
+            }
+        } else {
+            transaction.setAccount(defaultAccount);
+            transaction.setCreditCard(defaultCard);
+        }
+
+        if (row.externalId() != null) {
+            // O id do banco só é único dentro da conta de origem
+            String scope = transaction.getAccount() != null ? "a" + transaction.getAccount().getId()
+                    : transaction.getCreditCard() != null ? "c" + transaction.getCreditCard().getId()
+                    : "u" + run.user.getId();
+            String externalId = run.format.name().toLowerCase(Locale.ROOT) + ":" + scope + ":" + row.externalId();
+            if (externalId.length() > MAX_TEXT_LENGTH) throw new ImportRowException("id is too long");
+            transaction.setExternalId(externalId);
+        }
+        transaction.setImportId(run.importId);
+        return transaction;
+    }
+
+    private void flush(ImportRun run, List<PendingRow> batch) {
+        // Linhas já importadas antes (ou repetidas neste lote) são ignoradas; os lotes
+        // anteriores desta importação já foram gravados
+        Set<String> externalIds = new HashSet<>();
+        for (PendingRow pending : batch) {
+            if (pending.transaction.getExternalId() != null) externalIds.add(pending.transaction.getExternalId());
+        }
+        Set<String> existing = externalIds.isEmpty() ? Set.of() : transactionRepository.findExistingExternalIds(externalIds);
+
+        List<Transaction> transactions = new ArrayList<>(batch.size());
+        Set<String> seen = new HashSet<>();
+        for (PendingRow pending : batch) {
+            String externalId = pending.transaction.getExternalId();
+            if (externalId != null && (existing.contains(externalId) || !seen.add(externalId))) {
+                run.duplicateRows++;
+            } else if (run.importedRows + transactions.size() >= run.allowance) {
+                run.error(pending.line, "Limite de transações do plano gratuito atingido.");
+            } else {
+                transactions.add(pending.transaction);
+            }
+        }
+        if (transactions.isEmpty()) {
+            dashboardDeltaService.importProgress(run.user.getId(), run.progress(false));
+            return;
+        }
+
+        transactionBatchRepository.insertAll(transactions);
+
+        UUID userId = run.user.getId();
+        rollupService.recordAll(userId, transactions);
+        accountBalanceService.recordAll(transactions);
+        creditCardLimitService.recordAll(transactions);
+        dashboardDeltaService.touch(userId, transactions);
+        descriptionIndexService.invalidate(userId);
+        dataVersionService.bump(userId);
+        netWorthSnapshotService.markDirty(userId);
+
+        run.importedRows += transactions.size();
+        dashboardDeltaService.importProgress(userId, run.progress(false));
+    }
+
+    private record PendingRow(long line, Transaction transaction) {}
+
+    // Contadores e relatório de erros de uma importação
+    private final class ImportRun {
+        final String importId;
+        final User user;
+        final ImportFormat format;
+        final long allowance;
+        final List<ImportRowErrorDTO> errors = new ArrayList<>();
+        long totalRows;
+        long importedRows;
+        long duplicateRows;
+        long failedRows;
+
+        ImportRun(String importId, User user, ImportFormat format, long allowance) {
+            this.importId = importId;
+            this.user = user;
+            this.format = format;
+            this.allowance = allowance;
+        }
+
+        void error(long line, String message) {
+            failedRows++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowErrorDTO(line, message));
+            }
+        }
+
+        StreamEventDTO.ImportProgress progress(boolean done) {
+            return new StreamEventDTO.ImportProgress(importId, totalRows, importedRows, failedRows, done);
+        }
+    }
+
+    // Categorias, contas e cartões do usuário, carregados uma vez por importação
+    private final class Lookup {
+        final Map<String, Category> categoriesByName = new HashMap<>();
+        final Map<Long, Account> accountsById = new HashMap<>();
+        final Map<String, Account> accountsByName = new HashMap<>();
+        final Map<Long, CreditCard> cardsById = new HashMap<>();
+        final Map<String, CreditCard> cardsByName = new HashMap<>();
+
+        Lookup(User user) {
+            for (Category category : categoryRepository.findByUser(user)) {
+                categoriesByName.putIfAbsent(StatementValues.key(category.getName()), category);
+            }
+            for (Account account : accountRepository.findByUser(user)) {
+                accountsById.put(account.getId(), account);
+                accountsByName.putIfAbsent(StatementValues.key(account.getName()), account);
+            }
+            for (CreditCard card : creditCardRepository.findByUser(user)) {
+                cardsById.put(card.getId(), card);
+                cardsByName.putIfAbsent(StatementValues.key(card.getName()), card);
+            }
+        }
+
+        Account account(Long id) {
+            Account account = accountsById.get(id);
+            if (account == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found");
+            return account;
+        }
+
+        CreditCard card(Long id) {
+            CreditCard card = cardsById.get(id);
+            if (card == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Credit Card not found");
+            return card;
+        }
+
+        Category categoryByName(String name) {
+            Category category = categoriesByName.get(StatementValues.key(name));
+            if (category == null) throw new ImportRowException("Unknown category: " + name);
+            return category;
+        }
+
+        Account accountByName(String name) {
+            return accountsByName.get(StatementValues.key(name));
+        }
+
+        CreditCard cardByName(String name) {
+            CreditCard card = cardsByName.get(StatementValues.key(name));
+            if (card == null) throw new ImportRowException("Unknown account: " + name);
+            return card;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.RollupDriftDTO;
+import com.example.projetofinanceiro.dto.RollupTotalDTO;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.TransactionDailyRollup;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.repository.TransactionDailyRollupRepository;
+import com.example.projetofinanceiro.repository.TransactionDailyRollupUpsertRepository;
+import com.example.projetofinanceiro.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Mantém a tabela transaction_daily_rollup em sincronia com as transações.
+ *
+ * record/revert devem ser chamados dentro da mesma transação de banco que grava
+ * a transação, para que o rollup nunca fique à frente (ou atrás) dos dados brutos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionRollupService {
+
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final TransactionDailyRollupUpsertRepository upsertRepository;
+    private final TransactionRepository transactionRepository;
+    private final MonthlySummaryService monthlySummaryService;
+
+    @Transactional
+    public void record(Transaction transaction) {
+        if (!isRollable(transaction)) return;
+        apply(transaction, transaction.getAmount(), 1);
+    }
+
+    @Transactional
+    public void revert(Transaction transaction) {
+        if (!isRollable(transaction)) return;
+        apply(transaction, transaction.getAmount().negate(), -1);
+        rollupRepository.deleteEmpty(transaction.getUser().getId(), transaction.getDate());
+    }
+
+    /**
+     * Versões em lote de record/revert: uma atualização por combinação de
+     * (dia, tipo, categoria, conta, cartão) em vez de uma por transação.
+     */
+    @Transactional
+    public void recordAll(UUID userId, Collection<Transaction> transactions) {
+        applyAll(userId, transactions, 1);
+    }
+
+    @Transactional
+    public void revertAll(UUID userId, Collection<Transaction> transactions) {
+        Set<LocalDate> dates = applyAll(userId, transactions, -1);
+        dates.forEach(date -> rollupRepository.deleteEmpty(userId, date));
+    }
+
+    @Transactional
+    public void rebuild(UUID userId) {
+        rollupRepository.deleteByUserId(userId);
+        monthlySummaryService.reopenAll(userId);
+        List<TransactionDailyRollup> rows = transactionRepository.computeRollupTotalsByUser(userId).stream()
+                .map(total -> toEntity(userId, total))
+                .toList();
+        // Upsert em vez de INSERT: uma transação gravada em paralelo pode recriar uma chave
+        upsertRepository.upsertAll(rows);
+    }
+
+    /**
+     * Recalcula os rollups a partir das transações e compara com o que está gravado.
+     * Se houver divergência, o rollup do usuário é reconstruído.
+     */
+    @Transactional
+    public RollupDriftDTO reconcile(UUID userId) {
+        Map<RollupKey, RollupTotalDTO> expected = index(transactionRepository.computeRollupTotalsByUser(userId));
+        Map<RollupKey, RollupTotalDTO> actual = index(rollupRepository.findTotalsByUser(userId));
+
+        Set<RollupKey> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        int drifted = 0;
+        for (RollupKey key : keys) {
+            RollupTotalDTO e = expected.get(key);
+            RollupTotalDTO a = actual.get(key);
+            if (e == null || a == null
+                    || e.total().compareTo(a.total()) != 0
+                    || !e.transactionCount().equals(a.transactionCount())) {
+                drifted++;
+                log.warn("Drift no rollup do usuário {} em {}: esperado {}, encontrado {}", userId, key, e, a);
+            }
+        }
+
+        if (drifted > 0) {
+            rebuild(userId);
+        }
+        return new RollupDriftDTO(userId, keys.size(), drifted, drifted > 0);
+    }
+
+    private void apply(Transaction transaction, BigDecimal amount, long count) {
+        UUID userId = transaction.getUser().getId();
+        // Escrita retroativa: o resumo do mês fechado deixa de valer
+        monthlySummaryService.reopen(userId, transaction.getDate());
+        increment(userId, keyOf(transaction), amount, count);
+    }
+
+    private Set<LocalDate> applyAll(UUID userId, Collection<Transaction> transactions, int sign) {
+        Accumulator accumulator = new Accumulator();
+        transactions.forEach(accumulator::add);
+        apply(userId, accumulator, sign);
+        return accumulator.dates;
+    }
+
+    /**
+     * Para importações grandes: acumula as transações de vários lotes e aplica no
+     * rollup uma vez só, com uma atualização por combinação ao fim.
+     */
+    @Transactional
+    public void recordAll(UUID userId, Accumulator accumulator) {
+        apply(userId, accumulator, 1);
+    }
+
+    private void apply(UUID userId, Accumulator accumulator, int sign) {
+        accumulator.months.forEach(month -> monthlySummaryService.reopen(userId, month));
+
+        List<TransactionDailyRollup> deltas = new ArrayList<>(accumulator.totals.size());
+        accumulator.totals.forEach((key, total) -> {
+            BigDecimal amount = sign < 0 ? total.negate() : total;
+            deltas.add(toEntity(userId, key, amount, sign * accumulator.counts.get(key)));
+        });
+        upsertRepository.upsertAll(deltas);
+    }
+
+    private void increment(UUID userId, RollupKey key, BigDecimal amount, long count) {
+        upsertRepository.upsertAll(List.of(toEntity(userId, key, amount, count)));
+    }
+
+    private TransactionDailyRollup toEntity(UUID userId, RollupKey key, BigDecimal amount, long count) {
+        return new TransactionDailyRollup(userId, key.date(), key.type(),
+                key.categoryId(), key.accountId(), key.creditCardId(), amount, count);
+    }
+
+    private static RollupKey keyOf(Transaction transaction) {
+        Long categoryId = transaction.getCategory() != null ? transaction.getCategory().getId() : null;
+        Long accountId = transaction.getAccount() != null ? transaction.getAccount().getId() : null;
+        Long creditCardId = transaction.getCreditCard() != null ? transaction.getCreditCard().getId() : null;
+        return new RollupKey(transaction.getDate(), transaction.getType(), categoryId, accountId, creditCardId);
+    }
+
+    private static boolean isRollable(Transaction transaction) {
+        return transaction.getUser() != null
+                && transaction.getDate() != null
+                && transaction.getType() != null
+                && transaction.getAmount() != null;
+    }
+
+    private TransactionDailyRollup toEntity(UUID userId, RollupTotalDTO total) {
+        return new TransactionDailyRollup(userId, total.date(), total.type(), total.categoryId(),
+                total.accountId(), total.creditCardId(), total.total(), total.transactionCount());
+    }
+
+    private Map<RollupKey, RollupTotalDTO> index(List<RollupTotalDTO> totals) {
+        Map<RollupKey, RollupTotalDTO> map = new HashMap<>();
+        for (RollupTotalDTO total : totals) {
+            map.put(new RollupKey(total.date(), total.type(), total.categoryId(), total.accountId(), total.creditCardId()), total);
+        }
+        return map;
+    }
+
+    public static final class Accumulator {
+        private final Map<RollupKey, BigDecimal> totals = new HashMap<>();
+        private final Map<RollupKey, Long> counts = new HashMap<>();
+        private final Set<YearMonth> months = new HashSet<>();
+        private final Set<LocalDate> dates = new HashSet<>();
+
+        public void add(Transaction transaction) {
+            if (!isRollable(transaction)) return;
+            RollupKey key = keyOf(transaction);
+            totals.merge(key, transaction.getAmount(), BigDecimal::add);
+            counts.merge(key, 1L, Long::sum);
+            months.add(YearMonth.from(transaction.getDate()));
+            dates.add(transaction.getDate());
+        }
+    }
+
+    private record RollupKey(LocalDate date, TransactionType type, Long categoryId, Long accountId, Long creditCardId) {}
+}
@@ -32,19 +32,29 @@ public class UsageLimitService {
 
         checkTrialPeriod(user);
 
-        long count = transactionRepository.findByUser(user).size();
+        long count = transactionRepository.countByUser(user);
         if (count >= MAX_TRANSACTIONS_FREE) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Limite de transações do plano gratuito atingido (" + MAX_TRANSACTIONS_FREE + ").");
         }
     }
 
+    // Quantas transações o usuário ainda pode criar (para importações em lote)
+    public long remainingTransactions(User user) {
+        if (user.getPlanType() == PlanType.LIFETIME) return Long.MAX_VALUE;
+        if (user.getPlanType() == PlanType.PRO) return Long.MAX_VALUE;
+
+        checkTrialPeriod(user);
+
+        return Math.max(0, MAX_TRANSACTIONS_FREE - transactionRepository.countByUser(user));
+    }
+
     public void checkAccountLimit(User user) {
         if (user.getPlanType() == PlanType.LIFETIME) return;
         if (user.getPlanType() == PlanType.PRO) return;
 
         checkTrialPeriod(user);
 
-        long count = accountRepository.findByUser(user).size();
+        long count = accountRepository.countByUser(user);
         if (count >= MAX_ACCOUNTS_FREE) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Limite de contas do plano gratuito atingido (" + MAX_ACCOUNTS_FREE + ").");
         }
@@ -56,7 +66,7 @@ public class UsageLimitService {
 
         checkTrialPeriod(user);
 
-        long count = creditCardRepository.findByUser(user).size();
+        long count = creditCardRepository.countByUser(user);
         if (count >= MAX_CARDS_FREE) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Limite de cartões do plano gratuito atingido (" + MAX_CARDS_FREE + ").");
         }
@@ -0,0 +1,188 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.StreamEventDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conexões SSE abertas por usuário.
+ *
+ * A requisição é assíncrona (SseEmitter), então uma conexão ociosa não ocupa
+ * thread do Tomcat. Cada conexão tem uma fila limitada; quem publica só enfileira
+ * e a entrega acontece no streamExecutor. Se a fila encher (cliente lento), ela é
+ * descartada e substituída por um único evento "resync".
+ */
+@Slf4j
+@Service
+public class UserEventStreamService {
+
+    private final ExecutorService streamExecutor;
+    private final Map<UUID, Deque<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    @Value("${stream.sse.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${stream.sse.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${stream.sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${stream.sse.max-connections:10000}")
+    private int maxConnections;
+
+    public UserEventStreamService(ExecutorService streamExecutor) {
+        this.streamExecutor = streamExecutor;
+    }
+
+    public SseEmitter subscribe(UUID userId) {
+        if (openConnections.get() >= maxConnections) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open streams");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Connection connection = new Connection(userId, emitter, bufferSize);
+        Deque<Connection> userConnections = connections.computeIfAbsent(userId, id -> new ConcurrentLinkedDeque<>());
+        userConnections.addLast(connection);
+        openConnections.incrementAndGet();
+
+        // Abas demais do mesmo usuário: fecha a mais antiga
+        while (userConnections.size() > maxConnectionsPerUser) {
+            Connection oldest = userConnections.pollFirst();
+            if (oldest != null) oldest.close();
+        }
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+        return emitter;
+    }
+
+    public boolean hasSubscribers(UUID userId) {
+        Deque<Connection> userConnections = connections.get(userId);
+        return userConnections != null && !userConnections.isEmpty();
+    }
+
+    public void publish(UUID userId, StreamEventDTO event) {
+        Deque<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) return;
+        for (Connection connection : userConnections) {
+            connection.enqueue(event);
+        }
+    }
+
+    public void publish(UUID userId, List<StreamEventDTO> events) {
+        for (StreamEventDTO event : events) {
+            publish(userId, event);
+        }
+    }
+
+    public int openConnections() {
+        return openConnections.get();
+    }
+
+    // Comentário SSE periódico: mantém proxies abertos e detecta clientes que sumiram
+    @Scheduled(fixedRateString = "${stream.sse.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Deque<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.enqueue(null);
+            }
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) return;
+        openConnections.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private final class Connection {
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamEventDTO> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean heartbeatPending;
+
+        private Connection(UUID userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+        }
+
+        // null = heartbeat, que não ocupa espaço na fila
+        private void enqueue(StreamEventDTO event) {
+            if (closed.get()) return;
+            if (event == null) {
+                heartbeatPending = true;
+            } else if (!buffer.offer(event)) {
+                buffer.clear();
+                buffer.offer(new StreamEventDTO(StreamEventDTO.RESYNC, new StreamEventDTO.Resync("buffer-overflow")));
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                streamExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (heartbeatPending) {
+                    heartbeatPending = false;
+                    emitter.send(SseEmitter.event().comment("ping"));
+                }
+                StreamEventDTO event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event().name(event.name()).data(event.payload(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectou; o emitter dispara onError/onCompletion
+                log.debug("Stream do usuário {} encerrado: {}", userId, e.getMessage());
+                close();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty() || heartbeatPending) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            remove(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Já finalizado
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+-- Índices que as anotações do JPA não expressam. Roda a cada subida, depois do
+-- ddl-auto (spring.jpa.defer-datasource-initialization); tudo aqui é idempotente.
+
+-- Chave única do rollup diário, com as dimensões nulas valendo 0. Duplicatas gravadas
+-- antes do índice existir são removidas uma única vez; a reconciliação da subida
+-- (RollupReconciliationScheduler) reconstrói os totais dos usuários afetados.
+DELETE FROM transaction_daily_rollup r
+USING transaction_daily_rollup d
+WHERE NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uk_rollup_key')
+  AND r.user_id = d.user_id
+  AND r.date = d.date
+  AND r.type = d.type
+  AND COALESCE(r.category_id, 0) = COALESCE(d.category_id, 0)
+  AND COALESCE(r.account_id, 0) = COALESCE(d.account_id, 0)
+  AND COALESCE(r.credit_card_id, 0) = COALESCE(d.credit_card_id, 0)
+  AND r.id > d.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_rollup_key ON transaction_daily_rollup
+  (user_id, date, type, COALESCE(category_id, 0), COALESCE(account_id, 0), COALESCE(credit_card_id, 0));
+
+-- Um job de sincronização ativo por usuário e conta da Pluggy; quem perde a disputa
+-- do insert recebe o job existente (PluggySyncJobService). Duplicatas gravadas antes
+-- do índice existir viram FAILED uma única vez, ficando só o job mais recente.
+UPDATE pluggy_sync_jobs j
+SET status = 'FAILED', finished_at = now(), error_message = 'Superseded by a newer sync job'
+WHERE NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uk_pluggy_sync_jobs_active')
+  AND j.status IN ('QUEUED', 'RUNNING')
+  AND EXISTS (SELECT 1 FROM pluggy_sync_jobs n
+              WHERE n.user_id = j.user_id
+                AND n.account_id = j.account_id
+                AND n.status IN ('QUEUED', 'RUNNING')
+                AND (n.created_at, n.id) > (j.created_at, j.id));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_pluggy_sync_jobs_active ON pluggy_sync_jobs (user_id, account_id)
+  WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Um relatório ativo por pedido idêntico (mesmo cacheKey); quem perde a disputa do
+-- insert reaproveita o job existente (ReportJobService). Mesma limpeza única acima.
+UPDATE report_jobs j
+SET status = 'FAILED', finished_at = now(), error_message = 'Superseded by a newer report job'
+WHERE NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uk_report_jobs_active')
+  AND j.status IN ('QUEUED', 'RUNNING')
+  AND EXISTS (SELECT 1 FROM report_jobs n
+              WHERE n.user_id = j.user_id
+                AND n.cache_key = j.cache_key
+                AND n.status IN ('QUEUED', 'RUNNING')
+                AND (n.created_at, n.id) > (j.created_at, j.id));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_report_jobs_active ON report_jobs (user_id, cache_key)
+  WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,188 @@
+package com.example.projetofinanceiro.controller;
+
+import com.example.projetofinanceiro.dto.PluggySyncJobDTO;
+import com.example.projetofinanceiro.model.PluggySyncJobStatus;
+import com.example.projetofinanceiro.model.PluggySyncState;
+import com.example.projetofinanceiro.model.PluggyWebhookEvent;
+import com.example.projetofinanceiro.model.PluggyWebhookEventStatus;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.PluggySyncStateRepository;
+import com.example.projetofinanceiro.repository.PluggyWebhookEventRepository;
+import com.example.projetofinanceiro.repository.UserRepository;
+import com.example.projetofinanceiro.service.PluggySyncJobService;
+import com.example.projetofinanceiro.service.PluggyWebhookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Um remetente falso faz o papel da Pluggy e envia webhooks ao servidor local. A
+ * sincronização é substituída por um mock para contar quantas vezes ela é agendada.
+ * O processamento periódico fica desligado; o teste chama processPending diretamente.
+ * Usa o usuário demo do seed e é pulado quando ele não existe.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "pluggy.webhooks.secret=test-secret",
+    "pluggy.webhooks.coalesce-window=PT1S",
+    "pluggy.webhooks.process-delay=PT1H"
+})
+class PluggyWebhookIngestionTest {
+
+    // Ids no formato da Pluggy; item e conta são coisas diferentes
+    private static final String ITEM_ID = "b7e1c2d4-5f60-4a8b-9c3d-2e1f0a9b8c7d";
+    private static final String ACCOUNT_ID = "03a1f9e2-6c4b-4d7e-8f21-9b0c5d3e7a64";
+    private static final String LEGACY_ACCOUNT_ID = "5d9e4b21-0f3a-47c6-a8e2-6b1c9d0f4e35";
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private PluggySyncJobService pluggySyncJobService;
+
+    @Autowired
+    private PluggyWebhookService pluggyWebhookService;
+    @Autowired
+    private PluggyWebhookEventRepository webhookEventRepository;
+    @Autowired
+    private PluggySyncStateRepository syncStateRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final String prefix = "evt-" + UUID.randomUUID() + "-";
+
+    @AfterEach
+    void cleanUp() {
+        webhookEventRepository.deleteAll(webhookEventRepository.findAll().stream()
+                .filter(event -> event.getEventId().startsWith(prefix))
+                .toList());
+        syncStateRepository.deleteAll(syncStateRepository.findByAccountIdIn(List.of(ACCOUNT_ID, LEGACY_ACCOUNT_ID)));
+    }
+
+    @Test
+    void burstForOneItemBecomesOneSync() throws Exception {
+        User user = demoUser();
+        PluggySyncState state = new PluggySyncState(user.getId(), ACCOUNT_ID, LocalDate.now(), LocalDate.now());
+        state.setItemId(ITEM_ID);
+        syncStateRepository.save(state);
+        when(pluggySyncJobService.submit(any(), eq(ACCOUNT_ID))).thenReturn(queuedJob(ACCOUNT_ID));
+
+        // item/updated não traz accountId: a conta é achada pelo item gravado no estado
+        for (int i = 0; i < 5; i++) {
+            assertEquals(202, send("test-secret", webhook("item/updated", prefix + i, ITEM_ID, null)));
+        }
+        // Reenvio do mesmo evento: confirmado, mas não gravado de novo
+        assertEquals(200, send("test-secret", webhook("item/updated", prefix + 0, ITEM_ID, null)));
+        assertEquals(5, events().size());
+
+        // Ainda dentro da janela de agrupamento: nada é agendado
+        pluggyWebhookService.processPending();
+        verify(pluggySyncJobService, never()).submit(any(), any());
+
+        processUntilSettled();
+        verify(pluggySyncJobService, times(1)).submit(any(), eq(ACCOUNT_ID));
+        verify(pluggySyncJobService, never()).submit(any(), eq(ITEM_ID));
+        assertTrue(events().stream().allMatch(event -> event.getStatus() == PluggyWebhookEventStatus.PROCESSED));
+    }
+
+    @Test
+    void stateWithoutItemIsFoundByTheEventAccount() throws Exception {
+        User user = demoUser();
+        syncStateRepository.save(new PluggySyncState(user.getId(), LEGACY_ACCOUNT_ID, LocalDate.now(), LocalDate.now()));
+        when(pluggySyncJobService.submit(any(), eq(LEGACY_ACCOUNT_ID))).thenReturn(queuedJob(LEGACY_ACCOUNT_ID));
+
+        assertEquals(202, send("test-secret", webhook("transactions/created", prefix + "e", ITEM_ID, LEGACY_ACCOUNT_ID)));
+
+        processUntilSettled();
+        verify(pluggySyncJobService, times(1)).submit(any(), eq(LEGACY_ACCOUNT_ID));
+        assertTrue(events().stream().allMatch(event -> event.getStatus() == PluggyWebhookEventStatus.PROCESSED));
+    }
+
+    @Test
+    void rejectsWrongSecretAndInvalidPayloads() throws Exception {
+        assertEquals(401, send("wrong", webhook("item/updated", prefix + "a", ITEM_ID, null)));
+        assertEquals(401, send(null, webhook("item/updated", prefix + "a", ITEM_ID, null)));
+        assertEquals(400, send("test-secret", "{not json"));
+        assertEquals(400, send("test-secret", "{\"event\":\"item/updated\",\"eventId\":\"" + prefix + "b\"}"));
+        assertTrue(events().isEmpty());
+    }
+
+    @Test
+    void unrelatedEventsAndUnknownItemsAreIgnored() throws Exception {
+        assertEquals(202, send("test-secret", webhook("item/login_succeeded", prefix + "c", ITEM_ID, null)));
+        assertEquals(202, send("test-secret", webhook("transactions/created", prefix + "d",
+                "e4c8a7b3-2d1f-4e90-b6a5-7c3d8f2e1a09", "9a2b7c4d-1e8f-4a3b-b5c6-0d7e2f9a8b14")));
+
+        processUntilSettled();
+        verify(pluggySyncJobService, never()).submit(any(), any());
+        assertTrue(events().stream().allMatch(event -> event.getStatus() == PluggyWebhookEventStatus.IGNORED));
+    }
+
+    private User demoUser() {
+        User user = userRepository.findByEmail("demo@lume.app");
+        assumeTrue(user != null, "usuário demo@lume.app não existe neste banco");
+        return user;
+    }
+
+    // Processa a fila até a janela de agrupamento passar e nenhum evento ficar pendente
+    private void processUntilSettled() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (events().stream().anyMatch(event -> event.getStatus() == PluggyWebhookEventStatus.PENDING)) {
+            if (System.nanoTime() > deadline) {
+                fail("Webhooks ainda pendentes depois de 10s");
+            }
+            Thread.sleep(100);
+            pluggyWebhookService.processPending();
+        }
+    }
+
+    private int send(String secret, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/pluggy/webhooks"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (secret != null) {
+            request.header(PluggyWebhookService.SECRET_HEADER, secret);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private String webhook(String event, String eventId, String itemId, String accountId) {
+        return "{\"event\":\"" + event + "\",\"eventId\":\"" + eventId + "\",\"itemId\":\"" + itemId + "\","
+                + (accountId != null ? "\"accountId\":\"" + accountId + "\"," : "") + "\"triggeredBy\":\"SYNC\"}";
+    }
+
+    private List<PluggyWebhookEvent> events() {
+        return webhookEventRepository.findAll().stream()
+                .filter(event -> event.getEventId().startsWith(prefix))
+                .toList();
+    }
+
+    private PluggySyncJobDTO queuedJob(String accountId) {
+        return new PluggySyncJobDTO(UUID.randomUUID(), accountId, PluggySyncJobStatus.QUEUED, false,
+                0, 0, 0, LocalDateTime.now(), null, null, null);
+    }
+}
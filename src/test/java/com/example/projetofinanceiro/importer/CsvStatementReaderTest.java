@@ -0,0 +1,95 @@
+package com.example.projetofinanceiro.importer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvStatementReaderTest {
+
+    @Test
+    void readsBrazilianExportWithBomCrlfAndSemicolons() throws IOException {
+        String csv = "\uFEFFData;Descrição;Valor;Categoria\r\n"
+                + "05/03/2024;Padaria;-1.234,56;Alimentação\r\n"
+                + "06/03/2024;Salário;5.000,00;\r\n";
+
+        List<StatementRow> rows = readAll(csv);
+
+        assertEquals(2, rows.size());
+        StatementRow first = rows.get(0);
+        assertEquals(2, first.line());
+        assertEquals("05/03/2024", first.date());
+        assertEquals("Padaria", first.description());
+        assertEquals("-1.234,56", first.amount());
+        assertEquals("Alimentação", first.category());
+        // Sem \r sobrando no último campo nem categoria para a coluna vazia
+        assertNull(rows.get(1).category());
+        assertEquals("5.000,00", rows.get(1).amount());
+    }
+
+    @Test
+    void followsRfc4180Quoting() throws IOException {
+        String csv = "date,description,amount,id\r\n"
+                + "2024-03-05,\"Padaria \"\"Pão Quente\"\", centro\",\"1.234,56\",a1\r\n"
+                + "2024-03-06,\"Aluguel\r\nmarço\",-900.00,a2\r\n"
+                + "\r\n"
+                + "2024-03-07,Mercado,-50.00,a3\r\n";
+
+        List<StatementRow> rows = readAll(csv);
+
+        assertEquals(3, rows.size());
+        assertEquals("Padaria \"Pão Quente\", centro", rows.get(0).description());
+        assertEquals("1.234,56", rows.get(0).amount());
+        assertEquals("a1", rows.get(0).externalId());
+
+        // Quebra de linha dentro das aspas faz parte do campo; a linha é a de início do registro
+        assertEquals("Aluguel\nmarço", rows.get(1).description());
+        assertEquals(3, rows.get(1).line());
+        assertEquals("-900.00", rows.get(1).amount());
+
+        assertEquals(6, rows.get(2).line());
+        assertEquals("Mercado", rows.get(2).description());
+    }
+
+    @Test
+    void detectsDelimiterFromHeader() throws IOException {
+        assertEquals("Uber", readAll("data\tdescricao\tvalor\n2024-03-05\tUber\t-20,00\n").get(0).description());
+        assertEquals("-20,00", readAll("data;descricao;valor\n2024-03-05;Uber;-20,00\n").get(0).amount());
+        assertEquals("-20.00", readAll("data,descricao,valor\n2024-03-05,Uber,-20.00\n").get(0).amount());
+    }
+
+    @Test
+    void readsOptionalColumnsByAlias() throws IOException {
+        StatementRow row = readAll("Histórico,Data,Valor,Tipo,Conta,FITID\nPix recebido,05/03/2024,100,Receita,Nubank,x9\n").get(0);
+
+        assertEquals("Pix recebido", row.description());
+        assertEquals("Receita", row.type());
+        assertEquals("Nubank", row.account());
+        assertEquals("x9", row.externalId());
+    }
+
+    @Test
+    void rejectsEmptyFileAndMissingColumns() {
+        assertThrows(ResponseStatusException.class, () -> readAll(""));
+        assertThrows(ResponseStatusException.class, () -> readAll("data;valor\n05/03/2024;10,00\n"));
+    }
+
+    private static List<StatementRow> readAll(String csv) throws IOException {
+        List<StatementRow> rows = new ArrayList<>();
+        try (StatementReader reader = new CsvStatementReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)))) {
+            StatementRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
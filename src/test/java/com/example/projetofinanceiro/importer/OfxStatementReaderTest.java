@@ -0,0 +1,99 @@
+package com.example.projetofinanceiro.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OfxStatementReaderTest {
+
+    @Test
+    void readsSgmlOfxWithUnclosedElements() throws IOException {
+        // OFX 1.x como os bancos brasileiros exportam: cabeçalho texto, CHARSET 1252 e CRLF
+        String ofx = "OFXHEADER:100\r\n"
+                + "DATA:OFXSGML\r\n"
+                + "VERSION:102\r\n"
+                + "CHARSET:1252\r\n"
+                + "\r\n"
+                + "<OFX>\r\n"
+                + "<BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\r\n"
+                + "<STMTTRN>\r\n"
+                + "<TRNTYPE>DEBIT\r\n"
+                + "<DTPOSTED>20240305120000[-3:BRT]\r\n"
+                + "<TRNAMT>-45.20\r\n"
+                + "<FITID>202403050001\r\n"
+                + "<MEMO>Padaria S&amp;A - Pão\r\n"
+                + "</STMTTRN>\r\n"
+                + "<STMTTRN>\r\n"
+                + "<TRNTYPE>CREDIT\r\n"
+                + "<DTPOSTED>20240306\r\n"
+                + "<TRNAMT>1500.00\r\n"
+                + "<FITID>202403060002\r\n"
+                + "<NAME>Salário\r\n"
+                + "<MEMO>Pagamento mensal\r\n"
+                + "</STMTTRN>\r\n"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1>\r\n"
+                + "</OFX>\r\n";
+
+        List<StatementRow> rows = readAll(ofx.getBytes(StandardCharsets.ISO_8859_1));
+
+        assertEquals(2, rows.size());
+        StatementRow debit = rows.get(0);
+        assertEquals(8, debit.line());
+        assertEquals("20240305120000[-3:BRT]", debit.date());
+        assertEquals("-45.20", debit.amount());
+        assertEquals("202403050001", debit.externalId());
+        assertEquals("Padaria S&A - Pão", debit.description());
+        assertNull(debit.type());
+
+        // NAME tem prioridade sobre MEMO
+        assertEquals("Salário", rows.get(1).description());
+        assertEquals("1500.00", rows.get(1).amount());
+    }
+
+    @Test
+    void readsXmlOfxOnOneLine() throws IOException {
+        String ofx = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<?OFX OFXHEADER=\"200\" VERSION=\"211\"?>"
+                + "<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>"
+                + "<STMTTRN><TRNTYPE>DEBIT</TRNTYPE><DTPOSTED>20240307</DTPOSTED>"
+                + "<TRNAMT>-12.90</TRNAMT><FITID>x-1</FITID><NAME>Café</NAME></STMTTRN>"
+                + "<stmttrn><trnamt>-3.00</trnamt><dtposted>20240308</dtposted><memo>Tarifa</memo></stmttrn>"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+
+        List<StatementRow> rows = readAll(ofx.getBytes(StandardCharsets.ISO_8859_1));
+
+        assertEquals(2, rows.size());
+        assertEquals("Café", rows.get(0).description());
+        assertEquals("-12.90", rows.get(0).amount());
+        assertEquals("20240307", rows.get(0).date());
+        assertEquals("x-1", rows.get(0).externalId());
+
+        // Tags sem diferenciar maiúsculas; sem FITID a linha vem sem id
+        assertEquals("Tarifa", rows.get(1).description());
+        assertEquals("-3.00", rows.get(1).amount());
+        assertNull(rows.get(1).externalId());
+    }
+
+    @Test
+    void fileWithoutTransactionsHasNoRows() throws IOException {
+        assertEquals(0, readAll("<OFX><SIGNONMSGSRSV1></SIGNONMSGSRSV1></OFX>".getBytes(StandardCharsets.ISO_8859_1)).size());
+    }
+
+    private static List<StatementRow> readAll(byte[] ofx) throws IOException {
+        List<StatementRow> rows = new ArrayList<>();
+        try (StatementReader reader = new OfxStatementReader(new ByteArrayInputStream(ofx))) {
+            StatementRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.projetofinanceiro.importer;
+
+import com.example.projetofinanceiro.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatementValuesTest {
+
+    @Test
+    void parsesBrazilianAndInternationalAmounts() {
+        assertEquals(new BigDecimal("1234.56"), StatementValues.parseAmount("1.234,56"));
+        assertEquals(new BigDecimal("1234.56"), StatementValues.parseAmount("1,234.56"));
+        assertEquals(new BigDecimal("1234.56"), StatementValues.parseAmount("1234.56"));
+        assertEquals(new BigDecimal("1234567.89"), StatementValues.parseAmount("1.234.567,89"));
+        assertEquals(new BigDecimal("-45.20"), StatementValues.parseAmount("-45,20"));
+        assertEquals(new BigDecimal("10.00"), StatementValues.parseAmount("R$ 10,00"));
+        assertEquals(new BigDecimal("10.00"), StatementValues.parseAmount("R$\u00A010,00"));
+    }
+
+    @Test
+    void parenthesizedAmountsAreNegative() {
+        assertEquals(new BigDecimal("-45.20"), StatementValues.parseAmount("(45,20)"));
+        assertEquals(new BigDecimal("-1234.56"), StatementValues.parseAmount("(R$ 1.234,56)"));
+        assertThrows(ImportRowException.class, () -> StatementValues.parseAmount("(-45,20)"));
+        assertThrows(ImportRowException.class, () -> StatementValues.parseAmount("()"));
+    }
+
+    @Test
+    void rejectsMissingOrInvalidAmounts() {
+        assertThrows(ImportRowException.class, () -> StatementValues.parseAmount(null));
+        assertThrows(ImportRowException.class, () -> StatementValues.parseAmount("  "));
+        assertThrows(ImportRowException.class, () -> StatementValues.parseAmount("doze reais"));
+    }
+
+    @Test
+    void parsesBrazilianIsoAndOfxDates() {
+        LocalDate expected = LocalDate.of(2024, 3, 5);
+        assertEquals(expected, StatementValues.parseDate("05/03/2024"));
+        assertEquals(expected, StatementValues.parseDate(" 2024-03-05 "));
+        assertEquals(expected, StatementValues.parseDate("20240305"));
+        assertEquals(expected, StatementValues.parseDate("20240305120000[-3:BRT]"));
+    }
+
+    @Test
+    void rejectsImpossibleOrAmbiguousDates() {
+        // Resolução estrita: 31 de fevereiro não vira 2 de março
+        assertThrows(ImportRowException.class, () -> StatementValues.parseDate("31/02/2024"));
+        assertThrows(ImportRowException.class, () -> StatementValues.parseDate("03/05/24"));
+        assertThrows(ImportRowException.class, () -> StatementValues.parseDate("2024-13-01"));
+        assertThrows(ImportRowException.class, () -> StatementValues.parseDate(""));
+    }
+
+    @Test
+    void parsesTypesInPortugueseAndEnglish() {
+        assertEquals(TransactionType.INCOME, StatementValues.parseType("Receita"));
+        assertEquals(TransactionType.INCOME, StatementValues.parseType("CRÉDITO"));
+        assertEquals(TransactionType.EXPENSE, StatementValues.parseType("débito"));
+        assertEquals(TransactionType.EXPENSE, StatementValues.parseType(" saída "));
+        assertEquals(TransactionType.EXPENSE, StatementValues.parseType("D"));
+        assertNull(StatementValues.parseType(""));
+        assertThrows(ImportRowException.class, () -> StatementValues.parseType("transferência"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.projetofinanceiro.repository;
+
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compara o caminho antigo do dashboard (quatro buscas de entidades + somas em Java)
+ * com a consulta agregada única, em número de statements e latência p99.
+ *
+ * Fora do build padrão: roda só com -Dbenchmarks=true, contra o banco configurado
+ * (precisa estar no ar) e com o usuário demo@lume.app criado pelo DatabaseSeeder.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class DashboardQueryBenchmarkTest {
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private DashboardQueryRepository dashboardQueryRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void aggregateQueryReplacesEntityFetches() {
+        User user = userRepository.findByEmail("demo@lume.app");
+        assumeTrue(user != null, "usuário demo@lume.app não existe neste banco");
+        LocalDate now = LocalDate.now();
+        LocalDate thirtyDaysAgo = now.minusDays(29);
+        LocalDate startOfMonth = now.with(TemporalAdjusters.firstDayOfMonth());
+        LocalDate endOfMonth = now.with(TemporalAdjusters.lastDayOfMonth());
+        LocalDate startOfLastMonth = now.minusMonths(1).with(TemporalAdjusters.firstDayOfMonth());
+        LocalDate endOfLastMonth = now.minusMonths(1).with(TemporalAdjusters.lastDayOfMonth());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Result before = measure(statistics, u -> {
+            List<Transaction> expenses = transactionRepository.findByTypeAndDateRange(u, thirtyDaysAgo, now, TransactionType.EXPENSE);
+            List<Transaction> current = transactionRepository.findByDateRange(u, startOfMonth, endOfMonth);
+            List<Transaction> previous = transactionRepository.findByDateRange(u, startOfLastMonth, endOfLastMonth);
+            List<Transaction> lastMonth = transactionRepository.findAllByDateRange(u, startOfLastMonth, endOfLastMonth);
+            sum(expenses);
+            sum(current);
+            sum(previous);
+            sum(lastMonth);
+        }, user);
+
+        Result after = measure(statistics, u -> dashboardQueryRepository.findAggregates(
+                u.getId(), thirtyDaysAgo, now, startOfMonth, endOfMonth, startOfLastMonth, endOfLastMonth), user);
+
+        log.info("Dashboard antes:  {} statements, p50 {} ms, p99 {} ms", before.statements, before.p50Millis, before.p99Millis);
+        log.info("Dashboard depois: {} statements, p50 {} ms, p99 {} ms", after.statements, after.p50Millis, after.p99Millis);
+
+        assertEquals(1, after.statements);
+        assertTrue(after.statements < before.statements);
+    }
+
+    private Result measure(Statistics statistics, Consumer<User> body, User user) {
+        for (int i = 0; i < WARMUP; i++) {
+            body.accept(user);
+        }
+
+        statistics.clear();
+        body.accept(user);
+        long statements = statistics.getPrepareStatementCount();
+
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            body.accept(user);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+
+        return new Result(statements, percentile(samples, 0.50), percentile(samples, 0.99));
+    }
+
+    private static double percentile(long[] sortedSamples, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static BigDecimal sum(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private record Result(long statements, double p50Millis, double p99Millis) {}
+}
@@ -0,0 +1,137 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.model.CreditCard;
+import com.example.projetofinanceiro.model.Transaction;
+import com.example.projetofinanceiro.model.TransactionType;
+import com.example.projetofinanceiro.model.User;
+import com.example.projetofinanceiro.repository.CreditCardRepository;
+import com.example.projetofinanceiro.repository.TransactionRepository;
+import com.example.projetofinanceiro.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Várias threads lançam despesas no mesmo cartão ao mesmo tempo; com o ajuste
+ * atômico nenhuma compra se perde. Usa o cartão do usuário demo criado pelo
+ * DatabaseSeeder (o teste é pulado sem ele) e remove as transações de teste no final.
+ */
+@SpringBootTest
+class CreditCardLimitConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int PURCHASES_PER_THREAD = 25;
+    private static final BigDecimal AMOUNT = new BigDecimal("1.25");
+
+    @Autowired
+    private CreditCardLimitService creditCardLimitService;
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentPurchasesOnOneCardAreNotLost() throws Exception {
+        User user = demoUser();
+        Long cardId = demoCard(user).getId();
+        BigDecimal before = limitUsed(cardId);
+
+        Queue<Long> created = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < PURCHASES_PER_THREAD; j++) {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            Transaction transaction = purchase(user, cardId);
+                            transactionRepository.save(transaction);
+                            creditCardLimitService.record(transaction);
+                            created.add(transaction.getId());
+                        });
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+
+            BigDecimal expected = before.add(AMOUNT.multiply(BigDecimal.valueOf((long) THREADS * PURCHASES_PER_THREAD)));
+            assertEquals(0, expected.compareTo(limitUsed(cardId)), "limite usado após as compras concorrentes");
+            assertEquals(0, creditCardLimitService.reconcile(user.getId()).driftedCards());
+        } finally {
+            executor.shutdownNow();
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Transaction> transactions = transactionRepository.findAllById(created);
+                creditCardLimitService.revertAll(transactions);
+                transactionRepository.deleteAll(transactions);
+            });
+        }
+
+        assertEquals(0, before.compareTo(limitUsed(cardId)), "limite usado após remover as compras");
+    }
+
+    @Test
+    void staleCardSaveIsRejected() {
+        CreditCard stale = demoCard(demoUser());
+
+        // Uma compra chega depois da leitura: o UPDATE atômico sobe a versão do cartão
+        transactionTemplate.executeWithoutResult(status -> creditCardRepository.adjustLimitUsed(stale.getId(), BigDecimal.ZERO));
+
+        stale.setName(stale.getName() + " (editado)");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> creditCardRepository.save(stale));
+    }
+
+    private User demoUser() {
+        User user = userRepository.findByEmail("demo@lume.app");
+        assumeTrue(user != null, "usuário demo@lume.app não existe neste banco");
+        return user;
+    }
+
+    private CreditCard demoCard(User user) {
+        List<CreditCard> cards = creditCardRepository.findByUser(user);
+        assumeTrue(!cards.isEmpty(), "usuário demo@lume.app não tem cartão");
+        return cards.get(0);
+    }
+
+    private Transaction purchase(User user, Long cardId) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setCreditCard(creditCardRepository.getReferenceById(cardId));
+        transaction.setDescription("Compra concorrente");
+        transaction.setAmount(AMOUNT);
+        transaction.setType(TransactionType.EXPENSE);
+        transaction.setDate(LocalDate.now());
+        return transaction;
+    }
+
+    private BigDecimal limitUsed(Long cardId) {
+        return creditCardRepository.findById(cardId).orElseThrow().getLimitUsed();
+    }
+}
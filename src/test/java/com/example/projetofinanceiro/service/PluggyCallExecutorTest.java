@@ -0,0 +1,159 @@
+package com.example.projetofinanceiro.service;
+
+import com.example.projetofinanceiro.dto.PluggyClientStatsDTO;
+import com.example.projetofinanceiro.resilience.CallRejectedException;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercita o PluggyCallExecutor contra um servidor HTTP local que faz o papel da
+ * Pluggy: cada requisição consome o próximo comportamento roteirizado (status e atraso).
+ */
+class PluggyCallExecutorTest {
+
+    interface StubApi {
+        @GET("transactions")
+        Call<ResponseBody> list();
+
+        @POST("connect_token")
+        Call<ResponseBody> createConnectToken();
+    }
+
+    private record Scripted(int status, long delayMillis) {}
+
+    private final Queue<Scripted> script = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private StubApi api;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            Scripted next = script.poll();
+            if (next == null) next = new Scripted(200, 0);
+            try {
+                Thread.sleep(next.delayMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes();
+            exchange.sendResponseHeaders(next.status(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        api = new Retrofit.Builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort() + "/")
+                .build()
+                .create(StubApi.class);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void retriesTransientFailuresOnReads() throws Exception {
+        PluggyCallExecutor executor = executor(Duration.ofSeconds(2), 3, 10, Duration.ofSeconds(30), 100);
+        script.add(new Scripted(503, 0));
+        script.add(new Scripted(429, 0));
+
+        Response<ResponseBody> response = executor.read(api.list());
+
+        assertEquals(200, response.code());
+        assertEquals(3, requests.get());
+        PluggyClientStatsDTO stats = executor.stats();
+        assertEquals(2, stats.retries());
+        assertEquals(1, stats.successes());
+    }
+
+    @Test
+    void doesNotRetryWrites() throws Exception {
+        PluggyCallExecutor executor = executor(Duration.ofSeconds(2), 3, 10, Duration.ofSeconds(30), 100);
+        script.add(new Scripted(503, 0));
+
+        assertEquals(503, executor.write(api.createConnectToken()).code());
+        assertEquals(1, requests.get());
+        assertEquals(1, executor.stats().failures());
+    }
+
+    @Test
+    void slowCallsTimeOut() {
+        PluggyCallExecutor executor = executor(Duration.ofMillis(200), 1, 10, Duration.ofSeconds(30), 100);
+        script.add(new Scripted(200, 1_500));
+
+        long start = System.nanoTime();
+        assertThrows(InterruptedIOException.class, () -> executor.read(api.list()));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1_000, "a chamada deveria ter sido interrompida");
+        assertEquals(1, executor.stats().timeouts());
+    }
+
+    @Test
+    void circuitOpensFailsFastAndRecovers() throws Exception {
+        PluggyCallExecutor executor = executor(Duration.ofSeconds(2), 1, 3, Duration.ofMillis(300), 100);
+        for (int i = 0; i < 3; i++) {
+            script.add(new Scripted(500, 0));
+            assertEquals(500, executor.read(api.list()).code());
+        }
+
+        assertEquals("OPEN", executor.stats().circuitState());
+        assertThrows(CallRejectedException.class, () -> executor.read(api.list()));
+        assertEquals(3, requests.get(), "com o disjuntor aberto a Pluggy não deve ser chamada");
+
+        // Passado o tempo de abertura, a chamada de teste passa e fecha o disjuntor
+        Thread.sleep(400);
+        assertEquals(200, executor.read(api.list()).code());
+        PluggyClientStatsDTO stats = executor.stats();
+        assertEquals("CLOSED", stats.circuitState());
+        assertEquals(1, stats.circuitOpenings());
+        assertEquals(1, stats.shortCircuited());
+    }
+
+    @Test
+    void rateLimiterSpacesCallsAndRejectsLongWaits() throws Exception {
+        PluggyCallExecutor executor = executor(Duration.ofSeconds(2), 1, 10, Duration.ofSeconds(30), 2);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            executor.read(api.list());
+        }
+        // Rajada de 1 a 2 por segundo: três esperas de ~500ms, folga para uma chamada lenta com a suíte carregada
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 1_400);
+        assertEquals(3, executor.stats().throttled());
+
+        PluggyCallExecutor impatient = new PluggyCallExecutor(Duration.ofSeconds(2), 1, Duration.ofMillis(10),
+                Duration.ofMillis(50), 10, Duration.ofSeconds(30), 1, 1, Duration.ofMillis(100));
+        impatient.read(api.list());
+        assertThrows(CallRejectedException.class, () -> impatient.read(api.list()));
+        assertEquals(1, impatient.stats().throttleRejections());
+    }
+
+    private PluggyCallExecutor executor(Duration callTimeout, int maxAttempts, int failureThreshold,
+                                        Duration openDuration, double permitsPerSecond) {
+        return new PluggyCallExecutor(callTimeout, maxAttempts, Duration.ofMillis(10), Duration.ofMillis(50),
+                failureThreshold, openDuration, permitsPerSecond, 1, Duration.ofSeconds(5));
+    }
+}